@@ -1,5 +1,6 @@
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "ru.Khalilov.Banks"
@@ -19,4 +20,11 @@ dependencies {
 
 tasks.getByName<Test>("test") {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+    jvmArgs.addAll("-Xms4g", "-Xmx4g")
+}
@@ -0,0 +1,45 @@
+package ru.Khalilov.banks.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.Khalilov.banks.domain.entities.Account;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-only operations on random accounts of a book: prediction of balance and lookup by id
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int bookSize;
+
+    @Param({"1", "30", "365"})
+    private int predictionDays;
+
+    private Book book;
+    private Duration predictionPeriod;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        book = new Book(bookSize);
+        predictionPeriod = Duration.ofDays(predictionDays);
+    }
+
+    @Benchmark
+    public BigDecimal predict() {
+        return book.accounts[ThreadLocalRandom.current().nextInt(bookSize)].predict(predictionPeriod);
+    }
+
+    @Benchmark
+    public Account findAccount() {
+        return book.bank.findAccount(book.accountIds[ThreadLocalRandom.current().nextInt(bookSize)]);
+    }
+}
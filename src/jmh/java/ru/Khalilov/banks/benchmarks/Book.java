@@ -0,0 +1,63 @@
+package ru.Khalilov.banks.benchmarks;
+
+import ru.Khalilov.banks.domain.entities.*;
+import ru.Khalilov.banks.domain.models.AccountId;
+import ru.Khalilov.banks.domain.models.Address;
+import ru.Khalilov.banks.domain.models.ClientInformation;
+import ru.Khalilov.banks.domain.models.Money;
+import ru.Khalilov.banks.domain.models.Passport;
+import ru.Khalilov.banks.domain.models.TariffStats;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Central bank with one bank, one debit tariff and given amount of clients, each having one funded account.
+ * Clients have passport and address, so limit for doubtful clients doesn't apply, and have no email, so building
+ * large book doesn't depend on tariff subscriptions
+ */
+final class Book {
+    static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 12, 0);
+    static final long INITIAL_BALANCE = Money.toMinorUnits(BigDecimal.valueOf(1_000_000));
+
+    final ManualClockImpl clock;
+    final CentralBank centralBank;
+    final Bank bank;
+    final Client[] clients;
+    final Account[] accounts;
+    final AccountId[] accountIds;
+
+    /**
+     * Builds book with given amount of accounts
+     * @param size - amount of accounts
+     */
+    Book(int size) {
+        clock = new ManualClockImpl(START);
+        centralBank = new CentralBank(clock, UUID.randomUUID());
+        bank = centralBank.createBank(BigDecimal.ZERO);
+        bank.addTariff(new TariffBuilder()
+                .withName("debit")
+                .withAccountType("debit")
+                .withBalanceInterest(new BigDecimal("0.0365"))
+                .build());
+        TariffStats tariff = bank.getTariffStats().get(0);
+
+        ClientInformation clientInformation = new ClientInformationBuilder()
+                .withName("Aboba")
+                .withSurname("Abobov")
+                .withAddress(new Address("aaaaaaa", 10))
+                .withPassport(new Passport("1234", "567890"))
+                .build();
+
+        clients = new Client[size];
+        accounts = new Account[size];
+        accountIds = new AccountId[size];
+        for (int i = 0; i < size; i++) {
+            clients[i] = bank.findClient(bank.addClient(clientInformation));
+            accounts[i] = bank.createAccount(clients[i], tariff);
+            accountIds[i] = accounts[i].getAccountID();
+            centralBank.addMoney(accountIds[i], INITIAL_BALANCE);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ru.Khalilov.banks.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.Khalilov.banks.domain.entities.ManualClockImpl;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ManualClockImpl#forward(Duration)} over a book, where every account accrues interest and gets monthly payouts.
+ * Every iteration starts with fresh book and forwards its clock {@link #FORWARDS} times, so accounts keep realistic
+ * balances however many iterations are run. Score is time of all forwards of one iteration
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = ClockBenchmark.FORWARDS)
+@Measurement(iterations = 10, batchSize = ClockBenchmark.FORWARDS)
+@Fork(1)
+public class ClockBenchmark {
+    static final int FORWARDS = 12;
+
+    @Param({"1000", "100000", "1000000"})
+    private int bookSize;
+
+    @Param({"1", "30", "365"})
+    private int days;
+
+    private Book book;
+    private Duration step;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        book = new Book(bookSize);
+        step = Duration.ofDays(days);
+    }
+
+    @Benchmark
+    public void forward() {
+        book.clock.forward(step);
+    }
+}
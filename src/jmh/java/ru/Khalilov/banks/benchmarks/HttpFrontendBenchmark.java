@@ -0,0 +1,71 @@
+package ru.Khalilov.banks.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.Khalilov.banks.http.HttpFrontend;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link HttpFrontend} on loopback address: concurrent clients put money on random accounts of a book,
+ * so every request goes through JSON parsing, stateless service and posting. Book is built once per trial, since one
+ * posting per request keeps transaction log small compared to the book
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class HttpFrontendBenchmark {
+    private static final int BOOK_SIZE = 1000;
+
+    @Param({"1", "4"})
+    private int serverThreads;
+
+    private Book book;
+    private HttpFrontend frontend;
+    private HttpClient client;
+    private URI putUri;
+    private String[] putBodies;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        book = new Book(BOOK_SIZE);
+        frontend = new HttpFrontend(book.centralBank, 0, serverThreads);
+        frontend.start();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        putUri = URI.create("http://127.0.0.1:" + frontend.getPort() + "/put");
+
+        String bankId = book.bank.getBankID().BankId().toString();
+        putBodies = new String[BOOK_SIZE];
+        for (int i = 0; i < BOOK_SIZE; i++) {
+            putBodies[i] = "{\"bankId\": \"" + bankId + "\", \"clientId\": \"" + book.clients[i].getId()
+                    + "\", \"accountId\": \"" + book.accountIds[i].accountId() + "\", \"sum\": 1}";
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        frontend.close();
+    }
+
+    @Benchmark
+    public int putMoney() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(putUri)
+                .POST(HttpRequest.BodyPublishers.ofString(putBodies[ThreadLocalRandom.current().nextInt(BOOK_SIZE)]))
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Request failed with status " + response.statusCode());
+        }
+
+        return response.statusCode();
+    }
+}
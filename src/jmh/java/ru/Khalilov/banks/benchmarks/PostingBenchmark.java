@@ -0,0 +1,84 @@
+package ru.Khalilov.banks.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.Khalilov.banks.domain.models.BatchAtomicity;
+import ru.Khalilov.banks.domain.models.PostingRequest;
+import ru.Khalilov.banks.domain.models.PostingResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Postings through {@link ru.Khalilov.banks.domain.entities.CentralBank} on random accounts of a book.
+ * Every posting stays in transaction log, so book is rebuilt before each iteration to keep heap usage bounded
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostingBenchmark {
+    private static final long SUM = 100;
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"1000", "100000", "1000000"})
+    private int bookSize;
+
+    private Book book;
+
+    private List<PostingRequest> batch;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        book = new Book(bookSize);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(i % 2 == 0
+                    ? PostingRequest.credit(book.accountIds[random.nextInt(bookSize)], SUM)
+                    : PostingRequest.transfer(book.accountIds[random.nextInt(bookSize)], book.accountIds[random.nextInt(bookSize)], SUM));
+        }
+    }
+
+    @Benchmark
+    public UUID addMoney() {
+        return book.centralBank.addMoney(book.accountIds[ThreadLocalRandom.current().nextInt(bookSize)], SUM);
+    }
+
+    @Benchmark
+    public UUID transferMoney() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(bookSize);
+        int to = random.nextInt(bookSize - 1);
+        if (to >= from) {
+            to++;
+        }
+
+        return book.centralBank.transferMoney(book.accountIds[from], book.accountIds[to], SUM);
+    }
+
+    /**
+     * Batch of credits and transfers, measured per posting to be comparable with single calls
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<PostingResult> postBatch() {
+        return book.centralBank.postBatch(batch, BatchAtomicity.PER_ITEM);
+    }
+
+    /**
+     * Cancellation needs a committed transaction, so each operation is posting followed by its cancellation
+     */
+    @Benchmark
+    public void addMoneyAndCancel(Blackhole blackhole) {
+        UUID transactionId = addMoney();
+        book.centralBank.cancelTransaction(transactionId);
+        blackhole.consume(transactionId);
+    }
+}
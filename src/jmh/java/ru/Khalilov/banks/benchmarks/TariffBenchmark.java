@@ -0,0 +1,82 @@
+package ru.Khalilov.banks.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.Khalilov.banks.domain.entities.AsyncNotificationDispatcher;
+import ru.Khalilov.banks.domain.entities.ManualClockImpl;
+import ru.Khalilov.banks.domain.entities.Tariff;
+import ru.Khalilov.banks.domain.entities.TariffBuilder;
+import ru.Khalilov.banks.domain.models.EmailImpl;
+import ru.Khalilov.banks.domain.models.TariffStats;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Tariff#setTariffStats(TariffStats)} with given amount of subscribed emails, delivered synchronously or through
+ * {@link AsyncNotificationDispatcher}. Asynchronous change is measured both as time the caller is blocked and as time
+ * until every mailbox has the message. Every change leaves a message in every mailbox, so subscribers are recreated
+ * before each iteration
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TariffBenchmark {
+    @Param({"100", "10000", "100000"})
+    private int subscriberCount;
+
+    @Param({"direct", "async"})
+    private String dispatcher;
+
+    private Tariff tariff;
+    private TariffStats[] stats;
+    private int next;
+    private AsyncNotificationDispatcher asyncDispatcher;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        TariffStats base = new TariffBuilder()
+                .withName("debit")
+                .withAccountType("debit")
+                .withBalanceInterest(BigDecimal.valueOf(3.65))
+                .build();
+        stats = new TariffStats[] {
+                base,
+                new TariffBuilder(base).withBalanceInterest(BigDecimal.valueOf(4.2)).build()
+        };
+
+        tariff = new Tariff(new ManualClockImpl(Book.START), base);
+        for (int i = 0; i < subscriberCount; i++) {
+            tariff.subscribe(new EmailImpl("client" + i + "@mail.ru"));
+        }
+        if (dispatcher.equals("async")) {
+            asyncDispatcher = new AsyncNotificationDispatcher();
+            tariff.setNotificationDispatcher(asyncDispatcher);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (asyncDispatcher != null) {
+            asyncDispatcher.close();
+            asyncDispatcher = null;
+        }
+    }
+
+    @Benchmark
+    public void setTariffStats() {
+        next ^= 1;
+        tariff.setTariffStats(stats[next]);
+    }
+
+    @Benchmark
+    public void setTariffStatsAndAwaitDelivery() {
+        next ^= 1;
+        tariff.setTariffStats(stats[next]);
+        if (asyncDispatcher != null) {
+            asyncDispatcher.awaitDelivered();
+        }
+    }
+}
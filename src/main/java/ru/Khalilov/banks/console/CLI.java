@@ -1,49 +1,71 @@
 package ru.Khalilov.banks.console;
 
-import lombok.Getter;
 import lombok.NonNull;
 import ru.Khalilov.banks.console.exceptions.GeneralCLIException;
+import ru.Khalilov.banks.console.handlers.CommandTree;
 import ru.Khalilov.banks.console.handlers.HandlerBase;
 import ru.Khalilov.banks.console.readers.ConsoleIOHandler;
 import ru.Khalilov.banks.domain.services.SingleWorkstationService;
 
-import java.io.InputStreamReader;
 import java.util.*;
 
+/**
+ * Reads commands and dispatches them through {@link CommandTree}. Command {@code help} lists all commands, and command
+ * ending with {@code ?} lists possible completions of its last word. Output is flushed after every command
+ */
 public class CLI {
+    private static final String HELP_COMMAND = "help";
+    private static final String COMPLETION_SUFFIX = "?";
+
     @NonNull
     private SingleWorkstationService service;
     @NonNull
-    private final HandlerBase startingHandler;
+    private final CommandTree commandTree;
     @NonNull
     private final ConsoleIOHandler ioHandler;
 
     public CLI(@NonNull SingleWorkstationService service, @NonNull HandlerBase startingHandler, @NonNull ConsoleIOHandler ioHandler) {
+        this(service, CommandTree.compile(startingHandler), ioHandler);
+    }
+
+    public CLI(@NonNull SingleWorkstationService service, @NonNull CommandTree commandTree, @NonNull ConsoleIOHandler ioHandler) {
         this.service = service;
-        this.startingHandler = startingHandler;
+        this.commandTree = commandTree;
         this.ioHandler = ioHandler;
     }
 
     public void run() {
         while (true) {
-            List<String> args;
-            while (true) {
-                String input = ioHandler.readInput();
-                if (input.equals("exit")) {
-                    return;
+            String input = ioHandler.readInput();
+            if (input.equals("exit")) {
+                return;
+            }
+            if (input.equals(HELP_COMMAND)) {
+                ioHandler.println(String.join("\n", commandTree.commands()));
+                ioHandler.flush();
+                continue;
+            }
+            if (input.endsWith(COMPLETION_SUFFIX)) {
+                List<String> words = new ArrayList<>(List.of(input.substring(0, input.length() - 1).split(" ", -1)));
+                if (words.size() == 1 && words.get(0).isEmpty()) {
+                    words.clear();
                 }
-                args = List.of(input.split(" "));
+                ioHandler.println(String.join(" ", commandTree.complete(words)));
+                ioHandler.flush();
+                continue;
+            }
 
-                try {
-                    Optional<SingleWorkstationService> tmp = startingHandler.handle(service, args);
-                    if (tmp.isPresent() && !tmp.get().equals(service)) {
-                        service = tmp.get();
-                    }
-                }
-                catch (GeneralCLIException e) {
-                    ioHandler.println(e.getMessage());
+            List<String> args = List.of(input.split(" "));
+            try {
+                Optional<SingleWorkstationService> tmp = commandTree.dispatch(service, args);
+                if (tmp.isPresent() && !tmp.get().equals(service)) {
+                    service = tmp.get();
                 }
             }
+            catch (GeneralCLIException e) {
+                ioHandler.println(e.getMessage());
+            }
+            ioHandler.flush();
         }
     }
 }
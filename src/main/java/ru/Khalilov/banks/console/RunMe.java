@@ -1,19 +1,77 @@
 package ru.Khalilov.banks.console;
 
 import ru.Khalilov.banks.console.factories.*;
+import ru.Khalilov.banks.console.handlers.CommandTree;
 import ru.Khalilov.banks.console.handlers.HandlerBase;
+import ru.Khalilov.banks.console.readers.BufferedIOHandler;
 import ru.Khalilov.banks.console.readers.ConsoleIOHandler;
-import ru.Khalilov.banks.console.readers.SystemIOHandler;
-import ru.Khalilov.banks.domain.entities.Clock;
+import ru.Khalilov.banks.console.readers.ScriptIOHandler;
+import ru.Khalilov.banks.domain.entities.AsyncNotificationDispatcher;
+import ru.Khalilov.banks.domain.entities.CentralBank;
 import ru.Khalilov.banks.domain.entities.ManualClockImpl;
+import ru.Khalilov.banks.domain.journal.FileChannelJournal;
+import ru.Khalilov.banks.domain.journal.Journal;
+import ru.Khalilov.banks.domain.journal.NoJournal;
+import ru.Khalilov.banks.domain.journal.SnapshotFile;
 import ru.Khalilov.banks.domain.services.SingleWorkstationService;
 import ru.Khalilov.banks.domain.services.SingleWorkstationServiceImpl;
+import ru.Khalilov.banks.http.HttpFrontend;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
+/**
+ * Starts console. With arguments {@code --journal <path>} all changes are journaled to given file, and state is
+ * recovered from it on the next start. With {@code --snapshot <path>} snapshot is written on exit, and on the next start
+ * only journal records after it are replayed. With {@code --script <path>} commands of given file are executed without
+ * asking user (see {@link ScriptRunner}) instead of interactive session, and with {@code --http <port>} requests are
+ * served by {@link HttpFrontend} until {@code exit} is entered. Front-end listens on loopback address, other address
+ * must be chosen explicitly with {@code --http-bind <address>}
+ */
 public class RunMe {
+    private static final int HTTP_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
     public static void main(String[] args) {
-        ConsoleIOHandler ioHandler = new SystemIOHandler();
+        ConsoleIOHandler ioHandler = new BufferedIOHandler();
+        Path snapshotPath = findPath(args, "--snapshot");
+        try (Journal journal = openJournal(args); AsyncNotificationDispatcher notificationDispatcher = new AsyncNotificationDispatcher()) {
+            CentralBank centralBank = openCentralBank(journal, snapshotPath);
+            centralBank.setNotificationDispatcher(notificationDispatcher);
+            SingleWorkstationService service = new SingleWorkstationServiceImpl(centralBank);
+
+            Path scriptPath = findPath(args, "--script");
+            String httpPort = findOption(args, "--http");
+            if (scriptPath != null) {
+                runScript(service, scriptPath, ioHandler);
+            }
+            else if (httpPort != null) {
+                runHttpFrontend(centralBank, httpAddress(findOption(args, "--http-bind"), Integer.parseInt(httpPort)), ioHandler);
+            }
+            else {
+                CLI cli = new CLI(service, buildCommandTree(ioHandler), ioHandler);
+                cli.run();
+            }
+
+            if (snapshotPath != null) {
+                centralBank.writeSnapshot(snapshotPath);
+            }
+        }
+        catch (Exception e) {
+            ioHandler.println(e.getMessage());
+        }
+        finally {
+            ioHandler.flush();
+        }
+    }
+
+    private static CommandTree buildCommandTree(ConsoleIOHandler ioHandler) {
         HandlerBase showHandler = new ShowHandlerFactoryImpl(ioHandler).getHandler();
 
         HandlerBase addHandler = new AddHandlerFactoryImpl(ioHandler).getHandler();
@@ -37,16 +95,65 @@ public class RunMe {
         HandlerBase transactionHandler = new TransactionHandlerFactoryImpl(ioHandler).getHandler();
         skipHandler.setSuccessor(transactionHandler);
 
-        Clock clock = new ManualClockImpl(LocalDateTime.now());
-        SingleWorkstationService service = new SingleWorkstationServiceImpl(clock);
+        return CommandTree.compile(showHandler);
+    }
+
+    private static void runScript(SingleWorkstationService service, Path scriptPath, ConsoleIOHandler ioHandler) throws IOException {
+        ScriptIOHandler scriptIOHandler = new ScriptIOHandler(ioHandler);
+        ScriptRunner runner = new ScriptRunner(service, buildCommandTree(scriptIOHandler), scriptIOHandler);
+        try (Reader script = Files.newBufferedReader(scriptPath)) {
+            ioHandler.println(runner.run(script).toString());
+        }
+    }
+
+    private static InetSocketAddress httpAddress(String bindAddress, int port) throws UnknownHostException {
+        InetAddress address = bindAddress == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(bindAddress);
+        return new InetSocketAddress(address, port);
+    }
 
-        CLI cli = new CLI(service, showHandler, ioHandler);
+    private static void runHttpFrontend(CentralBank centralBank, InetSocketAddress address, ConsoleIOHandler ioHandler) throws IOException {
+        if (System.getProperty(HttpFrontend.NO_DELAY_PROPERTY) == null) {
+            System.setProperty(HttpFrontend.NO_DELAY_PROPERTY, "true");
+        }
+        try (HttpFrontend frontend = new HttpFrontend(centralBank, address, HTTP_THREADS)) {
+            frontend.start();
+            ioHandler.println("HTTP front-end listens on " + frontend.getAddress() + ". Enter 'exit' to stop");
+            while (!ioHandler.readInput().equals("exit")) {
+                ioHandler.println("Enter 'exit' to stop");
+            }
 
-        try {
-            cli.run();
+            frontend.getLatencies().forEach((path, latency) -> ioHandler.println(path + ": " + latency.count() + " requests, p50 "
+                    + latency.percentile(0.5) / 1000 + " us, p99 " + latency.percentile(0.99) / 1000 + " us"));
         }
-        catch (Exception e) {
-            ioHandler.println(e.getMessage());
+    }
+
+    private static CentralBank openCentralBank(Journal journal, Path snapshotPath) {
+        if (snapshotPath != null && Files.exists(snapshotPath)) {
+            return CentralBank.recover(SnapshotFile.read(snapshotPath), journal, ManualClockImpl::new);
         }
+
+        return journal.isEmpty()
+                ? new CentralBank(new ManualClockImpl(LocalDateTime.now()), UUID.randomUUID(), journal)
+                : CentralBank.recover(journal, ManualClockImpl::new);
+    }
+
+    private static Journal openJournal(String[] args) {
+        Path journalPath = findPath(args, "--journal");
+        return journalPath == null ? NoJournal.INSTANCE : new FileChannelJournal(journalPath);
+    }
+
+    private static Path findPath(String[] args, String option) {
+        String value = findOption(args, option);
+        return value == null ? null : Path.of(value);
+    }
+
+    private static String findOption(String[] args, String option) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals(option)) {
+                return args[i + 1];
+            }
+        }
+
+        return null;
     }
 }
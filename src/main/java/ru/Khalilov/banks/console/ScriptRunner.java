@@ -0,0 +1,129 @@
+package ru.Khalilov.banks.console;
+
+import lombok.NonNull;
+import ru.Khalilov.banks.console.exceptions.GeneralCLIException;
+import ru.Khalilov.banks.console.handlers.CommandTree;
+import ru.Khalilov.banks.console.readers.ScriptIOHandler;
+import ru.Khalilov.banks.console.readers.ScriptLineReader;
+import ru.Khalilov.banks.domain.services.SingleWorkstationService;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Executes script of commands without asking user. Every line holds command followed by all answers it needs, e.g.
+ * {@code add bank 10000 yes}. Failed command is reported with its line number and script goes on
+ */
+public class ScriptRunner {
+    @NonNull
+    private SingleWorkstationService service;
+    @NonNull
+    private final CommandTree commandTree;
+    @NonNull
+    private final ScriptIOHandler ioHandler;
+
+    /**
+     * Result of script execution
+     * @param commands - amount of executed commands
+     * @param failed - amount of failed commands
+     * @param elapsedNanos - time of execution in nanoseconds
+     */
+    public record Report(int commands, int failed, long elapsedNanos) {
+        /**
+         * Calculates throughput of script
+         * @return commands executed per second
+         */
+        public double commandsPerSecond() {
+            return elapsedNanos == 0 ? 0 : commands * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Executed %d commands, %d failed, in %d ms (%.1f commands/s)",
+                    commands, failed, elapsedNanos / 1_000_000, commandsPerSecond());
+        }
+    }
+
+    /**
+     * Constructs runner
+     * @param service - service commands are executed on
+     * @param commandTree - commands built with given io handler
+     * @param ioHandler - handler answering questions of commands
+     */
+    public ScriptRunner(@NonNull SingleWorkstationService service, @NonNull CommandTree commandTree, @NonNull ScriptIOHandler ioHandler) {
+        this.service = service;
+        this.commandTree = commandTree;
+        this.ioHandler = ioHandler;
+    }
+
+    /**
+     * Executes all commands of script
+     * @param script - text of script
+     * @return amounts of executed and failed commands and time of execution
+     */
+    public @NonNull Report run(@NonNull Reader script) {
+        ScriptLineReader reader = new ScriptLineReader(script);
+        int commands = 0;
+        int failed = 0;
+        long start = System.nanoTime();
+
+        while (true) {
+            List<String> words;
+            try {
+                words = reader.nextLine();
+            }
+            catch (GeneralCLIException e) {
+                commands++;
+                failed++;
+                ioHandler.println(e.getMessage());
+                continue;
+            }
+            if (words == null) {
+                break;
+            }
+
+            commands++;
+            if (!execute(words, reader.getLineNumber())) {
+                failed++;
+            }
+        }
+
+        return new Report(commands, failed, System.nanoTime() - start);
+    }
+
+    private boolean execute(List<String> words, int lineNumber) {
+        int length = commandTree.commandLength(words);
+        if (length == 0) {
+            ioHandler.println(lineMessage(lineNumber, GeneralCLIException.noHandler(words)));
+            return false;
+        }
+
+        ioHandler.start(words.subList(length, words.size()));
+        RuntimeException failure = null;
+        try {
+            Optional<SingleWorkstationService> tmp = commandTree.dispatch(service, words.subList(0, length));
+            if (tmp.isPresent() && !tmp.get().equals(service)) {
+                service = tmp.get();
+            }
+        }
+        catch (RuntimeException e) {
+            failure = e;
+        }
+
+        GeneralCLIException argumentsFailure = ioHandler.finish();
+        if (failure == null) {
+            failure = argumentsFailure;
+        }
+        if (failure != null) {
+            ioHandler.println(lineMessage(lineNumber, failure));
+            return false;
+        }
+
+        return true;
+    }
+
+    private String lineMessage(int lineNumber, RuntimeException e) {
+        return "Line " + lineNumber + ": " + e.getMessage();
+    }
+}
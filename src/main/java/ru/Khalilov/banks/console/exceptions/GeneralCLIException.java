@@ -20,4 +20,35 @@ public class GeneralCLIException extends RuntimeException {
         args.forEach(s -> builder.append(" ").append(s));
         return new GeneralCLIException(builder.toString());
     }
+
+    public static GeneralCLIException incompleteCommand(List<String> args, List<String> continuations) {
+        StringBuilder builder = new StringBuilder("Command is incomplete:");
+        args.forEach(s -> builder.append(" ").append(s));
+        builder.append(". Possible continuations: ").append(String.join(", ", continuations));
+        return new GeneralCLIException(builder.toString());
+    }
+
+    public static GeneralCLIException scriptArgumentsExhausted() {
+        return new GeneralCLIException("Command needs more arguments than given in script line");
+    }
+
+    public static GeneralCLIException invalidScriptArgument(String argument, String expected) {
+        return new GeneralCLIException("Script argument '" + argument + "' isn't " + expected);
+    }
+
+    public static GeneralCLIException unusedScriptArguments(List<String> args) {
+        return new GeneralCLIException("Command doesn't need arguments: " + String.join(" ", args));
+    }
+
+    public static GeneralCLIException commandFailed(String message) {
+        return new GeneralCLIException(message);
+    }
+
+    public static GeneralCLIException unclosedQuote(int lineNumber) {
+        return new GeneralCLIException("Quote isn't closed in script line " + lineNumber);
+    }
+
+    public static GeneralCLIException inputClosed() {
+        return new GeneralCLIException("Input is closed");
+    }
 }
@@ -16,7 +16,6 @@ import ru.Khalilov.banks.domain.models.Passport;
 
 import java.math.BigDecimal;
 import java.time.Duration;
-import java.util.Arrays;
 
 public class AddHandlerFactoryImpl implements HandlerFactory {
     private ChangingHandlerBuilder builder;
@@ -30,14 +29,14 @@ public class AddHandlerFactoryImpl implements HandlerFactory {
     public @NonNull AddHandlerFactoryImpl withBank() {
         builder.addConcreteHandler(new ChangingHandlerBuilder().withTriggerWord("bank").withTask((service) -> {
             try {
-                ioHandler.println("Set transaction limit for doubtful clients:");
+                ioHandler.prompt("Set transaction limit for doubtful clients:");
                 BigDecimal limit = ioHandler.readBigDecimal();
 
-                ioHandler.println("Do you want ot choose this bank?");
+                ioHandler.prompt("Do you want ot choose this bank?");
                 service.createBank(limit, ioHandler.readBooleanAnswer());
             }
             catch (GeneralBankException e) {
-                ioHandler.println(Arrays.toString(e.getStackTrace()));
+                ioHandler.reportError(e.getMessage());
             }
 
             return service;
@@ -49,49 +48,49 @@ public class AddHandlerFactoryImpl implements HandlerFactory {
         builder.addConcreteHandler(new ChangingHandlerBuilder().withTriggerWord("tariff").withTask((service) -> {
             TariffBuilder tariffBuilder = service.getTariffBuilder();
 
-            ioHandler.println("Enter tariff name");
+            ioHandler.prompt("Enter tariff name");
             String input = ioHandler.readInput();
 
             while (!tariffBuilder.isNameValid(input))
             {
-                ioHandler.println("Tariff name isn't valid! Try again!");
+                ioHandler.reportError("Tariff name isn't valid! Try again!");
                 input = ioHandler.readInput();
             }
 
             tariffBuilder.withName(input);
 
-            ioHandler.println("Enter tariff type (e.g. 'debit', 'credit' etc.):");
+            ioHandler.prompt("Enter tariff type (e.g. 'debit', 'credit' etc.):");
             input = ioHandler.readInput();
             while (!tariffBuilder.isAccountTypeValid(input))
             {
-                ioHandler.println("Tariff type isn't valid! Try again!");
+                ioHandler.reportError("Tariff type isn't valid! Try again!");
                 input = ioHandler.readInput();
             }
 
             tariffBuilder.withAccountType(input);
 
-            ioHandler.println("Enter annual interest rate:");
+            ioHandler.prompt("Enter annual interest rate:");
             BigDecimal decimalInput = ioHandler.readBigDecimal();
             tariffBuilder.withBalanceInterest(decimalInput);
 
-            ioHandler.println("Enter negative balance operation tax:");
+            ioHandler.prompt("Enter negative balance operation tax:");
             decimalInput = ioHandler.readBigDecimal();
             tariffBuilder.withNegativeOperationTax(decimalInput);
 
-            ioHandler.println("Enter minimal balance:");
+            ioHandler.prompt("Enter minimal balance:");
             decimalInput = ioHandler.readBigDecimal();
             tariffBuilder.withMinimalBalance(decimalInput);
 
-            ioHandler.println("Enter add-only period:");
+            ioHandler.prompt("Enter add-only period:");
             int days = ioHandler.readInt();
             tariffBuilder.withAddOnlyPeriod(Duration.ofDays(days));
 
-            ioHandler.println("Do you want ot choose this tariff?");
+            ioHandler.prompt("Do you want ot choose this tariff?");
             try {
                 service.addTariff(tariffBuilder, ioHandler.readBooleanAnswer());
             }
             catch (GeneralBankException e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
 
             return service;
@@ -103,32 +102,32 @@ public class AddHandlerFactoryImpl implements HandlerFactory {
         builder.addConcreteHandler(new ChangingHandlerBuilder().withTriggerWord("client").withTask((service) -> {
             ClientInformationBuilder clientBuilder = service.getClientInformationBuilder();
 
-            ioHandler.println("Enter client name:");
+            ioHandler.prompt("Enter client name:");
             String input = ioHandler.readInput();
             while (!clientBuilder.isNamePartValid(input))
             {
-                ioHandler.println("Client name isn't valid! Try again!");
+                ioHandler.reportError("Client name isn't valid! Try again!");
                 input = ioHandler.readInput();
             }
 
             clientBuilder.withName(input);
 
-            ioHandler.println("Enter client surname:");
+            ioHandler.prompt("Enter client surname:");
             input = ioHandler.readInput();
             while (!clientBuilder.isNamePartValid(input))
             {
-                ioHandler.println("Client surname isn't valid! Try again!");
+                ioHandler.reportError("Client surname isn't valid! Try again!");
                 input = ioHandler.readInput();
             }
 
             clientBuilder.withSurname(input);
 
-            ioHandler.println("Do you want to add address?");
+            ioHandler.prompt("Do you want to add address?");
             while (ioHandler.readBooleanAnswer())
             {
-                ioHandler.println("Enter street name:");
+                ioHandler.prompt("Enter street name:");
                 input = ioHandler.readInput();
-                ioHandler.println("Enter building number:");
+                ioHandler.prompt("Enter building number:");
                 int number = ioHandler.readInt();
                 try
                 {
@@ -137,17 +136,17 @@ public class AddHandlerFactoryImpl implements HandlerFactory {
                 }
                 catch (AddressException e)
                 {
-                    ioHandler.println(e.getMessage());
-                    ioHandler.println("Do you want to retry?");
+                    ioHandler.reportError(e.getMessage());
+                    ioHandler.prompt("Do you want to retry?");
                 }
             }
 
-            ioHandler.println("Do you want to add passport?");
+            ioHandler.prompt("Do you want to add passport?");
             while (ioHandler.readBooleanAnswer())
             {
-                ioHandler.println("Enter passport series:");
+                ioHandler.prompt("Enter passport series:");
                 input = ioHandler.readInput();
-                ioHandler.println("Enter passport number");
+                ioHandler.prompt("Enter passport number");
                 String number = ioHandler.readInput();
                 try
                 {
@@ -156,14 +155,14 @@ public class AddHandlerFactoryImpl implements HandlerFactory {
                 }
                 catch (PassportException e)
                 {
-                    ioHandler.println(e.getMessage());
+                    ioHandler.reportError(e.getMessage());
                 }
             }
 
-            ioHandler.println("Do you want to add email?");
+            ioHandler.prompt("Do you want to add email?");
             while (ioHandler.readBooleanAnswer())
             {
-                ioHandler.println("Enter email address:");
+                ioHandler.prompt("Enter email address:");
                 input = ioHandler.readInput();
                 try
                 {
@@ -172,16 +171,16 @@ public class AddHandlerFactoryImpl implements HandlerFactory {
                 }
                 catch (EmailException e)
                 {
-                    ioHandler.println(e.getMessage());
+                    ioHandler.reportError(e.getMessage());
                 }
             }
 
-            ioHandler.println("Do you want ot choose this client?");
+            ioHandler.prompt("Do you want ot choose this client?");
             try {
                 service.addClient(clientBuilder, ioHandler.readBooleanAnswer());
             }
             catch (GeneralBankException e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
 
             return service;
@@ -195,7 +194,7 @@ public class AddHandlerFactoryImpl implements HandlerFactory {
                 service.createAccount();
             }
             catch (GeneralBankException e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
 
             return service;
@@ -19,7 +19,7 @@ public class CancelHandlerFactoryImpl implements HandlerFactory {
 
     public @NonNull CancelHandlerFactoryImpl withTransaction() {
         builder.addConcreteHandler(new ChangingHandlerBuilder().withTriggerWord("transaction").withTask((service) -> {
-            ioHandler.println("Do you want to choose or enter id?");
+            ioHandler.prompt("Do you want to choose or enter id?");
             String answer = ioHandler.readOptions(List.of("enter", "choose"));
 
             UUID id;
@@ -34,7 +34,7 @@ public class CancelHandlerFactoryImpl implements HandlerFactory {
                 service.cancelTransaction(id);
             }
             catch (Exception e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
 
             return service;
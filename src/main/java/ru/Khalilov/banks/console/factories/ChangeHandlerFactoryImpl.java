@@ -31,12 +31,12 @@ public class ChangeHandlerFactoryImpl implements HandlerFactory {
             TariffBuilder tariffBuilder = new TariffBuilder(service.getTariffStats());
 
             if (ioHandler.readBooleanAnswer("Do you want to change tariff name?")) {
-                ioHandler.println("Enter tariff name");
+                ioHandler.prompt("Enter tariff name");
                 String input = ioHandler.readInput();
 
                 while (!tariffBuilder.isNameValid(input))
                 {
-                    ioHandler.println("Tariff name isn't valid! Try again!");
+                    ioHandler.reportError("Tariff name isn't valid! Try again!");
                     input = ioHandler.readInput();
                 }
 
@@ -44,11 +44,11 @@ public class ChangeHandlerFactoryImpl implements HandlerFactory {
             }
 
             if (ioHandler.readBooleanAnswer("Do you want to change tariff type?")) {
-                ioHandler.println("Enter tariff type (e.g. 'debit', 'credit' etc.):");
+                ioHandler.prompt("Enter tariff type (e.g. 'debit', 'credit' etc.):");
                 String input = ioHandler.readInput();
                 while (!tariffBuilder.isAccountTypeValid(input))
                 {
-                    ioHandler.println("Tariff type isn't valid! Try again!");
+                    ioHandler.reportError("Tariff type isn't valid! Try again!");
                     input = ioHandler.readInput();
                 }
 
@@ -56,25 +56,25 @@ public class ChangeHandlerFactoryImpl implements HandlerFactory {
             }
 
             if (ioHandler.readBooleanAnswer("Do you want to change annual interest rate?")) {
-                ioHandler.println("Enter annual interest rate:");
+                ioHandler.prompt("Enter annual interest rate:");
                 BigDecimal decimalInput = ioHandler.readBigDecimal();
                 tariffBuilder.withBalanceInterest(decimalInput);
             }
 
             if (ioHandler.readBooleanAnswer("Do you want to change negative balance opertarion tax?")) {
-                ioHandler.println("Enter negative balance operation tax:");
+                ioHandler.prompt("Enter negative balance operation tax:");
                 BigDecimal decimalInput = ioHandler.readBigDecimal();
                 tariffBuilder.withNegativeOperationTax(decimalInput);
             }
 
             if (ioHandler.readBooleanAnswer("Do you want to change minimal balance?")) {
-                ioHandler.println("Enter minimal balance:");
+                ioHandler.prompt("Enter minimal balance:");
                 BigDecimal decimalInput = ioHandler.readBigDecimal();
                 tariffBuilder.withMinimalBalance(decimalInput);
             }
 
             if (ioHandler.readBooleanAnswer("Do you want to change add-only period?")) {
-                ioHandler.println("Enter add-only period:");
+                ioHandler.prompt("Enter add-only period:");
                 int days = ioHandler.readInt();
                 tariffBuilder.withAddOnlyPeriod(Duration.ofDays(days));
             }
@@ -83,7 +83,7 @@ public class ChangeHandlerFactoryImpl implements HandlerFactory {
                 service.changeTariff(tariffBuilder);
             }
             catch (GeneralBankException e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
 
             return service;
@@ -96,11 +96,11 @@ public class ChangeHandlerFactoryImpl implements HandlerFactory {
             ClientInformationBuilder clientBuilder = new ClientInformationBuilder(service.getClient().getClientInformation());
 
             if (ioHandler.readBooleanAnswer("Do you want to change name?")) {
-                ioHandler.println("Enter client name:");
+                ioHandler.prompt("Enter client name:");
                 String input = ioHandler.readInput();
                 while (!clientBuilder.isNamePartValid(input))
                 {
-                    ioHandler.println("Client name isn't valid! Try again!");
+                    ioHandler.reportError("Client name isn't valid! Try again!");
                     input = ioHandler.readInput();
                 }
 
@@ -109,23 +109,23 @@ public class ChangeHandlerFactoryImpl implements HandlerFactory {
 
 
             if (ioHandler.readBooleanAnswer("Do you want to change surname?")) {
-                ioHandler.println("Enter client surname:");
+                ioHandler.prompt("Enter client surname:");
                 String input = ioHandler.readInput();
                 while (!clientBuilder.isNamePartValid(input))
                 {
-                    ioHandler.println("Client surname isn't valid! Try again!");
+                    ioHandler.reportError("Client surname isn't valid! Try again!");
                     input = ioHandler.readInput();
                 }
 
                 clientBuilder.withSurname(input);
             }
 
-            ioHandler.println("Do you want to change address?");
+            ioHandler.prompt("Do you want to change address?");
             while (ioHandler.readBooleanAnswer())
             {
-                ioHandler.println("Enter street name:");
+                ioHandler.prompt("Enter street name:");
                 String input = ioHandler.readInput();
-                ioHandler.println("Enter building number:");
+                ioHandler.prompt("Enter building number:");
                 int number = ioHandler.readInt();
                 try
                 {
@@ -134,17 +134,17 @@ public class ChangeHandlerFactoryImpl implements HandlerFactory {
                 }
                 catch (AddressException e)
                 {
-                    ioHandler.println(e.getMessage());
-                    ioHandler.println("Do you want to retry?");
+                    ioHandler.reportError(e.getMessage());
+                    ioHandler.prompt("Do you want to retry?");
                 }
             }
 
-            ioHandler.println("Do you want to change passport?");
+            ioHandler.prompt("Do you want to change passport?");
             while (ioHandler.readBooleanAnswer())
             {
-                ioHandler.println("Enter passport series:");
+                ioHandler.prompt("Enter passport series:");
                 String input = ioHandler.readInput();
-                ioHandler.println("Enter passport number");
+                ioHandler.prompt("Enter passport number");
                 String number = ioHandler.readInput();
                 try
                 {
@@ -153,15 +153,15 @@ public class ChangeHandlerFactoryImpl implements HandlerFactory {
                 }
                 catch (PassportException e)
                 {
-                    ioHandler.println(e.getMessage());
-                    ioHandler.println("Do you want to retry?");
+                    ioHandler.reportError(e.getMessage());
+                    ioHandler.prompt("Do you want to retry?");
                 }
             }
 
-            ioHandler.println("Do you want to change email?");
+            ioHandler.prompt("Do you want to change email?");
             while (ioHandler.readBooleanAnswer())
             {
-                ioHandler.println("Enter email address:");
+                ioHandler.prompt("Enter email address:");
                 String input = ioHandler.readInput();
                 try
                 {
@@ -170,8 +170,8 @@ public class ChangeHandlerFactoryImpl implements HandlerFactory {
                 }
                 catch (EmailException e)
                 {
-                    ioHandler.println(e.getMessage());
-                    ioHandler.println("Do you want to retry?");
+                    ioHandler.reportError(e.getMessage());
+                    ioHandler.prompt("Do you want to retry?");
                 }
             }
 
@@ -179,7 +179,7 @@ public class ChangeHandlerFactoryImpl implements HandlerFactory {
                 service.changeClient(clientBuilder);
             }
             catch (GeneralBankException e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
 
             return service;
@@ -22,7 +22,7 @@ public class ChooseHandlerFactoryImpl implements HandlerFactory {
 
     public @NonNull ChooseHandlerFactoryImpl withBank() {
         builder.addConcreteHandler(new ChangingHandlerBuilder().withTriggerWord("bank").withTask((service) -> {
-            ioHandler.println("Do you want to choose or enter id?");
+            ioHandler.prompt("Do you want to choose or enter id?");
             String answer = ioHandler.readOptions(List.of("choose", "enter"));
 
             BankId id;
@@ -39,7 +39,7 @@ public class ChooseHandlerFactoryImpl implements HandlerFactory {
                 service.enterBank(id);
             }
             catch (GeneralBankException e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
 
             return service;
@@ -49,7 +49,7 @@ public class ChooseHandlerFactoryImpl implements HandlerFactory {
 
     public @NonNull ChooseHandlerFactoryImpl withTariff() {
         builder.addConcreteHandler(new ChangingHandlerBuilder().withTriggerWord("tariff").withTask((service) -> {
-            ioHandler.println("Do you want to choose or enter id?");
+            ioHandler.prompt("Do you want to choose or enter id?");
             String answer = ioHandler.readOptions(List.of("choose", "enter"));
 
             UUID id;
@@ -64,7 +64,7 @@ public class ChooseHandlerFactoryImpl implements HandlerFactory {
                 service.chooseTariff(id);
             }
             catch (Exception e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
 
             return service;
@@ -74,7 +74,7 @@ public class ChooseHandlerFactoryImpl implements HandlerFactory {
 
     public @NonNull ChooseHandlerFactoryImpl withClient() {
         builder.addConcreteHandler(new ChangingHandlerBuilder().withTriggerWord("client").withTask((service) -> {
-            ioHandler.println("Do you want to choose or enter id?");
+            ioHandler.prompt("Do you want to choose or enter id?");
             String answer = ioHandler.readOptions(List.of("choose", "enter"));
 
             UUID id;
@@ -89,7 +89,7 @@ public class ChooseHandlerFactoryImpl implements HandlerFactory {
                 service.enterClient(id);
             }
             catch (Exception e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
 
             return service;
@@ -99,7 +99,7 @@ public class ChooseHandlerFactoryImpl implements HandlerFactory {
 
     public @NonNull ChooseHandlerFactoryImpl withAccount() {
         builder.addConcreteHandler(new ChangingHandlerBuilder().withTriggerWord("account").withTask((service) -> {
-            ioHandler.println("Do you want to choose main account or secondary?");
+            ioHandler.prompt("Do you want to choose main account or secondary?");
             String answer = ioHandler.readOptions(List.of("main", "secondary"));
 
             AccountId id = ioHandler.chooseFromList(service.getAccounts()).getAccountID();
@@ -113,7 +113,7 @@ public class ChooseHandlerFactoryImpl implements HandlerFactory {
                 }
             }
             catch (Exception e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
 
             return service;
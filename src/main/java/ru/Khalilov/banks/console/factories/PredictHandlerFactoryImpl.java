@@ -24,14 +24,14 @@ public class PredictHandlerFactoryImpl implements HandlerFactory {
     public @NonNull HandlerBase build() {
         NotChangingHandlerBuilder builder = new NotChangingHandlerBuilder().withTriggerWord("predict")
                 .withTask((service -> {
-                    ioHandler.println("How many days ahead you want to look?");
+                    ioHandler.prompt("How many days ahead you want to look?");
                     int days = ioHandler.readInt();
 
                     try {
                         service.predictBalance(Duration.ofDays(days));
                     }
                     catch (GeneralBankException e) {
-                        ioHandler.println(e.getMessage());
+                        ioHandler.reportError(e.getMessage());
                     }
                     return null;
                 }));
@@ -3,18 +3,25 @@ package ru.Khalilov.banks.console.factories;
 import lombok.NonNull;
 import ru.Khalilov.banks.console.handlers.HandlerBase;
 import ru.Khalilov.banks.console.readers.ConsoleIOHandler;
+import ru.Khalilov.banks.console.readers.ListingPrinter;
 import ru.Khalilov.banks.console.handlers.NotChangingHandlerBuilder;
+import ru.Khalilov.banks.domain.models.Message;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
 public class ShowHandlerFactoryImpl implements HandlerFactory {
+    private static final int PAGE_SIZE = 20;
+
     private NotChangingHandlerBuilder builder;
     private ConsoleIOHandler ioHandler;
+    private ListingPrinter listingPrinter;
 
     public ShowHandlerFactoryImpl(ConsoleIOHandler ioHandler) {
         this.builder = new NotChangingHandlerBuilder().withTriggerWord("show");
         this.ioHandler = ioHandler;
+        this.listingPrinter = new ListingPrinter(ioHandler, PAGE_SIZE);
     }
 
     public @NonNull ShowHandlerFactoryImpl withBank() {
@@ -23,7 +30,7 @@ public class ShowHandlerFactoryImpl implements HandlerFactory {
                 ioHandler.println("Current bank id" + service.getBank().getBankID());
             }
             catch (Exception e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
 
             return null;
@@ -37,7 +44,7 @@ public class ShowHandlerFactoryImpl implements HandlerFactory {
                 ioHandler.println("Current account id" + service.getAccount().getAccountID());
             }
             catch (Exception e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
 
             return null;
@@ -51,7 +58,7 @@ public class ShowHandlerFactoryImpl implements HandlerFactory {
                 ioHandler.println("Current tariff " + service.getTariffStats());
             }
             catch (Exception e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
 
             return null;
@@ -65,7 +72,7 @@ public class ShowHandlerFactoryImpl implements HandlerFactory {
                 ioHandler.println("Current client " + service.getClient());
             }
             catch (Exception e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
 
             return null;
@@ -79,7 +86,7 @@ public class ShowHandlerFactoryImpl implements HandlerFactory {
                 ioHandler.println("Current balance: " + service.getAccount().getBalance());
             }
             catch (Exception e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
 
             return null;
@@ -90,10 +97,12 @@ public class ShowHandlerFactoryImpl implements HandlerFactory {
     public @NonNull ShowHandlerFactoryImpl withTransactions() {
         builder.addConcreteHandler(new NotChangingHandlerBuilder().withTriggerWord("transactions").withTask((service) -> {
             try {
-                ioHandler.println("Current transactions: " + Arrays.toString(service.getTransactions().toArray()));
+                ioHandler.println("Current transactions:");
+                StringBuilder lines = new StringBuilder();
+                listingPrinter.print(service::getTransactions, (transaction, output) -> transaction.render(output, lines));
             }
             catch (Exception e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
 
             return null;
@@ -107,7 +116,7 @@ public class ShowHandlerFactoryImpl implements HandlerFactory {
                 ioHandler.println("All banks available:\n" + Arrays.toString(service.getBanks().toArray()));
             }
             catch (Exception e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
 
             return null;
@@ -121,7 +130,7 @@ public class ShowHandlerFactoryImpl implements HandlerFactory {
                 ioHandler.println("All available tariffs:\n" + Arrays.toString(service.getTariffStatsList().toArray()));
             }
             catch (Exception e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
 
             return null;
@@ -135,7 +144,7 @@ public class ShowHandlerFactoryImpl implements HandlerFactory {
                 ioHandler.println("All available clients:\n" + Arrays.toString(service.getClients().toArray()));
             }
             catch (Exception e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
 
             return null;
@@ -149,7 +158,7 @@ public class ShowHandlerFactoryImpl implements HandlerFactory {
                 ioHandler.println("All available accounts:\n" + Arrays.toString(service.getAccounts().toArray()));
             }
             catch (Exception e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
 
             return null;
@@ -160,13 +169,42 @@ public class ShowHandlerFactoryImpl implements HandlerFactory {
     public @NonNull ShowHandlerFactoryImpl withEmail() {
         builder.addConcreteHandler(new NotChangingHandlerBuilder().withTriggerWord("email").withTask((service) -> {
             try {
-                ioHandler.println("You want to see all emails or only last one? (all/last)");
+                ioHandler.prompt("You want to see all emails or only last one? (all/last)");
                 String answer = ioHandler.readOptions(List.of("all", "last"));
 
-                ioHandler.println(answer.equals("all") ? service.getEmail().toStringAll() : service.getEmail().toStringLast());
+                if (answer.equals("all")) {
+                    var email = service.getEmail();
+                    listingPrinter.print(email::getMessages, Message::render);
+                }
+                else {
+                    ioHandler.println(service.getEmail().toStringLast());
+                }
+            }
+            catch (Exception e) {
+                ioHandler.reportError(e.getMessage());
+            }
+
+            return null;
+        }).build());
+        return this;
+    }
+
+    public @NonNull ShowHandlerFactoryImpl withHistory() {
+        builder.addConcreteHandler(new NotChangingHandlerBuilder().withTriggerWord("history").withTask((service) -> {
+            try {
+                ioHandler.prompt("For how many last days show history?");
+                int days = ioHandler.readInt();
+                LocalDateTime to = service.getClock().getDateTime();
+                LocalDateTime from = to.minusDays(days);
+
+                int printed = listingPrinter.print((offset, limit) -> service.getHistory(from, to, offset, limit),
+                        (entry, output) -> output.append(entry.toString()));
+                if (printed == 0) {
+                    ioHandler.println("No changes of balance in this period");
+                }
             }
             catch (Exception e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
 
             return null;
@@ -196,6 +234,7 @@ public class ShowHandlerFactoryImpl implements HandlerFactory {
         withClients();
         withAccounts();
         withEmail();
+        withHistory();
         return build();
     }
 
@@ -24,14 +24,14 @@ public class SkipDaysHandlerFactoryImpl implements HandlerFactory {
     public @NonNull HandlerBase build() {
         ChangingHandlerBuilder builder = new ChangingHandlerBuilder().withTriggerWord("skip")
                 .withTask((service -> {
-                    ioHandler.println("How many days you want to skip?");
+                    ioHandler.prompt("How many days you want to skip?");
                     int days = ioHandler.readInt();
 
                     try {
                         service.getClock().forward(Duration.ofDays(days));
                     }
                     catch (GeneralBankException e) {
-                        ioHandler.println(e.getMessage());
+                        ioHandler.reportError(e.getMessage());
                     }
                     return service;
                 }));
@@ -19,14 +19,14 @@ public class TransactionHandlerFactoryImpl implements HandlerFactory {
 
     public @NonNull TransactionHandlerFactoryImpl withPut() {
         builder.addConcreteHandler(new ChangingHandlerBuilder().withTriggerWord("put").withTask((service) -> {
-            ioHandler.println("How much du you want to put?");
+            ioHandler.prompt("How much du you want to put?");
             BigDecimal sum = ioHandler.readBigDecimal();
 
             try {
                 service.putMoney(sum);
             }
             catch (GeneralBankException e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
             return service;
         }).build());
@@ -35,14 +35,14 @@ public class TransactionHandlerFactoryImpl implements HandlerFactory {
 
     public @NonNull TransactionHandlerFactoryImpl withWithdraw() {
         builder.addConcreteHandler(new ChangingHandlerBuilder().withTriggerWord("withdraw").withTask((service) -> {
-            ioHandler.println("How much du you want to withdraw?");
+            ioHandler.prompt("How much du you want to withdraw?");
             BigDecimal sum = ioHandler.readBigDecimal();
 
             try {
                 service.withdrawMoney(sum);
             }
             catch (GeneralBankException e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
             return service;
         }).build());
@@ -51,14 +51,14 @@ public class TransactionHandlerFactoryImpl implements HandlerFactory {
 
     public @NonNull TransactionHandlerFactoryImpl withTransfer() {
         builder.addConcreteHandler(new ChangingHandlerBuilder().withTriggerWord("transfer").withTask((service) -> {
-            ioHandler.println("How much du you want to transfer?");
+            ioHandler.prompt("How much du you want to transfer?");
             BigDecimal sum = ioHandler.readBigDecimal();
 
             try {
                 service.transferMoney(sum);
             }
             catch (GeneralBankException e) {
-                ioHandler.println(e.getMessage());
+                ioHandler.reportError(e.getMessage());
             }
             return service;
         }).build());
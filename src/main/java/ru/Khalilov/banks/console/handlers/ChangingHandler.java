@@ -28,4 +28,14 @@ public class ChangingHandler extends HandlerBase {
 
         return sendToNext(service, arguments);
     }
+
+    @Override
+    public Optional<SingleWorkstationService> execute(@NonNull SingleWorkstationService service) {
+        return Optional.of(task.apply(service));
+    }
+
+    @Override
+    public boolean hasTask() {
+        return task != null;
+    }
 }
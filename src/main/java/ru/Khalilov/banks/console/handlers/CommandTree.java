@@ -0,0 +1,175 @@
+package ru.Khalilov.banks.console.handlers;
+
+import lombok.NonNull;
+import ru.Khalilov.banks.console.exceptions.GeneralCLIException;
+import ru.Khalilov.banks.domain.services.SingleWorkstationService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Trie of commands compiled from chains of {@link HandlerBase}. Chains built by factories are walked once at startup,
+ * and every node keeps its sub commands in hash map by trigger word, so command is dispatched with one lookup per word
+ * instead of comparing trigger words of whole chain. Words of every node are also kept sorted, so tree can list
+ * commands and complete partially typed ones.
+ * Chain keeps its first handler with given trigger word, as the chain itself would do
+ */
+public class CommandTree {
+    private final Node root;
+
+    private static class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private String[] sortedWords = new String[0];
+        private HandlerBase handler;
+
+        private void freeze() {
+            sortedWords = children.keySet().toArray(new String[0]);
+            Arrays.sort(sortedWords);
+            for (Node child : children.values()) {
+                child.freeze();
+            }
+        }
+    }
+
+    private CommandTree(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Compiles chain of handlers with all their concrete handlers into tree
+     * @param startingHandler - first handler of chain
+     * @return tree of all commands of chain
+     */
+    public static @NonNull CommandTree compile(@NonNull HandlerBase startingHandler) {
+        Node root = new Node();
+        addChain(root, startingHandler);
+        root.freeze();
+        return new CommandTree(root);
+    }
+
+    private static void addChain(Node parent, HandlerBase handler) {
+        for (HandlerBase current = handler; current != null; current = current.getSuccessor()) {
+            if (parent.children.containsKey(current.getTriggerWord())) {
+                continue;
+            }
+
+            Node node = new Node();
+            node.handler = current;
+            parent.children.put(current.getTriggerWord(), node);
+            addChain(node, current.getConcreteHandler());
+        }
+    }
+
+    /**
+     * Runs task of command given by arguments
+     * @param service - current service
+     * @param arguments - words of command
+     * @return new service if command changes it, empty otherwise
+     * @throws GeneralCLIException - if there is no such command, or it is only prefix of other commands
+     */
+    public Optional<SingleWorkstationService> dispatch(@NonNull SingleWorkstationService service, @NonNull List<String> arguments) {
+        Node node = find(arguments);
+        if (node == null || node == root) {
+            throw GeneralCLIException.noHandler(arguments);
+        }
+        if (!node.handler.hasTask()) {
+            throw GeneralCLIException.incompleteCommand(arguments, Arrays.asList(node.sortedWords));
+        }
+
+        return node.handler.execute(service);
+    }
+
+    /**
+     * Finds the longest command at the beginning of given words, so the rest of words can be used as its arguments
+     * @param words - command followed by its arguments
+     * @return amount of words forming command, or 0 if words don't start with any command
+     */
+    public int commandLength(@NonNull List<String> words) {
+        int length = 0;
+        Node node = root;
+        for (int i = 0; i < words.size(); i++) {
+            node = node.children.get(words.get(i));
+            if (node == null) {
+                break;
+            }
+            if (node.handler.hasTask()) {
+                length = i + 1;
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Lists all complete commands in alphabetical order
+     * @return commands with words separated by spaces
+     */
+    public @NonNull List<String> commands() {
+        List<String> result = new ArrayList<>();
+        collect(root, new StringBuilder(), result);
+        return Collections.unmodifiableList(result);
+    }
+
+    private void collect(Node node, StringBuilder prefix, List<String> result) {
+        int length = prefix.length();
+        for (String word : node.sortedWords) {
+            if (length > 0) {
+                prefix.append(' ');
+            }
+            prefix.append(word);
+
+            Node child = node.children.get(word);
+            if (child.handler.hasTask()) {
+                result.add(prefix.toString());
+            }
+            collect(child, prefix, result);
+            prefix.setLength(length);
+        }
+    }
+
+    /**
+     * Completes the last word of partially typed command
+     * @param arguments - complete words of command followed by beginning of the last word, possibly empty
+     * @return words which may stand in place of the last word, in alphabetical order
+     */
+    public @NonNull List<String> complete(@NonNull List<String> arguments) {
+        if (arguments.isEmpty()) {
+            return List.of(root.sortedWords);
+        }
+
+        Node node = find(arguments.subList(0, arguments.size() - 1));
+        if (node == null) {
+            return List.of();
+        }
+
+        String prefix = arguments.get(arguments.size() - 1);
+        String[] words = node.sortedWords;
+        int from = Arrays.binarySearch(words, prefix);
+        if (from < 0) {
+            from = -from - 1;
+        }
+        int to = from;
+        while (to < words.length && words[to].startsWith(prefix)) {
+            to++;
+        }
+
+        return List.of(Arrays.copyOfRange(words, from, to));
+    }
+
+    private Node find(List<String> arguments) {
+        Node node = root;
+        for (String word : arguments) {
+            node = node.children.get(word);
+            if (node == null) {
+                return null;
+            }
+        }
+
+        return node;
+    }
+}
@@ -27,6 +27,19 @@ public abstract class HandlerBase {
 
     public abstract Optional<SingleWorkstationService> handle(@NonNull SingleWorkstationService service, @NonNull List<String> arguments);
 
+    /**
+     * Runs task of this handler without matching arguments
+     * @param service - current service
+     * @return new service if task changes it, empty otherwise
+     */
+    public abstract Optional<SingleWorkstationService> execute(@NonNull SingleWorkstationService service);
+
+    /**
+     * Checks if handler has its own task, or only groups concrete handlers
+     * @return true if handler has task, false otherwise
+     */
+    public abstract boolean hasTask();
+
     public HandlerBase addConcreteHandler(HandlerBase concreteHandler) {
         concreteHandler.setSuccessor(this.concreteHandler);
         this.concreteHandler = concreteHandler;
@@ -31,4 +31,15 @@ public class NotChangingHandler extends HandlerBase {
 
         return sendToNext(service, arguments);
     }
+
+    @Override
+    public Optional<SingleWorkstationService> execute(@NonNull SingleWorkstationService service) {
+        task.apply(service);
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean hasTask() {
+        return task != null;
+    }
 }
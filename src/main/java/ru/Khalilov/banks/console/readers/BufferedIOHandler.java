@@ -0,0 +1,141 @@
+package ru.Khalilov.banks.console.readers;
+
+import lombok.NonNull;
+import ru.Khalilov.banks.console.exceptions.GeneralCLIException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * Console handler writing through one large buffer. Output reaches the stream only when buffer is full, before input is
+ * read (so user always sees the question) and on {@link #flush()}, which console calls after every command; so long
+ * listings and redirected output aren't slowed down by a write per line. Long lists to choose from are shown page by page
+ */
+public class BufferedIOHandler extends ConsoleIOHandlerBase {
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final BufferedReader reader;
+    private final Writer writer;
+    private final String lineSeparator = System.lineSeparator();
+    private final int pageSize;
+
+    /**
+     * Constructs handler of standard input and output, bypassing {@link System#out}
+     */
+    public BufferedIOHandler() {
+        this(new FileInputStream(FileDescriptor.in), new FileOutputStream(FileDescriptor.out), DEFAULT_BUFFER_SIZE, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Constructs handler of given streams
+     * @param input - stream answers are read from
+     * @param output - stream output is written to
+     * @param bufferSize - size of output buffer in chars
+     * @param pageSize - amount of list items shown before user is asked to choose or see more
+     */
+    public BufferedIOHandler(@NonNull InputStream input, @NonNull OutputStream output, int bufferSize, int pageSize) {
+        if (bufferSize <= 0 || pageSize <= 0) {
+            throw new IllegalArgumentException("Buffer and page sizes must be positive");
+        }
+
+        Charset charset = Charset.defaultCharset();
+        this.reader = new BufferedReader(new InputStreamReader(input, charset));
+        this.writer = new BufferedWriter(new OutputStreamWriter(output, charset), bufferSize);
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public void println(String output) {
+        try {
+            writer.write(String.valueOf(output));
+            writer.write(lineSeparator);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void print(@NonNull CharSequence output) {
+        try {
+            writer.append(output);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            writer.flush();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Shows list page by page. Empty answer shows the next page, number chooses item with this index
+     * @param list - list to choose from
+     * @return chosen item
+     * @param <T> type of items
+     */
+    @Override
+    public <T> T chooseFromList(List<T> list) {
+        int shown = 0;
+        while (true) {
+            int end = Math.min(list.size(), shown + pageSize);
+            for (int i = shown; i < end; i++) {
+                println(i + ":\n" + list.get(i));
+            }
+            shown = end;
+
+            println(shown < list.size() ? "Which will you chose? Empty line shows more" : "Which will you chose?");
+            String answer = readLine().trim();
+            if (answer.isEmpty()) {
+                continue;
+            }
+
+            try {
+                int index = Integer.parseInt(answer);
+                if (index >= 0 && index < list.size()) {
+                    return list.get(index);
+                }
+                println("Index out of bounds! Try again!");
+            }
+            catch (NumberFormatException e) {
+                println("Your input can't be parsed as int. Please, try again!");
+            }
+        }
+    }
+
+    @Override
+    protected @NonNull String readLine() {
+        flush();
+        try {
+            String line = reader.readLine();
+            if (line == null) {
+                throw GeneralCLIException.inputClosed();
+            }
+
+            return line;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
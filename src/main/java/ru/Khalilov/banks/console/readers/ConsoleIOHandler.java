@@ -13,6 +13,38 @@ public interface ConsoleIOHandler {
     boolean readBooleanAnswer();
     boolean readBooleanAnswer(String question);
     void println(String output);
+    void print(@NonNull CharSequence output);
+
+    /**
+     * Asks user for the next answer. Non-interactive handler has nobody to ask, so it may skip the question
+     * @param question - text of question
+     */
+    default void prompt(String question) {
+        println(question);
+    }
+
+    /**
+     * Reports that command failed. Non-interactive handler counts command as failed even if it goes on
+     * @param message - description of failure
+     */
+    default void reportError(String message) {
+        println(message);
+    }
+
+    /**
+     * Checks if answers are typed by user. Non-interactive handler reads them from script, so nobody can be asked
+     * whether to continue long output
+     * @return true if answers are typed by user, false otherwise
+     */
+    default boolean isInteractive() {
+        return true;
+    }
+
+    /**
+     * Writes out everything printed so far. Handlers which buffer output must also flush it before reading input
+     */
+    default void flush() {
+    }
 
     <T> T chooseFromList(List<T> list);
 }
@@ -0,0 +1,98 @@
+package ru.Khalilov.banks.console.readers;
+
+import lombok.NonNull;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Base of interactive handlers, which read answers line by line. All questions are asked again until answer is valid,
+ * so subclass only reads lines and writes output
+ */
+public abstract class ConsoleIOHandlerBase implements ConsoleIOHandler {
+    private static final List<String> BOOLEAN_OPTIONS = List.of("yes", "no");
+
+    /**
+     * Reads the next line typed by user. Output printed so far must be seen by user before reading
+     * @return line without line separator
+     * @throws ru.Khalilov.banks.console.exceptions.GeneralCLIException - if input is closed
+     */
+    protected abstract @NonNull String readLine();
+
+    @Override
+    public @NonNull String readInput() {
+        String result = readLine();
+        while (result.isEmpty()) {
+            println("Input wasn't read properly or it's empty. Please, try again");
+            result = readLine();
+        }
+
+        return result;
+    }
+
+    @Override
+    public @NonNull String readOptions(@NonNull List<String> options) {
+        String allOptions = String.join(", ", options);
+
+        println("Possible options:");
+        println(allOptions);
+
+        String answer = readInput().trim();
+        while (!options.contains(answer)) {
+            println("Only one of this words can be accepted: " + allOptions);
+            answer = readInput().trim();
+        }
+
+        return answer;
+    }
+
+    @Override
+    public int readInt() {
+        while (true) {
+            try {
+                return Integer.parseInt(readInput().trim());
+            }
+            catch (NumberFormatException e) {
+                println("Your input can't be parsed as int. Please, try again!");
+            }
+        }
+    }
+
+    @Override
+    public BigDecimal readBigDecimal() {
+        while (true) {
+            try {
+                return new BigDecimal(readInput().trim());
+            }
+            catch (NumberFormatException e) {
+                println("Your input can't be parsed as BigDecimal. Please, try again!");
+            }
+        }
+    }
+
+    @Override
+    public boolean readBooleanAnswer() {
+        return readOptions(BOOLEAN_OPTIONS).equals("yes");
+    }
+
+    @Override
+    public boolean readBooleanAnswer(String question) {
+        println(question);
+        return readBooleanAnswer();
+    }
+
+    @Override
+    public <T> T chooseFromList(List<T> list) {
+        for (int i = 0; i < list.size(); i++) {
+            println(i + ":\n" + list.get(i));
+        }
+        println("Which will you chose?");
+        int index = readInt();
+        while (index < 0 || index >= list.size()) {
+            println("Index out of bounds! Try again!");
+            index = readInt();
+        }
+
+        return list.get(index);
+    }
+}
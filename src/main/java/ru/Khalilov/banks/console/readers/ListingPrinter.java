@@ -0,0 +1,118 @@
+package ru.Khalilov.banks.console.readers;
+
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Prints long listings page by page. Items are fetched one page at a time and rendered one by one into the same buffer,
+ * which is handed to {@link ConsoleIOHandler#print(CharSequence)}, so memory used doesn't depend on length of listing.
+ * After every full page user is asked whether to continue, unless handler isn't interactive
+ */
+public class ListingPrinter {
+    private static final int MAX_KEPT_BUFFER_SIZE = 64 * 1024;
+
+    private final ConsoleIOHandler ioHandler;
+    private final int pageSize;
+    private StringBuilder buffer;
+
+    /**
+     * Source of items of listing
+     * @param <T> type of items
+     */
+    @FunctionalInterface
+    public interface PageSource<T> {
+        /**
+         * Returns page of items
+         * @param offset amount of items to skip
+         * @param limit maximal amount of items to return
+         * @return items of page, fewer than limit only on the last page
+         */
+        @NonNull List<T> page(int offset, int limit);
+    }
+
+    /**
+     * Writes text representation of item
+     * @param <T> type of items
+     */
+    @FunctionalInterface
+    public interface Renderer<T> {
+        /**
+         * Writes item to given output
+         * @param item item to write
+         * @param output output to write to
+         * @throws IOException if output fails
+         */
+        void render(T item, @NonNull Appendable output) throws IOException;
+    }
+
+    /**
+     * Constructs printer with given page size
+     * @param ioHandler handler to print to and to ask user with
+     * @param pageSize amount of items printed before user is asked to continue
+     */
+    public ListingPrinter(@NonNull ConsoleIOHandler ioHandler, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+
+        this.ioHandler = ioHandler;
+        this.pageSize = pageSize;
+        this.buffer = new StringBuilder();
+    }
+
+    /**
+     * Prints items of list page by page
+     * @param items items to print
+     * @param renderer renderer of single item
+     * @return amount of printed items
+     * @param <T> type of items
+     */
+    public <T> int print(@NonNull List<T> items, @NonNull Renderer<T> renderer) {
+        return print((offset, limit) -> items.subList(Math.min(offset, items.size()), (int) Math.min(items.size(), (long) offset + limit)), renderer);
+    }
+
+    /**
+     * Fetches and prints items page by page until source is exhausted or user stops
+     * @param source source of pages
+     * @param renderer renderer of single item
+     * @return amount of printed items
+     * @param <T> type of items
+     */
+    public <T> int print(@NonNull PageSource<T> source, @NonNull Renderer<T> renderer) {
+        int printed = 0;
+        List<T> page = source.page(0, pageSize);
+        while (!page.isEmpty()) {
+            for (T item : page) {
+                printItem(item, renderer);
+            }
+            printed += page.size();
+
+            if (page.size() < pageSize || (ioHandler.isInteractive() && !ioHandler.readBooleanAnswer("Show more?"))) {
+                break;
+            }
+            page = source.page(printed, pageSize);
+        }
+
+        return printed;
+    }
+
+    private <T> void printItem(T item, Renderer<T> renderer) {
+        buffer.setLength(0);
+        try {
+            renderer.render(item, buffer);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.append('\n');
+        ioHandler.print(buffer);
+
+        // single huge item mustn't pin its buffer forever
+        if (buffer.capacity() > MAX_KEPT_BUFFER_SIZE) {
+            buffer = new StringBuilder();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package ru.Khalilov.banks.console.readers;
+
+import lombok.NonNull;
+import ru.Khalilov.banks.console.exceptions.GeneralCLIException;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Non-interactive handler answering questions of commands with arguments written in the same script line after the
+ * command. Every answer takes the next argument; wrong or missing argument fails command instead of asking again, and
+ * failure is remembered even if command catches the exception. Errors reported by command fail it the same way and are
+ * left to {@link ru.Khalilov.banks.console.ScriptRunner} to print with line number. Questions aren't printed, while
+ * results are passed to another handler
+ */
+public class ScriptIOHandler implements ConsoleIOHandler {
+    private static final List<String> BOOLEAN_OPTIONS = List.of("yes", "no");
+
+    private final ConsoleIOHandler output;
+    private List<String> arguments = List.of();
+    private int position;
+    private GeneralCLIException failure;
+
+    public ScriptIOHandler(@NonNull ConsoleIOHandler output) {
+        this.output = output;
+    }
+
+    /**
+     * Sets arguments of the next command
+     * @param arguments - arguments written after command
+     */
+    public void start(@NonNull List<String> arguments) {
+        this.arguments = arguments;
+        this.position = 0;
+        this.failure = null;
+    }
+
+    /**
+     * Checks how command used its arguments
+     * @return failure of command, or null if command has read all of its arguments and no more
+     */
+    public GeneralCLIException finish() {
+        if (failure == null && position < arguments.size()) {
+            failure = GeneralCLIException.unusedScriptArguments(arguments.subList(position, arguments.size()));
+        }
+
+        return failure;
+    }
+
+    @Override
+    public @NonNull String readInput() {
+        if (position >= arguments.size()) {
+            throw fail(GeneralCLIException.scriptArgumentsExhausted());
+        }
+
+        return arguments.get(position++);
+    }
+
+    @Override
+    public @NonNull String readOptions(@NonNull List<String> options) {
+        String answer = readInput();
+        if (!options.contains(answer)) {
+            throw fail(GeneralCLIException.invalidScriptArgument(answer, "one of " + String.join(", ", options)));
+        }
+
+        return answer;
+    }
+
+    @Override
+    public int readInt() {
+        String answer = readInput();
+        try {
+            return Integer.parseInt(answer);
+        }
+        catch (NumberFormatException e) {
+            throw fail(GeneralCLIException.invalidScriptArgument(answer, "int"));
+        }
+    }
+
+    @Override
+    public BigDecimal readBigDecimal() {
+        String answer = readInput();
+        try {
+            return new BigDecimal(answer);
+        }
+        catch (NumberFormatException e) {
+            throw fail(GeneralCLIException.invalidScriptArgument(answer, "BigDecimal"));
+        }
+    }
+
+    @Override
+    public boolean readBooleanAnswer() {
+        return readOptions(BOOLEAN_OPTIONS).equals("yes");
+    }
+
+    @Override
+    public boolean readBooleanAnswer(String question) {
+        return readBooleanAnswer();
+    }
+
+    @Override
+    public <T> T chooseFromList(List<T> list) {
+        int index = readInt();
+        if (index < 0 || index >= list.size()) {
+            throw fail(GeneralCLIException.invalidScriptArgument(Integer.toString(index), "index of list of size " + list.size()));
+        }
+
+        return list.get(index);
+    }
+
+    @Override
+    public void prompt(String question) {
+    }
+
+    @Override
+    public void reportError(String message) {
+        fail(GeneralCLIException.commandFailed(message));
+    }
+
+    @Override
+    public void println(String output) {
+        this.output.println(output);
+    }
+
+    @Override
+    public void print(@NonNull CharSequence output) {
+        this.output.print(output);
+    }
+
+    @Override
+    public void flush() {
+        output.flush();
+    }
+
+    @Override
+    public boolean isInteractive() {
+        return false;
+    }
+
+    private GeneralCLIException fail(GeneralCLIException exception) {
+        if (failure == null) {
+            failure = exception;
+        }
+
+        return exception;
+    }
+}
@@ -0,0 +1,151 @@
+package ru.Khalilov.banks.console.readers;
+
+import lombok.Getter;
+import lombok.NonNull;
+import ru.Khalilov.banks.console.exceptions.GeneralCLIException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits script into lines of words. Characters are read in blocks into one buffer and words are collected straight
+ * from it, so neither line strings nor regular expressions are created for every line; the list of words is reused
+ * between lines. Words are separated by spaces or tabs, word with spaces may be enclosed in double quotes. Empty lines
+ * and lines starting with {@code #}, possibly after spaces or tabs, are skipped
+ */
+public class ScriptLineReader {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private final StringBuilder word = new StringBuilder();
+    private final List<String> words = new ArrayList<>();
+    @Getter
+    private int lineNumber;
+
+    public ScriptLineReader(@NonNull Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads words of the next line which isn't empty or comment
+     * @return words of line, valid until the next call, or null if script is over
+     * @throws GeneralCLIException - if quote isn't closed till the end of line
+     */
+    public List<String> nextLine() {
+        while (true) {
+            words.clear();
+            int first = peek();
+            if (first < 0) {
+                return null;
+            }
+
+            lineNumber++;
+            if (skipIndentation() == '#') {
+                skipLine();
+                continue;
+            }
+
+            readWords();
+            if (!words.isEmpty()) {
+                return words;
+            }
+        }
+    }
+
+    private void readWords() {
+        boolean inWord = false;
+        boolean quoted = false;
+        while (true) {
+            int c = read();
+            if (c < 0 || c == '\n') {
+                if (quoted) {
+                    word.setLength(0);
+                    throw GeneralCLIException.unclosedQuote(lineNumber);
+                }
+                break;
+            }
+            if (c == '\r') {
+                continue;
+            }
+
+            if (c == '"') {
+                if (quoted) {
+                    words.add(word.toString());
+                    word.setLength(0);
+                }
+                quoted = !quoted;
+                continue;
+            }
+            if (!quoted && (c == ' ' || c == '\t')) {
+                if (inWord) {
+                    words.add(word.toString());
+                    word.setLength(0);
+                    inWord = false;
+                }
+                continue;
+            }
+
+            word.append((char) c);
+            inWord = !quoted;
+        }
+
+        if (inWord) {
+            words.add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    private int skipIndentation() {
+        int c = peek();
+        while (c == ' ' || c == '\t') {
+            position++;
+            c = peek();
+        }
+
+        return c;
+    }
+
+    private void skipLine() {
+        int c = read();
+        while (c >= 0 && c != '\n') {
+            c = read();
+        }
+    }
+
+    private int peek() {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+
+        return buffer[position];
+    }
+
+    private int read() {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+
+        return buffer[position++];
+    }
+
+    private boolean fill() {
+        try {
+            int read = reader.read(buffer, 0, buffer.length);
+            while (read == 0) {
+                read = reader.read(buffer, 0, buffer.length);
+            }
+            position = 0;
+            limit = Math.max(read, 0);
+            return read > 0;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
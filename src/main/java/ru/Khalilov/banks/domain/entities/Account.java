@@ -4,37 +4,56 @@ import lombok.Getter;
 import lombok.NonNull;
 import ru.Khalilov.banks.domain.exceptions.AccountException;
 import ru.Khalilov.banks.domain.exceptions.TariffException;
+import ru.Khalilov.banks.domain.journal.CentralBankSnapshot;
 import ru.Khalilov.banks.domain.models.AccountDifference;
+import ru.Khalilov.banks.domain.models.AccountHistoryEntry;
 import ru.Khalilov.banks.domain.models.AccountId;
+import ru.Khalilov.banks.domain.models.CalendarView;
+import ru.Khalilov.banks.domain.models.Money;
 import ru.Khalilov.banks.domain.models.TransactionEntity;
 
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Account contains balance and provides all necessary methods to change it
+ * Account contains balance and provides all necessary methods to change it. Balance and accumulator are stored in minor
+ * units (see {@link Money}); every change of them is checked for overflow.
+ * All methods changing state are guarded by account's own {@link ReentrantLock}, which can be also held by caller to
+ * make several operations atomic.
+ * Ids of transaction entities which weren't canceled are kept in a hash set, so checking and canceling an entity doesn't
+ * depend on length of account's history. Every change of balance by transaction is also appended to {@link AccountHistory},
+ * so statement for a period doesn't need to scan transactions of central bank.
+ * Interest is accrued lazily: account remembers time of its previous update and brings balance and accumulator up to date
+ * when they are read or changed and on {@link #updateThroughTime()}, which is called on payout days by {@link PayoutWheel}
+ * and by sweeps of the bank (see {@link Bank#settleAccounts()}). So untouched accounts cost nothing on clock forward.
  */
 public class Account implements ClockSubscriber {
-    @NonNull @Getter
-    private BigDecimal accumulator;
+    private volatile long accumulatorMinorUnits;
     @NonNull
-    private LocalDateTime previousUpdateTime;
+    private volatile LocalDateTime previousUpdateTime;
     @Getter
     private final int monthlyUpdateTime;
     @NonNull
-    private final List<UUID> transactionEntityIDs;
-    @NonNull @Getter
-    private BigDecimal balance;
+    private final Set<UUID> transactionEntityIDs;
+    @NonNull
+    private final AccountHistory history;
+    private volatile long balanceMinorUnits;
     @NonNull @Getter
     private final AccountId accountID;
     @NonNull @Getter
     private final LocalDateTime creationTime;
     @NonNull @Getter
     private final AccountBalanceHandler accountBalanceHandler;
+    @NonNull @Getter
+    private final ReentrantLock lock;
 
     /**
      * Constructs account with given parameters. Not mentioned fields are set empty.
@@ -53,46 +72,141 @@ public class Account implements ClockSubscriber {
         this.creationTime = creationTime;
         this.accountBalanceHandler = accountBalanceHandler;
         this.previousUpdateTime = accountBalanceHandler.getTariff().getClock().getDateTime();
-        this.accumulator = BigDecimal.ZERO;
-        this.balance = BigDecimal.ZERO;
-        this.transactionEntityIDs = new ArrayList<>();
+        this.accumulatorMinorUnits = 0;
+        this.balanceMinorUnits = 0;
+        this.transactionEntityIDs = new HashSet<>();
+        this.history = new AccountHistory();
+        this.lock = new ReentrantLock();
+    }
+
+    /**
+     * Returns current balance
+     * @return current balance
+     */
+    public BigDecimal getBalance() {
+        return Money.toBigDecimal(getBalanceMinorUnits());
+    }
+
+    /**
+     * Returns current balance in minor units
+     * @return current balance in minor units
+     */
+    public long getBalanceMinorUnits() {
+        if (!isUpToDate()) {
+            updateThroughTime();
+        }
+
+        return balanceMinorUnits;
     }
 
     /**
-     * Add transaction sum to current balance
-     * @param transactionSum sum of transaction. Positive if balance is increasing, negative otherwise
+     * Returns current accumulator
+     * @return current accumulator
+     */
+    public BigDecimal getAccumulator() {
+        return Money.toBigDecimal(getAccumulatorMinorUnits());
+    }
+
+    /**
+     * Returns current accumulator in minor units
+     * @return current accumulator in minor units
+     */
+    public long getAccumulatorMinorUnits() {
+        if (!isUpToDate()) {
+            updateThroughTime();
+        }
+
+        return accumulatorMinorUnits;
+    }
+
+    /**
+     * Add transaction sum to current balance. Id of transaction entity is taken from {@link IdGenerator#timeOrdered()}
+     * @param transactionSum sum of transaction in minor units. Positive if balance is increasing, negative otherwise
      * @return {@link TransactionEntity} object fo this transaction
      * @throws AccountException if final balance is less than minimal balance specified by tariff
      */
-    public TransactionEntity addTransactionSum(@NonNull BigDecimal transactionSum) throws AccountException, TariffException {
-        AccountDifference calculatedDifference = accountBalanceHandler.handleTransaction(balance, transactionSum);
-        if (balance.add(calculatedDifference.balanceDiff()).compareTo(accountBalanceHandler.getTariff().getTariffStats().minimalBalance()) < 0) {
-            throw AccountException.notEnoughMoney();
-        }
+    public TransactionEntity addTransactionSum(long transactionSum) throws AccountException, TariffException {
+        return addTransactionSum(transactionSum, IdGenerator.timeOrdered().nextId());
+    }
 
-        balance = balance.add(calculatedDifference.balanceDiff());
-        accumulator = accumulator.add(calculatedDifference.accumulatedDiff());
+    /**
+     * Add transaction sum to current balance using given id of transaction entity, which is also recorded in history as
+     * id of transaction
+     * @param transactionSum sum of transaction in minor units. Positive if balance is increasing, negative otherwise
+     * @param transactionID id of transaction entity
+     * @return {@link TransactionEntity} object fo this transaction
+     * @throws AccountException if final balance is less than minimal balance specified by tariff
+     */
+    TransactionEntity addTransactionSum(long transactionSum, @NonNull UUID transactionID) throws AccountException, TariffException {
+        return addTransactionSum(transactionSum, transactionID, transactionID);
+    }
 
-        UUID transactionID = UUID.randomUUID();
-        transactionEntityIDs.add(transactionID);
-        return new TransactionEntity(this, transactionSum, transactionID);
+    /**
+     * Add transaction sum to current balance using given ids. Used by bank, which generates ids itself, and to restore
+     * state from journal
+     * @param transactionSum sum of transaction in minor units. Positive if balance is increasing, negative otherwise
+     * @param transactionID id of transaction entity
+     * @param parentTransactionID id of transaction the entity belongs to, recorded in history
+     * @return {@link TransactionEntity} object fo this transaction
+     * @throws AccountException if final balance is less than minimal balance specified by tariff
+     */
+    TransactionEntity addTransactionSum(long transactionSum, @NonNull UUID transactionID, @NonNull UUID parentTransactionID) throws AccountException, TariffException {
+        lock.lock();
+        try {
+            updateThroughTime();
+            TariffEvaluator evaluator = accountBalanceHandler.getEvaluator();
+            AccountDifference calculatedDifference = evaluator.handleTransaction(balanceMinorUnits, transactionSum);
+            long balance = Money.addExact(balanceMinorUnits, calculatedDifference.balanceDiff());
+            if (balance < evaluator.getMinimalBalance()) {
+                throw AccountException.notEnoughMoney();
+            }
+
+            balanceMinorUnits = balance;
+            accumulatorMinorUnits = Money.addExact(accumulatorMinorUnits, calculatedDifference.accumulatedDiff());
+
+            transactionEntityIDs.add(transactionID);
+            history.append(new AccountHistoryEntry(getClock().getDateTime(), calculatedDifference.balanceDiff(), balanceMinorUnits, parentTransactionID), transactionID);
+            return new TransactionEntity(this, transactionSum, transactionID);
+        }
+        finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public void updateThroughTime() {
-        AccountDifference accountDifference = calculateUpdates(Duration.between(previousUpdateTime, accountBalanceHandler.getTariff().getClock().getDateTime()));
-        balance = balance.add(accountDifference.balanceDiff());
-        accumulator = accumulator.add(accountDifference.accumulatedDiff());
+        lock.lock();
+        try {
+            LocalDateTime now = getClock().getDateTime();
+            if (!now.isAfter(previousUpdateTime)) {
+                return;
+            }
+
+            AccountDifference accountDifference = calculateUpdates(Duration.between(previousUpdateTime, now));
+            balanceMinorUnits = Money.addExact(balanceMinorUnits, accountDifference.balanceDiff());
+            accumulatorMinorUnits = Money.addExact(accumulatorMinorUnits, accountDifference.accumulatedDiff());
+            previousUpdateTime = now;
+        }
+        finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Calculates the balance after some time, given that transactions have not been processed
+     * Calculates the balance after some time since now, given that transactions have not been processed
      * @param duration period of time to simulate
      * @return the balance after some time, given that transactions have not been processed
      */
     public BigDecimal predict(@NonNull Duration duration) {
-        AccountDifference accountDifference = calculateUpdates(duration);
-        return balance.add(accountDifference.balanceDiff());
+        lock.lock();
+        try {
+            updateThroughTime();
+            AccountDifference accountDifference = calculateUpdates(duration);
+            return Money.toBigDecimal(Money.addExact(balanceMinorUnits, accountDifference.balanceDiff()));
+        }
+        finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -101,59 +215,230 @@ public class Account implements ClockSubscriber {
      * @return true if contains, false otherwise
      */
     public boolean isContainsTransactionEntity(@NonNull UUID id) {
-        return transactionEntityIDs.contains(id);
+        lock.lock();
+        try {
+            return transactionEntityIDs.contains(id);
+        }
+        finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Cancel transaction that hasn't been canceled yet
      * @param id id of transaction
-     * @param sum sum to return to balance
+     * @param sum sum to return to balance, in minor units
+     * @throws AccountException if given transaction wasn't completed or already canceled
+     */
+    public void cancelTransaction(@NonNull UUID id, long sum) throws AccountException {
+        cancelTransaction(id, sum, id);
+    }
+
+    /**
+     * Cancel transaction entity that hasn't been canceled yet, recording cancellation in history
+     * @param id id of transaction entity
+     * @param sum sum to return to balance, in minor units
+     * @param parentTransactionID id of canceled transaction the entity belongs to
      * @throws AccountException if given transaction wasn't completed or already canceled
      */
-    public void cancelTransaction(@NonNull UUID id, @NonNull BigDecimal sum) throws AccountException {
-        if (!isContainsTransactionEntity(id)) {
-            throw AccountException.noSuchTransaction();
+    void cancelTransaction(@NonNull UUID id, long sum, @NonNull UUID parentTransactionID) throws AccountException {
+        lock.lock();
+        try {
+            if (!transactionEntityIDs.contains(id)) {
+                throw AccountException.noSuchTransaction();
+            }
+
+            updateThroughTime();
+            transactionEntityIDs.remove(id);
+
+            balanceMinorUnits = Money.subtractExact(balanceMinorUnits, sum);
+            history.append(new AccountHistoryEntry(getClock().getDateTime(), -sum, balanceMinorUnits, parentTransactionID), id);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reverts transaction entity which was made by this account last and wasn't committed to journal yet, removing it
+     * from history as if it never happened. Balance is changed back by the amount recorded in history, which includes
+     * tax of operation on negative balance, not by sum of the entity
+     * @param id id of transaction entity
+     * @throws AccountException if given transaction wasn't completed or already canceled, or isn't the last change of
+     * balance
+     */
+    void rollbackTransaction(@NonNull UUID id) throws AccountException {
+        lock.lock();
+        try {
+            if (!transactionEntityIDs.contains(id)) {
+                throw AccountException.noSuchTransaction();
+            }
+            if (!history.isLastMadeBy(id)) {
+                throw AccountException.notLastTransaction();
+            }
+
+            transactionEntityIDs.remove(id);
+            balanceMinorUnits = Money.subtractExact(balanceMinorUnits, history.last().amount());
+            history.removeLast();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns changes of balance made by transactions in given period, in order of time
+     * @param from start of period, inclusive
+     * @param to end of period, inclusive
+     * @return changes of balance in given period
+     */
+    public List<AccountHistoryEntry> getHistory(@NonNull LocalDateTime from, @NonNull LocalDateTime to) {
+        return getHistory(from, to, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns page of changes of balance made by transactions in given period, in order of time. Takes logarithmic time
+     * of history length plus size of page
+     * @param from start of period, inclusive
+     * @param to end of period, inclusive
+     * @param offset amount of changes of period to skip
+     * @param limit maximal amount of changes to return
+     * @return changes of balance in given period
+     * @throws AccountException if offset or limit is negative
+     */
+    public List<AccountHistoryEntry> getHistory(@NonNull LocalDateTime from, @NonNull LocalDateTime to, int offset, int limit) throws AccountException {
+        if (offset < 0 || limit < 0) {
+            throw AccountException.invalidHistoryPage(offset, limit);
+        }
+
+        lock.lock();
+        try {
+            return history.range(from, to, offset, limit);
+        }
+        finally {
+            lock.unlock();
         }
+    }
 
-        balance = balance.subtract(sum);
-        transactionEntityIDs.remove(id);
+    /**
+     * Copies state of this account. Caller must hold account's lock, so state doesn't change during copying
+     * @param journalSequence sequence of the last journal record reflected by current state
+     * @return state of this account
+     */
+    CentralBankSnapshot.AccountState snapshot(long journalSequence) {
+        return new CentralBankSnapshot.AccountState(accountID,
+                accountBalanceHandler.getTariff().getTariffStats().id(),
+                creationTime,
+                monthlyUpdateTime,
+                previousUpdateTime,
+                balanceMinorUnits,
+                accumulatorMinorUnits,
+                List.copyOf(transactionEntityIDs),
+                history.entries(),
+                journalSequence);
+    }
+
+    /**
+     * Sets state copied by {@link #snapshot(long)}. Used to restore account from snapshot
+     * @param state state to set
+     */
+    void restore(@NonNull CentralBankSnapshot.AccountState state) {
+        lock.lock();
+        try {
+            balanceMinorUnits = state.balance();
+            accumulatorMinorUnits = state.accumulator();
+            previousUpdateTime = state.previousUpdateTime();
+            transactionEntityIDs.clear();
+            transactionEntityIDs.addAll(state.transactionEntityIds());
+            state.history().forEach(history::append);
+        }
+        finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public String toString() {
-        return "Account id: " + accountID + "\nTariff: " + accountBalanceHandler.getTariff().getTariffStats().name() + "\nBalance: " + balance;
+        return "Account id: " + accountID + "\nTariff: " + accountBalanceHandler.getTariff().getTariffStats().name() + "\nBalance: " + getBalance();
+    }
+
+    /**
+     * Checks if no day boundary was crossed since previous update, so stored balance and accumulator are actual
+     * @return true if stored values are actual, false otherwise
+     */
+    private boolean isUpToDate() {
+        return !getClock().getDateTime().toLocalDate().isAfter(previousUpdateTime.toLocalDate());
     }
 
+    private Clock getClock() {
+        return accountBalanceHandler.getTariff().getClock();
+    }
+
+    /**
+     * Calculates differences in balance and accumulator after given period since previous update. Every day boundary
+     * crossed gives one daily accrual, and every payout day (see {@link #getMonthlyUpdateTime()}) gives one monthly update
+     * before accrual of that day. Daily accrual on constant balance is the same every day, so days between two payouts
+     * (or year boundaries, when days in year changes) are accrued in one step.
+     * @param duration period of time since previous update
+     * @return differences in balance and accumulator
+     */
     private AccountDifference calculateUpdates(@NonNull Duration duration) throws AccountException {
         if (duration.isNegative()) {
             throw AccountException.negativeUpdateTimeSpan();
         }
 
-        BigDecimal predictedBalance = BigDecimal.ZERO;
-        BigDecimal predictedAccumulator = accumulator;
+        TariffEvaluator evaluator = accountBalanceHandler.getEvaluator();
+        CalendarView calendar = getClock().getCalendarView();
+        long predictedBalance = balanceMinorUnits;
+        long predictedAccumulator = accumulatorMinorUnits;
 
-        //used to simulate time in calculations day by day
-        LocalDateTime tmp = previousUpdateTime.minus(duration.minus(Duration.ofDays(duration.toDays())));
+        LocalDate processed = previousUpdateTime.toLocalDate();
+        LocalDate target = previousUpdateTime.plus(duration).toLocalDate();
+        while (processed.isBefore(target)) {
+            LocalDate segmentStart = processed.plusDays(1);
 
-        int dayCounter = tmp.getDayOfYear() - previousUpdateTime.getDayOfYear();
-        do {
-            if (tmp.getDayOfMonth() == monthlyUpdateTime || tmp.getMonth() != previousUpdateTime.getMonth()) {
-                AccountDifference accountDifference = accountBalanceHandler.handleMonthlyUpdate(predictedBalance, predictedAccumulator);
-                predictedBalance = accountDifference.balanceDiff().add(predictedBalance).add(accountDifference.accumulatedDiff());
-                predictedAccumulator = BigDecimal.ZERO;
+            if (segmentStart.equals(nextPayoutDate(segmentStart))) {
+                AccountDifference accountDifference = evaluator.handleMonthlyUpdate(predictedBalance, predictedAccumulator);
+                predictedBalance = Money.addExact(predictedBalance, accountDifference.balanceDiff());
+                predictedAccumulator = Money.addExact(predictedAccumulator, accountDifference.accumulatedDiff());
             }
 
-            if (previousUpdateTime.getDayOfYear() != tmp.getDayOfYear()) {
-                AccountDifference accountDifference = accountBalanceHandler.handleDailyUpdate(predictedBalance);
-                predictedBalance = predictedBalance.add(accountDifference.balanceDiff());
-                predictedAccumulator = predictedAccumulator.add(accountDifference.accumulatedDiff());
+            LocalDate segmentEnd = target;
+            LocalDate beforeNextPayout = nextPayoutDate(segmentStart.plusDays(1)).minusDays(1);
+            if (beforeNextPayout.isBefore(segmentEnd)) {
+                segmentEnd = beforeNextPayout;
             }
+            boolean currentYear = segmentStart.getYear() == calendar.year();
+            int daysInYear = currentYear ? calendar.daysInYear() : segmentStart.lengthOfYear();
+            LocalDate endOfYear = currentYear ? calendar.lastDayOfYear() : segmentStart.withDayOfYear(daysInYear);
+            if (endOfYear.isBefore(segmentEnd)) {
+                segmentEnd = endOfYear;
+            }
+
+            long days = ChronoUnit.DAYS.between(segmentStart, segmentEnd) + 1;
+            AccountDifference accountDifference = evaluator.handleDailyUpdate(predictedBalance, days, daysInYear);
+            predictedBalance = Money.addExact(predictedBalance, accountDifference.balanceDiff());
+            predictedAccumulator = Money.addExact(predictedAccumulator, accountDifference.accumulatedDiff());
 
-            dayCounter++;
-            tmp = tmp.plusDays(1);
-        } while (dayCounter < duration.toDays());
+            processed = segmentEnd;
+        }
+
+        return new AccountDifference(Money.subtractExact(predictedBalance, balanceMinorUnits), Money.subtractExact(predictedAccumulator, accumulatorMinorUnits));
+    }
+
+    /**
+     * Returns first payout date not earlier than given date. If month is shorter than payout day, payout is made on
+     * the last day of month
+     * @param from first date to check
+     * @return first payout date not earlier than given date
+     */
+    private LocalDate nextPayoutDate(@NonNull LocalDate from) {
+        int payoutDay = Math.min(monthlyUpdateTime, from.lengthOfMonth());
+        if (from.getDayOfMonth() <= payoutDay) {
+            return from.withDayOfMonth(payoutDay);
+        }
 
-        previousUpdateTime = previousUpdateTime.plus(duration);
-        return new AccountDifference(predictedBalance.subtract(balance), predictedAccumulator.subtract(accumulator));
+        LocalDate nextMonth = from.plusMonths(1).withDayOfMonth(1);
+        return nextMonth.withDayOfMonth(Math.min(monthlyUpdateTime, nextMonth.lengthOfMonth()));
     }
 }
@@ -2,15 +2,14 @@ package ru.Khalilov.banks.domain.entities;
 
 import lombok.Getter;
 import lombok.NonNull;
-import ru.Khalilov.banks.domain.exceptions.AccountException;
 import ru.Khalilov.banks.domain.exceptions.TariffException;
 import ru.Khalilov.banks.domain.models.AccountDifference;
-
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import ru.Khalilov.banks.domain.models.Money;
 
 /**
- * This class is used to calculate differences in balance and cashback. All calculations are based on tariff
+ * This class is used to calculate differences in balance and cashback. All calculations are based on tariff and made
+ * in minor units (see {@link Money}) by {@link TariffEvaluator} currently published by the tariff, so the handler itself
+ * keeps no converted values.
  */
 public class AccountBalanceHandler {
     @NonNull @Getter
@@ -20,6 +19,15 @@ public class AccountBalanceHandler {
         this.tariff = tariff;
     }
 
+    /**
+     * Returns evaluator of current tariff stats. Callers making several calculations in a row should take it once, so
+     * all of them use the same stats even if tariff is changed meanwhile
+     * @return evaluator of current tariff stats
+     */
+    public @NonNull TariffEvaluator getEvaluator() {
+        return tariff.getEvaluator();
+    }
+
     /**
      * Calculates differences in balance after transaction
      * @param balance balance before transaction
@@ -27,21 +35,8 @@ public class AccountBalanceHandler {
      * @return pair of balance diff and accumulator diff, wrapped into {@link AccountDifference}
      * @throws TariffException - if final balance is less than minimal balance
      */
-    public AccountDifference handleTransaction(BigDecimal balance, BigDecimal sum) throws TariffException {
-        BigDecimal balanceDiffResult = sum;
-        BigDecimal accumulatedDiffResult = BigDecimal.ZERO;
-
-        if (balance.compareTo(BigDecimal.ZERO) < 0 && sum.compareTo(BigDecimal.ZERO) < 0)
-        {
-            balanceDiffResult = balanceDiffResult.add(tariff.getTariffStats().negativeBalanceOperationTax());
-        }
-
-        if (balance.add(balanceDiffResult).compareTo(tariff.getTariffStats().minimalBalance()) < 0)
-        {
-            throw AccountException.tooLowFinalBalance();
-        }
-
-        return new AccountDifference(balanceDiffResult, accumulatedDiffResult);
+    public AccountDifference handleTransaction(long balance, long sum) throws TariffException {
+        return getEvaluator().handleTransaction(balance, sum);
     }
 
     /**
@@ -49,21 +44,37 @@ public class AccountBalanceHandler {
      * @param balance current balance
      * @return pair of balance diff and accumulator diff, wrapped into {@link AccountDifference}
      */
-    public AccountDifference handleDailyUpdate(BigDecimal balance) {
-        BigDecimal balanceDiffResult = BigDecimal.ZERO;
-        BigDecimal accumulatedDiffResult = balance.multiply(tariff.getTariffStats().balanceInterest())
-                .divide(BigDecimal.valueOf(tariff.getClock().getDaysInYear()), RoundingMode.HALF_UP);
+    public AccountDifference handleDailyUpdate(long balance) {
+        return handleDailyUpdate(balance, 1, tariff.getClock().getDaysInYear());
+    }
 
-        return new AccountDifference(balanceDiffResult, accumulatedDiffResult);
+    /**
+     * Calculates difference in balance and accumulator after several days with constant balance. Result is equal to
+     * sum of daily updates for each of these days: interest of one day is rounded first and then multiplied by days
+     * @param balance balance during all these days
+     * @param days amount of days
+     * @param daysInYear amount of days in year these days belong to
+     * @return pair of balance diff and accumulator diff, wrapped into {@link AccountDifference}
+     */
+    public AccountDifference handleDailyUpdate(long balance, long days, int daysInYear) {
+        return getEvaluator().handleDailyUpdate(balance, days, daysInYear);
     }
 
     /**
-     * Calculates differences in balance and accumulator after end of month
-     * @param balance current balance
-     * @param accumulator current accumulator
+     * Calculates differences in balance and accumulator after end of month. Accumulated sum is paid to balance
+     * @param balance current balance in minor units
+     * @param accumulator current accumulator in minor units
      * @return pair of balance diff and accumulator diff, wrapped into {@link AccountDifference}
      */
-    public AccountDifference handleMonthlyUpdate(BigDecimal balance, BigDecimal accumulator) {
-        return new AccountDifference(BigDecimal.ZERO, BigDecimal.ZERO);
+    public AccountDifference handleMonthlyUpdate(long balance, long accumulator) {
+        return getEvaluator().handleMonthlyUpdate(balance, accumulator);
+    }
+
+    /**
+     * Returns minimal balance of current tariff in minor units
+     * @return minimal balance of current tariff in minor units
+     */
+    public long getMinimalBalance() {
+        return getEvaluator().getMinimalBalance();
     }
 }
@@ -0,0 +1,214 @@
+package ru.Khalilov.banks.domain.entities;
+
+import lombok.NonNull;
+import ru.Khalilov.banks.domain.models.AccountHistoryEntry;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Append-only history of balance changes of one account. Entries are stored in chunks of primitive columns: time (epoch
+ * second and nanosecond in UTC), amount, balance after change and halves of ids of transaction and transaction entity. Id of
+ * entity is known only for entries appended since restore, it is kept to check rollbacks. The last chunk grows by
+ * doubling up to fixed size, so short histories of dormant accounts stay small and long ones are never copied as a whole.
+ * Entries are appended in order of clock time, so entries of a time range are found by binary search over entry index.
+ * Not thread safe: guarded by lock of the account.
+ */
+final class AccountHistory {
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int INITIAL_CAPACITY = 4;
+    private static final UUID UNKNOWN_ENTITY_ID = new UUID(0, 0);
+
+    @NonNull
+    private final List<Chunk> chunks;
+    private int size;
+
+    AccountHistory() {
+        chunks = new ArrayList<>();
+    }
+
+    /**
+     * Appends entry restored from snapshot, whose transaction entity is unknown. Its time must not be earlier than time
+     * of the last entry
+     * @param entry - entry to append
+     */
+    void append(@NonNull AccountHistoryEntry entry) {
+        append(entry, UNKNOWN_ENTITY_ID);
+    }
+
+    /**
+     * Appends entry. Its time must not be earlier than time of the last entry
+     * @param entry - entry to append
+     * @param transactionEntityId - id of transaction entity which made the change
+     */
+    void append(@NonNull AccountHistoryEntry entry, @NonNull UUID transactionEntityId) {
+        int offset = size & CHUNK_MASK;
+        if (offset == 0) {
+            chunks.add(new Chunk(INITIAL_CAPACITY));
+        }
+
+        Chunk chunk = chunks.get(chunks.size() - 1);
+        if (offset == chunk.seconds.length) {
+            chunk.grow(Math.min(offset * 2, CHUNK_SIZE));
+        }
+
+        chunk.seconds[offset] = entry.time().toEpochSecond(ZoneOffset.UTC);
+        chunk.nanos[offset] = entry.time().getNano();
+        chunk.amounts[offset] = entry.amount();
+        chunk.balances[offset] = entry.balance();
+        chunk.idHighs[offset] = entry.transactionId().getMostSignificantBits();
+        chunk.idLows[offset] = entry.transactionId().getLeastSignificantBits();
+        chunk.entityIdHighs[offset] = transactionEntityId.getMostSignificantBits();
+        chunk.entityIdLows[offset] = transactionEntityId.getLeastSignificantBits();
+        size++;
+    }
+
+    /**
+     * Removes the last entry. Used when posting is rolled back before it was committed
+     */
+    void removeLast() {
+        size--;
+        if ((size & CHUNK_MASK) == 0) {
+            chunks.remove(chunks.size() - 1);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the last appended entry. History must not be empty
+     * @return the last entry
+     */
+    AccountHistoryEntry last() {
+        return get(size - 1);
+    }
+
+    /**
+     * Checks that the last appended entry was made by given transaction entity
+     * @param transactionEntityId - id of transaction entity
+     * @return true if history isn't empty and its last entry was made by given entity
+     */
+    boolean isLastMadeBy(@NonNull UUID transactionEntityId) {
+        if (size == 0) {
+            return false;
+        }
+
+        Chunk chunk = chunks.get((size - 1) >>> CHUNK_SHIFT);
+        int offset = (size - 1) & CHUNK_MASK;
+        return chunk.entityIdHighs[offset] == transactionEntityId.getMostSignificantBits()
+                && chunk.entityIdLows[offset] == transactionEntityId.getLeastSignificantBits();
+    }
+
+    /**
+     * Returns page of entries with time in given range
+     * @param from - start of range, inclusive
+     * @param to - end of range, inclusive
+     * @param offset - amount of entries of range to skip
+     * @param limit - maximal amount of entries to return
+     * @return entries in order of time
+     */
+    List<AccountHistoryEntry> range(@NonNull LocalDateTime from, @NonNull LocalDateTime to, int offset, int limit) {
+        long fromSecond = from.toEpochSecond(ZoneOffset.UTC);
+        long toSecond = to.toEpochSecond(ZoneOffset.UTC);
+        int start = firstAfter(fromSecond, from.getNano(), false);
+        int end = firstAfter(toSecond, to.getNano(), true);
+
+        start = (int) Math.min((long) start + offset, end);
+        end = (int) Math.min(end, (long) start + limit);
+        List<AccountHistoryEntry> result = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            result.add(get(i));
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns all entries in order of appending
+     * @return all entries
+     */
+    List<AccountHistoryEntry> entries() {
+        List<AccountHistoryEntry> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(get(i));
+        }
+
+        return result;
+    }
+
+    private AccountHistoryEntry get(int index) {
+        Chunk chunk = chunks.get(index >>> CHUNK_SHIFT);
+        int offset = index & CHUNK_MASK;
+        return new AccountHistoryEntry(LocalDateTime.ofEpochSecond(chunk.seconds[offset], chunk.nanos[offset], ZoneOffset.UTC),
+                chunk.amounts[offset],
+                chunk.balances[offset],
+                new UUID(chunk.idHighs[offset], chunk.idLows[offset]));
+    }
+
+    /**
+     * Finds the first entry later than given moment, or not earlier than it if inclusive is false
+     * @return index of found entry, or size if there is no such entry
+     */
+    private int firstAfter(long second, int nano, boolean inclusive) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            Chunk chunk = chunks.get(middle >>> CHUNK_SHIFT);
+            int offset = middle & CHUNK_MASK;
+            int comparison = chunk.seconds[offset] != second
+                    ? Long.compare(chunk.seconds[offset], second)
+                    : Integer.compare(chunk.nanos[offset], nano);
+
+            if (comparison < 0 || (inclusive && comparison == 0)) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private static final class Chunk {
+        private long[] seconds;
+        private int[] nanos;
+        private long[] amounts;
+        private long[] balances;
+        private long[] idHighs;
+        private long[] idLows;
+        private long[] entityIdHighs;
+        private long[] entityIdLows;
+
+        private Chunk(int capacity) {
+            seconds = new long[capacity];
+            nanos = new int[capacity];
+            amounts = new long[capacity];
+            balances = new long[capacity];
+            idHighs = new long[capacity];
+            idLows = new long[capacity];
+            entityIdHighs = new long[capacity];
+            entityIdLows = new long[capacity];
+        }
+
+        private void grow(int capacity) {
+            seconds = Arrays.copyOf(seconds, capacity);
+            nanos = Arrays.copyOf(nanos, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            balances = Arrays.copyOf(balances, capacity);
+            idHighs = Arrays.copyOf(idHighs, capacity);
+            idLows = Arrays.copyOf(idLows, capacity);
+            entityIdHighs = Arrays.copyOf(entityIdHighs, capacity);
+            entityIdLows = Arrays.copyOf(entityIdLows, capacity);
+        }
+    }
+}
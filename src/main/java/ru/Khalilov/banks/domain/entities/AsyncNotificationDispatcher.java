@@ -0,0 +1,258 @@
+package ru.Khalilov.banks.domain.entities;
+
+import lombok.NonNull;
+import ru.Khalilov.banks.domain.exceptions.TariffException;
+import ru.Khalilov.banks.domain.models.Message;
+import ru.Khalilov.banks.domain.models.NotificationMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link NotificationDispatcher} that delivers messages on a pool of worker threads.
+ * Subscribers are split between workers by identity, so one subscriber is always served by the same worker and gets
+ * messages in order of dispatch. Subscribers of a worker are delivered in batches of limited size, and every worker has
+ * bounded queue of batches. When queue is full, dispatching thread waits for the worker, so producer can't run away
+ * from delivery and memory stays bounded. Caller only splits subscribers, so tariff change with many subscribers
+ * doesn't stall the bank for the whole delivery.
+ */
+public class AsyncNotificationDispatcher implements NotificationDispatcher, AutoCloseable {
+    private static final int DEFAULT_QUEUE_CAPACITY = 64;
+    private static final int DEFAULT_BATCH_SIZE = 1024;
+    private static final Batch STOP = new Batch(List.of(), null);
+
+    private final int batchSize;
+    @NonNull
+    private final List<BlockingQueue<Batch>> queues;
+    @NonNull
+    private final List<Thread> workers;
+    @NonNull
+    private final ReentrantLock lock;
+    @NonNull
+    private final Condition allDelivered;
+    private long pendingBatches;
+    private boolean closed;
+    private final LongAdder messages;
+    private final LongAdder batches;
+    private final LongAdder delivered;
+    private final LongAdder failed;
+    private final LongAdder backpressureWaits;
+
+    /**
+     * Constructs dispatcher with worker per available processor and default sizes of queues and batches
+     */
+    public AsyncNotificationDispatcher() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs dispatcher and starts its workers. Workers are daemon threads, so forgotten dispatcher doesn't keep
+     * process alive, but undelivered messages are lost unless {@link #close()} is called
+     * @param workerCount - amount of worker threads
+     * @param queueCapacity - maximal amount of batches queued to one worker
+     * @param batchSize - maximal amount of subscribers in one batch
+     */
+    public AsyncNotificationDispatcher(int workerCount, int queueCapacity, int batchSize) {
+        if (workerCount <= 0 || queueCapacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Amount of workers, capacity of queue and size of batch must be positive");
+        }
+
+        this.batchSize = batchSize;
+        this.lock = new ReentrantLock();
+        this.allDelivered = lock.newCondition();
+        this.messages = new LongAdder();
+        this.batches = new LongAdder();
+        this.delivered = new LongAdder();
+        this.failed = new LongAdder();
+        this.backpressureWaits = new LongAdder();
+        this.queues = new ArrayList<>(workerCount);
+        this.workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(queueCapacity);
+            Thread worker = new Thread(() -> work(queue), "notification-worker-" + i);
+            worker.setDaemon(true);
+            queues.add(queue);
+            workers.add(worker);
+        }
+        workers.forEach(Thread::start);
+    }
+
+    /**
+     * Splits subscribers into batches and queues them to workers. Waits if queue of some worker is full
+     * @param subscribers - subscribers to notify
+     * @param message - message to deliver
+     * @throws TariffException - if dispatcher is closed
+     */
+    @Override
+    public synchronized void dispatch(@NonNull List<TariffSubscriber> subscribers, @NonNull Message message) throws TariffException {
+        if (closed) {
+            throw TariffException.notificationDispatcherClosed();
+        }
+
+        messages.increment();
+        List<List<TariffSubscriber>> filling = new ArrayList<>(queues.size());
+        for (int i = 0; i < queues.size(); i++) {
+            filling.add(new ArrayList<>());
+        }
+
+        for (TariffSubscriber subscriber : subscribers) {
+            int worker = Math.floorMod(System.identityHashCode(subscriber), queues.size());
+            List<TariffSubscriber> batch = filling.get(worker);
+            batch.add(subscriber);
+            if (batch.size() == batchSize) {
+                submit(worker, new Batch(batch, message));
+                filling.set(worker, new ArrayList<>());
+            }
+        }
+
+        for (int i = 0; i < filling.size(); i++) {
+            if (!filling.get(i).isEmpty()) {
+                submit(i, new Batch(filling.get(i), message));
+            }
+        }
+    }
+
+    @Override
+    public void awaitDelivered() {
+        lock.lock();
+        try {
+            while (pendingBatches > 0) {
+                allDelivered.awaitUninterruptibly();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns counters of dispatcher
+     * @return counters of dispatcher
+     */
+    public @NonNull NotificationMetrics getMetrics() {
+        lock.lock();
+        try {
+            return new NotificationMetrics(messages.sum(), batches.sum(), delivered.sum(), failed.sum(), backpressureWaits.sum(), pendingBatches);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Delivers all queued messages and stops workers. Further dispatching isn't allowed
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        for (BlockingQueue<Batch> queue : queues) {
+            putUninterruptibly(queue, STOP);
+        }
+        for (Thread worker : workers) {
+            joinUninterruptibly(worker);
+        }
+    }
+
+    private void submit(int worker, @NonNull Batch batch) {
+        lock.lock();
+        try {
+            pendingBatches++;
+        }
+        finally {
+            lock.unlock();
+        }
+
+        batches.increment();
+        BlockingQueue<Batch> queue = queues.get(worker);
+        if (!queue.offer(batch)) {
+            backpressureWaits.increment();
+            putUninterruptibly(queue, batch);
+        }
+    }
+
+    private void work(@NonNull BlockingQueue<Batch> queue) {
+        while (true) {
+            Batch batch;
+            try {
+                batch = queue.take();
+            }
+            catch (InterruptedException e) {
+                continue;
+            }
+
+            if (batch == STOP) {
+                return;
+            }
+            deliver(batch);
+        }
+    }
+
+    private void deliver(@NonNull Batch batch) {
+        int succeeded = 0;
+        for (TariffSubscriber subscriber : batch.subscribers()) {
+            try {
+                subscriber.receiveMessage(batch.message());
+                succeeded++;
+            }
+            catch (RuntimeException e) {
+                failed.increment();
+            }
+        }
+        delivered.add(succeeded);
+
+        lock.lock();
+        try {
+            if (--pendingBatches == 0) {
+                allDelivered.signalAll();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private static void putUninterruptibly(@NonNull BlockingQueue<Batch> queue, @NonNull Batch batch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(batch);
+                break;
+            }
+            catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void joinUninterruptibly(@NonNull Thread thread) {
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            }
+            catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Batch(List<TariffSubscriber> subscribers, Message message) {
+    }
+}
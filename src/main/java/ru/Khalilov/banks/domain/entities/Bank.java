@@ -2,46 +2,91 @@ package ru.Khalilov.banks.domain.entities;
 
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.Setter;
 import ru.Khalilov.banks.domain.exceptions.AccountException;
 import ru.Khalilov.banks.domain.exceptions.BankException;
+import ru.Khalilov.banks.domain.exceptions.MoneyException;
 import ru.Khalilov.banks.domain.exceptions.TariffException;
+import ru.Khalilov.banks.domain.journal.CentralBankSnapshot;
+import ru.Khalilov.banks.domain.journal.Journal;
+import ru.Khalilov.banks.domain.journal.JournalRecord;
+import ru.Khalilov.banks.domain.journal.NoJournal;
 import ru.Khalilov.banks.domain.models.*;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Contains tariffs and clients and provides methods to handle them
+ * Contains tariffs and clients and provides methods to handle them.
+ * Methods changing set of clients, accounts or tariffs are synchronized on the bank, while account lookup used by postings
+ * goes through concurrent indexes and doesn't block.
+ * Every change is committed to {@link Journal} before method returns.
+ * Accounts aren't subscribed to the clock one by one: in {@link AccrualMode#EAGER} mode bank's {@link PayoutWheel}
+ * updates only accounts whose payout day has come, and in {@link AccrualMode#LAZY} mode bank doesn't follow the clock at all.
  */
 public class Bank {
     @NonNull
     private final List<Tariff> tariffs;
     @NonNull
+    private final Map<UUID, Tariff> tariffsById;
+    @NonNull
     private final List<Client> clients;
     @NonNull
+    private final Map<UUID, Client> clientsById;
+    @NonNull
+    private final Map<AccountId, AccountLocation> accountLocations;
+    @NonNull
     private final Clock clock;
+    @NonNull
+    private final PayoutWheel payoutWheel;
+    @NonNull @Getter
+    private AccrualMode accrualMode;
     @NonNull @Getter
     private final BankId bankID;
-    @NonNull @Getter @Setter
-    private BigDecimal transactionLimitForDoubtfulClients;
+    private volatile long transactionLimitForDoubtfulClients;
+    @NonNull
+    private volatile Journal journal;
+    @NonNull
+    private volatile IdGenerator idGenerator;
+    @NonNull
+    private volatile NotificationDispatcher notificationDispatcher;
 
     /**
-     * Constructs bank without any clients and tariffs
+     * Constructs bank without any clients and tariffs. Changes aren't journaled
      * @param clock clock used by this bank
      * @param bankID bank's id
      * @param transactionLimitForDoubtfulClients limit for transactions made by clients without passport or/and address
      */
     public Bank(@NonNull Clock clock, @NonNull BankId bankID, @NonNull BigDecimal transactionLimitForDoubtfulClients) {
+        this(clock, bankID, transactionLimitForDoubtfulClients, NoJournal.INSTANCE);
+    }
+
+    /**
+     * Constructs bank without any clients and tariffs
+     * @param clock clock used by this bank
+     * @param bankID bank's id
+     * @param transactionLimitForDoubtfulClients limit for transactions made by clients without passport or/and address
+     * @param journal journal to commit changes to
+     */
+    public Bank(@NonNull Clock clock, @NonNull BankId bankID, @NonNull BigDecimal transactionLimitForDoubtfulClients, @NonNull Journal journal) {
+        this.journal = journal;
         this.clock = clock;
         this.bankID = bankID;
-        this.transactionLimitForDoubtfulClients = transactionLimitForDoubtfulClients;
+        this.transactionLimitForDoubtfulClients = Money.toMinorUnits(transactionLimitForDoubtfulClients);
         tariffs = new ArrayList<>();
+        tariffsById = new ConcurrentHashMap<>();
         clients = new ArrayList<>();
+        clientsById = new ConcurrentHashMap<>();
+        accountLocations = new ConcurrentHashMap<>();
+        idGenerator = IdGenerator.timeOrdered();
+        notificationDispatcher = NotificationDispatcher.direct();
+        payoutWheel = new PayoutWheel(clock);
+        accrualMode = AccrualMode.EAGER;
+        clock.subscribe(payoutWheel);
     }
 
     /**
-     * Creates new account for given client with given tariff. Also subscribes clint to this tariff
+     * Creates new account for given client with given tariff. Also subscribes clint to this tariff and schedules account's payouts
      * @param client chosen client
      * @param tariffStats chosen tariff
      * @return new account for given client with given tariff
@@ -49,16 +94,86 @@ public class Bank {
      * @throws TariffException if client already subscribed to tariff
      * @throws AccountException
      */
-    public Account createAccount(@NonNull Client client, @NonNull TariffStats tariffStats) throws BankException, TariffException, AccountException {
+    public synchronized Account createAccount(@NonNull Client client, @NonNull TariffStats tariffStats) throws BankException, TariffException, AccountException {
         Tariff tariff = getTariffByID(tariffStats.id());
 
-        if (!clients.contains(client)) {
+        if (!clientsById.containsKey(client.getId())) {
+            throw BankException.accessToNonExistingClient();
+        }
+
+        Account account = registerAccount(client, tariff,
+                new Account(new AccountId(idGenerator.nextId(), bankID), clock.getDateTime(), new AccountBalanceHandler(tariff), clock.getDateTime().getDayOfMonth()));
+        journal.commit(new JournalRecord.AccountCreated(account.getAccountID(), client.getId(), tariffStats.id()));
+        return account;
+    }
+
+    /**
+     * Creates account with given id. Used to restore state from journal
+     * @param accountId id of account
+     * @param clientID id of owner
+     * @param tariffID id of tariff
+     * @throws BankException if tariff or client wasn't found
+     */
+    synchronized void restoreAccount(@NonNull AccountId accountId, @NonNull UUID clientID, @NonNull UUID tariffID) throws BankException {
+        Client client = clientsById.get(clientID);
+        if (client == null) {
+            throw BankException.accessToNonExistingClient();
+        }
+
+        Tariff tariff = getTariffByID(tariffID);
+        registerAccount(client, tariff, new Account(accountId, clock.getDateTime(), new AccountBalanceHandler(tariff), clock.getDateTime().getDayOfMonth()));
+    }
+
+    /**
+     * Creates account from its state in snapshot. Used to restore state from snapshot
+     * @param clientID id of owner
+     * @param state state of account
+     * @throws BankException if tariff or client wasn't found
+     */
+    synchronized void restoreAccount(@NonNull UUID clientID, @NonNull CentralBankSnapshot.AccountState state) throws BankException {
+        Client client = clientsById.get(clientID);
+        if (client == null) {
             throw BankException.accessToNonExistingClient();
         }
 
-        Account account = new Account(new AccountId(UUID.randomUUID(), bankID), clock.getDateTime(), new AccountBalanceHandler(tariff), clock.getDateTime().getDayOfMonth());
+        Tariff tariff = getTariffByID(state.tariffId());
+        Account account = new Account(state.accountId(), state.creationTime(), new AccountBalanceHandler(tariff), state.monthlyUpdateTime());
+        account.restore(state);
+        registerAccount(client, tariff, account);
+    }
+
+    /**
+     * Copies state of this bank. Tariffs, clients and set of accounts don't change during copying, since their changes
+     * are synchronized on the bank, while every account is locked only for the time of copying its own state. Each copy
+     * records position of journal at the moment it was taken, so postings to other accounts go on meanwhile
+     * @return state of this bank
+     */
+    synchronized CentralBankSnapshot.BankState snapshot() {
+        long bankSequence = journal.position().sequence();
+        List<CentralBankSnapshot.ClientState> clientStates = new ArrayList<>(clients.size());
+        for (Client client : clients) {
+            List<Account> accounts = client.getAccounts();
+            List<CentralBankSnapshot.AccountState> accountStates = new ArrayList<>(accounts.size());
+            for (Account account : accounts) {
+                account.getLock().lock();
+                try {
+                    accountStates.add(account.snapshot(journal.position().sequence()));
+                }
+                finally {
+                    account.getLock().unlock();
+                }
+            }
+            clientStates.add(new CentralBankSnapshot.ClientState(client.getId(), client.getClientInformation(), accountStates));
+        }
+
+        return new CentralBankSnapshot.BankState(bankID, transactionLimitForDoubtfulClients,
+                tariffs.stream().map(Tariff::getTariffStats).toList(), clientStates, bankSequence);
+    }
 
+    private Account registerAccount(@NonNull Client client, @NonNull Tariff tariff, @NonNull Account account) {
         client.addAccount(account);
+        payoutWheel.add(account);
+        accountLocations.put(account.getAccountID(), new AccountLocation(this, client, account));
 
         if (client.getClientInformation().emailImpl() != null) {
             tariff.subscribe(client.getClientInformation().emailImpl());
@@ -70,29 +185,79 @@ public class Bank {
     /**
      * Adds money to account
      * @param accountId id of target account
-     * @param sum sum to add
+     * @param sum sum to add, in minor units (see {@link Money})
      * @return {@link TransactionEntity} of this completed transaction
      * @throws BankException if some entity wasn't found
      * @throws AccountException if transaction can't be completed due to account state
      */
-    public TransactionEntity addTransactionSum(@NonNull AccountId accountId, @NonNull BigDecimal sum) throws BankException, AccountException {
+    public TransactionEntity addTransactionSum(@NonNull AccountId accountId, long sum) throws BankException, AccountException {
+        return addTransactionSum(accountId, sum, null);
+    }
+
+    /**
+     * Adds money to account as part of transaction
+     * @param accountId id of target account
+     * @param sum sum to add, in minor units (see {@link Money})
+     * @param transactionId id of transaction recorded in account's history, or null to record id of created entity
+     * @return {@link TransactionEntity} of this completed transaction
+     * @throws BankException if some entity wasn't found
+     * @throws AccountException if transaction can't be completed due to account state
+     */
+    TransactionEntity addTransactionSum(@NonNull AccountId accountId, long sum, UUID transactionId) throws BankException, AccountException {
         if (!accountId.bankId().equals(bankID)) {
             throw BankException.accessToNonExistingObjectById(Bank.class.getTypeName());
         }
 
-        Optional<Client> optionalClient = clients.stream().filter(current -> current.getAccounts().stream().anyMatch(account -> account.getAccountID().equals(accountId))).findFirst();
+        AccountLocation location = accountLocations.get(accountId);
 
-        if (optionalClient.isEmpty()) {
+        if (location == null) {
             throw BankException.accessToNonExistingObjectById(Account.class.getTypeName());
         }
-        Client client = optionalClient.get();
 
-        if (isClientDoubtful(client) && sum.abs().compareTo(transactionLimitForDoubtfulClients) >= 0) {
-            throw BankException.doubtfulClientExceedsTransactionLimit(sum, transactionLimitForDoubtfulClients);
+        return addTransactionSum(location, sum, transactionId);
+    }
+
+    /**
+     * Adds money to account already located in this bank as part of transaction, skipping lookup by id
+     * @param location location of target account, got from {@link #locateAccount(AccountId)}
+     * @param sum sum to add, in minor units (see {@link Money})
+     * @param transactionId id of transaction recorded in account's history, or null to record id of created entity
+     * @return {@link TransactionEntity} of this completed transaction
+     * @throws BankException if client exceeds limit for doubtful clients
+     * @throws AccountException if transaction can't be completed due to account state
+     */
+    TransactionEntity addTransactionSum(@NonNull AccountLocation location, long sum, UUID transactionId) throws BankException, AccountException {
+        if (isClientDoubtful(location.client()) && Math.abs(sum) >= transactionLimitForDoubtfulClients) {
+            throw BankException.doubtfulClientExceedsTransactionLimit(Money.toBigDecimal(sum), Money.toBigDecimal(transactionLimitForDoubtfulClients));
         }
 
-        Account account = client.getAccounts().stream().filter(current -> current.getAccountID().equals(accountId)).findFirst().get();
-        return account.addTransactionSum(sum);
+        UUID entityId = idGenerator.nextId();
+        return location.account().addTransactionSum(sum, entityId, transactionId == null ? entityId : transactionId);
+    }
+
+    /**
+     * Returns limit for transactions made by clients without passport or/and address
+     * @return limit for transactions made by clients without passport or/and address
+     */
+    public BigDecimal getTransactionLimitForDoubtfulClients() {
+        return Money.toBigDecimal(transactionLimitForDoubtfulClients);
+    }
+
+    /**
+     * Sets limit for transactions made by clients without passport or/and address
+     * @param transactionLimitForDoubtfulClients new limit
+     */
+    public synchronized void setTransactionLimitForDoubtfulClients(@NonNull BigDecimal transactionLimitForDoubtfulClients) {
+        restoreTransactionLimitForDoubtfulClients(Money.toMinorUnits(transactionLimitForDoubtfulClients));
+        journal.commit(new JournalRecord.TransactionLimitChanged(bankID, this.transactionLimitForDoubtfulClients));
+    }
+
+    /**
+     * Sets limit for transactions made by clients without passport or/and address. Used to restore state from journal
+     * @param transactionLimitForDoubtfulClients new limit in minor units
+     */
+    void restoreTransactionLimitForDoubtfulClients(long transactionLimitForDoubtfulClients) {
+        this.transactionLimitForDoubtfulClients = transactionLimitForDoubtfulClients;
     }
 
     /**
@@ -100,26 +265,36 @@ public class Bank {
      * @param clientInformation given {@link ClientInformation}
      * @return UUID of this client
      */
-    public UUID addClient(ClientInformation clientInformation) {
-        UUID clientID = UUID.randomUUID();
-        clients.add(new Client(clientID, clientInformation, new ArrayList<>()));
+    public synchronized UUID addClient(ClientInformation clientInformation) {
+        UUID clientID = idGenerator.nextId();
+        restoreClient(clientID, clientInformation);
+        journal.commit(new JournalRecord.ClientAdded(bankID, clientID, clientInformation));
         return clientID;
     }
 
+    /**
+     * Creates new {@link Client} with given id. Used to restore state from journal
+     * @param clientID id of client
+     * @param clientInformation information about client
+     */
+    synchronized void restoreClient(@NonNull UUID clientID, @NonNull ClientInformation clientInformation) {
+        Client client = new Client(clientID, clientInformation, new ArrayList<>());
+        clients.add(client);
+        clientsById.put(clientID, client);
+    }
+
     /**
      * Changes client information of client with given id. Also changes subscription if email changes
      * @param clientID target client's id
      * @param newClientInformation new data to set
      * @throws BankException if there is no client with given id
      */
-    public void changeClientInformation(@NonNull UUID clientID, @NonNull ClientInformation newClientInformation) throws BankException {
-        Optional<Client> optionalClient = clients.stream().filter(current -> current.getId().equals(clientID)).findFirst();
-        if (optionalClient.isEmpty()) {
+    public synchronized void changeClientInformation(@NonNull UUID clientID, @NonNull ClientInformation newClientInformation) throws BankException {
+        Client client = clientsById.get(clientID);
+        if (client == null) {
             throw BankException.accessToNonExistingClient();
         }
 
-        Client client = optionalClient.get();
-
         if (!client.getClientInformation().emailImpl().equals(newClientInformation.emailImpl())) {
             for (Account account: client.getAccounts()) {
                 Tariff tariff = getTariffByID(account.getAccountBalanceHandler().getTariff().getTariffStats().id());
@@ -135,25 +310,109 @@ public class Bank {
         }
 
         client.setClientInformation(newClientInformation);
+        journal.commit(new JournalRecord.ClientChanged(bankID, clientID, newClientInformation));
     }
 
     /**
      * Adds new tariff based in given tariff stats
      * @param tariffStats data to base tariff on
      */
-    public void addTariff(@NonNull TariffStats tariffStats) {
-        tariffs.add(new Tariff(clock, tariffStats));
+    public synchronized void addTariff(@NonNull TariffStats tariffStats) {
+        Tariff tariff = new Tariff(clock, tariffStats);
+        tariff.setNotificationDispatcher(notificationDispatcher);
+        tariffs.add(tariff);
+        tariffsById.put(tariffStats.id(), tariff);
+        journal.commit(new JournalRecord.TariffAdded(bankID, tariffStats));
     }
 
     /**
-     * Changes {@link TariffStats} of tariff with given id
+     * Changes {@link TariffStats} of tariff with given id. Accounts with this tariff are updated first, so interest for
+     * days before the change is accrued on previous terms. Accounts stay locked until the change is appended to journal,
+     * so every posting to them is journaled on the same side of the change as the stats it was calculated with. Waiting
+     * for durability and notifying subscribers happen after locks are released
      * @param tariffID id of target tariff
      * @param newTariffStats new tariff stats
+     * @throws MoneyException if some amount or rate of new stats doesn't fit into minor units. Tariff isn't changed then
      */
-    public void changeTariff(@NonNull UUID tariffID, @NonNull TariffStats newTariffStats) {
-        Tariff tariff = getTariffByID(tariffID);
+    public void changeTariff(@NonNull UUID tariffID, @NonNull TariffStats newTariffStats) throws MoneyException {
+        TariffEvaluator evaluator = TariffEvaluator.compile(newTariffStats);
+        Tariff tariff;
+        long sequence;
+        synchronized (this) {
+            tariff = getTariffByID(tariffID);
+            List<Account> locked = CentralBank.lockInOrder(accountLocations.values().stream()
+                    .map(AccountLocation::account)
+                    .filter(account -> account.getAccountBalanceHandler().getTariff() == tariff)
+                    .toList());
+            try {
+                locked.forEach(Account::updateThroughTime);
+
+                sequence = journal.append(new JournalRecord.TariffChanged(bankID, tariffID, newTariffStats));
+                tariff.publish(evaluator);
+                // tariff is found by id of its current stats
+                tariffsById.remove(tariffID);
+                tariffsById.put(newTariffStats.id(), tariff);
+            }
+            finally {
+                CentralBank.unlock(locked);
+            }
+        }
+
+        journal.awaitDurable(sequence);
+        tariff.notifySubscribers(newTariffStats);
+    }
+
+    /**
+     * Sets mode of interest accrual. When eager mode is turned on, all accounts are brought up to date first
+     * @param accrualMode mode to set
+     */
+    public synchronized void setAccrualMode(@NonNull AccrualMode accrualMode) {
+        if (this.accrualMode == accrualMode) {
+            return;
+        }
+
+        if (accrualMode == AccrualMode.LAZY) {
+            clock.unsubscribe(payoutWheel);
+        }
+        else {
+            payoutWheel.skipProcessedDays();
+            clock.subscribe(payoutWheel);
+            settleAccounts();
+        }
+        this.accrualMode = accrualMode;
+    }
+
+    /**
+     * Brings interest of all accounts up to date. In lazy mode it should be called periodically, so that accounts nobody
+     * reads still get their payouts
+     */
+    public void settleAccounts() {
+        accountLocations.values().forEach(location -> location.account().updateThroughTime());
+    }
 
-        tariff.setTariffStats(newTariffStats);
+    /**
+     * Sets source of ids of new clients, accounts and transaction entities
+     * @param idGenerator generator to use
+     */
+    void setIdGenerator(@NonNull IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
+    /**
+     * Sets dispatcher delivering notifications of all tariffs of this bank, including tariffs added later
+     * @param notificationDispatcher dispatcher to use
+     */
+    synchronized void setNotificationDispatcher(@NonNull NotificationDispatcher notificationDispatcher) {
+        this.notificationDispatcher = notificationDispatcher;
+        tariffs.forEach(tariff -> tariff.setNotificationDispatcher(notificationDispatcher));
+    }
+
+    /**
+     * Sets journal changes are committed to. Used to start journaling after state is restored
+     * @param journal journal to commit changes to
+     */
+    void setJournal(@NonNull Journal journal) {
+        this.journal = journal;
     }
 
     /**
@@ -171,7 +430,36 @@ public class Bank {
      * @return account with given accountId or null if no such account
      */
     public Account findAccount(@NonNull AccountId accountId) {
-        return clients.stream().map(c -> c.getAccounts()).flatMap(accounts -> accounts.stream()).filter(account -> account.getAccountID().equals(accountId)).findFirst().orElse(null);
+        AccountLocation location = accountLocations.get(accountId);
+        return location == null ? null : location.account();
+    }
+
+    /**
+     * Returns {@link AccountLocation} of account with given accountId or null if no such account
+     * @param accountId id of target account
+     * @return bank, owner and account itself or null if no such account
+     */
+    public AccountLocation locateAccount(@NonNull AccountId accountId) {
+        return accountLocations.get(accountId);
+    }
+
+    /**
+     * Returns current stats of tariff with given id or null if no such tariff
+     * @param tariffID id of target tariff
+     * @return current stats of tariff with given id or null if no such tariff
+     */
+    public TariffStats findTariffStats(@NonNull UUID tariffID) {
+        Tariff tariff = tariffsById.get(tariffID);
+        return tariff == null ? null : tariff.getTariffStats();
+    }
+
+    /**
+     * Returns client with given id or null if no such client
+     * @param clientID id of target client
+     * @return client with given id or null if no such client
+     */
+    public Client findClient(@NonNull UUID clientID) {
+        return clientsById.get(clientID);
     }
 
     @Override
@@ -191,16 +479,16 @@ public class Bank {
      * Return unmodifiable list of all tariff stats
      * @return unmodifiable list of all tariff stats
      */
-    public List<TariffStats> getTariffStats() {
+    public synchronized List<TariffStats> getTariffStats() {
         return Collections.unmodifiableList(tariffs.stream().collect(ArrayList::new, (list, item) -> list.add(item.getTariffStats()), ArrayList::addAll));
     }
 
     /**
-     * Return unmodifiable list of all clients
-     * @return unmodifiable list of all clients
+     * Return unmodifiable copy of list of all clients
+     * @return unmodifiable copy of list of all clients
      */
-    public List<Client> getClients() {
-        return Collections.unmodifiableList(clients);
+    public synchronized List<Client> getClients() {
+        return List.copyOf(clients);
     }
 
     private boolean isClientDoubtful(Client client) {
@@ -208,11 +496,11 @@ public class Bank {
     }
 
     private Tariff getTariffByID(@NonNull UUID id) throws BankException {
-        Optional<Tariff> tariff = tariffs.stream().filter(current -> current.getTariffStats().id().equals(id)).findFirst();
-        if (tariff.isEmpty()) {
+        Tariff tariff = tariffsById.get(id);
+        if (tariff == null) {
             throw BankException.accessToNonExistingObjectById(Tariff.class.getTypeName());
         }
 
-        return tariff.get();
+        return tariff;
     }
 }
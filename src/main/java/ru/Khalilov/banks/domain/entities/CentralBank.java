@@ -3,33 +3,188 @@ package ru.Khalilov.banks.domain.entities;
 import lombok.Getter;
 import lombok.NonNull;
 import ru.Khalilov.banks.domain.exceptions.CentralBankException;
+import ru.Khalilov.banks.domain.exceptions.GeneralBankException;
+import ru.Khalilov.banks.domain.exceptions.JournalException;
+import ru.Khalilov.banks.domain.journal.CentralBankSnapshot;
+import ru.Khalilov.banks.domain.journal.Journal;
+import ru.Khalilov.banks.domain.journal.JournalPosition;
+import ru.Khalilov.banks.domain.journal.JournalRecord;
+import ru.Khalilov.banks.domain.journal.NoJournal;
+import ru.Khalilov.banks.domain.journal.SnapshotFile;
+import ru.Khalilov.banks.domain.models.AccountHistoryEntry;
 import ru.Khalilov.banks.domain.models.AccountId;
+import ru.Khalilov.banks.domain.models.AccountLocation;
+import ru.Khalilov.banks.domain.models.AccrualMode;
+import ru.Khalilov.banks.domain.models.BatchAtomicity;
 import ru.Khalilov.banks.domain.models.BankId;
+import ru.Khalilov.banks.domain.models.Money;
+import ru.Khalilov.banks.domain.models.PostingRequest;
+import ru.Khalilov.banks.domain.models.PostingResult;
 import ru.Khalilov.banks.domain.models.TransactionEntity;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+/**
+ * Entry point for all postings. Postings can be made from many threads at once: every posting holds locks of accounts
+ * it touches, and transfers acquire them in {@link AccountId} order, so they never deadlock.
+ * Sums are passed in minor units (see {@link Money}); methods accepting {@link BigDecimal} only convert sum and delegate.
+ * If central bank is constructed with {@link Journal}, every change is appended to it while accounts are still locked,
+ * so journal order matches order of changes of every account, and call returns after record is durable. Clock forwarding
+ * is journaled too and is expected not to run concurrently with postings.
+ * Restart doesn't have to replay the whole journal: {@link #writeSnapshot(Path)} stores state of central bank together
+ * with journal position, and {@link #recover(CentralBankSnapshot, Journal, Function)} replays only records after it.
+ */
 public class CentralBank {
     @NonNull
     private final List<Bank> banks;
     @NonNull
+    private final Map<BankId, Bank> banksById;
+    @NonNull
     private  final List<Transaction> transactions;
+    @NonNull
+    private final Map<UUID, Transaction> transactionsById;
     @NonNull @Getter
     private final Clock clock;
     @NonNull @Getter
     private final UUID centralBankId;
+    @NonNull
+    private volatile Journal journal;
+    @NonNull
+    private final ClockSubscriber clockRecorder;
+    @NonNull @Getter
+    private volatile AccrualMode accrualMode;
+    @NonNull @Getter
+    private volatile IdGenerator idGenerator;
+    @NonNull @Getter
+    private volatile NotificationDispatcher notificationDispatcher;
+    @NonNull
+    private final Map<BankId, Long> reflectedBankSequences;
+    @NonNull
+    private final Map<AccountId, Long> reflectedAccountSequences;
 
     /**
-     * Constructs central bank with given {@link Clock} and id. There are no banks and transactions.
+     * Constructs central bank with given {@link Clock} and id. There are no banks and transactions. Changes aren't journaled
      * @param clock - clock to set
      * @param centralBankId - id to set
      */
     public CentralBank(@NonNull Clock clock, @NonNull UUID centralBankId) {
         this.clock = clock;
         this.centralBankId = centralBankId;
-        banks = new ArrayList<>();
+        banks = new CopyOnWriteArrayList<>();
+        banksById = new ConcurrentHashMap<>();
         transactions = new ArrayList<>();
+        transactionsById = new ConcurrentHashMap<>();
+        journal = NoJournal.INSTANCE;
+        clockRecorder = this::recordClockForward;
+        accrualMode = AccrualMode.EAGER;
+        idGenerator = IdGenerator.timeOrdered();
+        notificationDispatcher = NotificationDispatcher.direct();
+        reflectedBankSequences = new HashMap<>();
+        reflectedAccountSequences = new HashMap<>();
+    }
+
+    /**
+     * Constructs central bank with given {@link Clock} and id, which commits all changes to given journal
+     * @param clock - clock to set
+     * @param centralBankId - id to set
+     * @param journal - empty journal
+     * @throws JournalException - if journal isn't empty or first record can't be committed
+     */
+    public CentralBank(@NonNull Clock clock, @NonNull UUID centralBankId, @NonNull Journal journal) throws JournalException {
+        this(clock, centralBankId);
+        if (!journal.isEmpty()) {
+            throw JournalException.notEmpty();
+        }
+
+        journal.commit(new JournalRecord.CentralBankStarted(centralBankId, clock.getDateTime()));
+        startJournaling(journal);
+    }
+
+    /**
+     * Rebuilds central bank by replaying all records of given journal. Further changes are committed to the same journal
+     * @param journal - journal to replay
+     * @param clockFactory - creates clock set to given time, when central bank was started
+     * @return restored central bank
+     * @throws JournalException - if journal is empty or its records can't be applied
+     */
+    public static @NonNull CentralBank recover(@NonNull Journal journal, @NonNull Function<LocalDateTime, Clock> clockFactory) throws JournalException {
+        if (journal.isEmpty()) {
+            throw JournalException.empty();
+        }
+
+        Recovery recovery = new Recovery(clockFactory);
+        journal.replay(recovery);
+        recovery.centralBank.startJournaling(journal);
+        return recovery.centralBank;
+    }
+
+    /**
+     * Rebuilds central bank from snapshot and journal records appended after it. Only records after position of
+     * snapshot are read. Further changes are committed to the same journal
+     * @param snapshot - snapshot taken from the central bank, which used given journal
+     * @param journal - journal to replay
+     * @param clockFactory - creates clock set to given time, when snapshot was taken
+     * @return restored central bank
+     * @throws JournalException - if snapshot doesn't match journal or records can't be applied
+     */
+    public static @NonNull CentralBank recover(@NonNull CentralBankSnapshot snapshot, @NonNull Journal journal, @NonNull Function<LocalDateTime, Clock> clockFactory) throws JournalException {
+        CentralBank result = new CentralBank(clockFactory.apply(snapshot.dateTime()), snapshot.centralBankId());
+        result.restore(snapshot);
+        long[] sequence = {snapshot.journalPosition().sequence()};
+        journal.replay(snapshot.journalPosition(), record -> result.apply(record, ++sequence[0]));
+        result.reflectedBankSequences.clear();
+        result.reflectedAccountSequences.clear();
+        result.startJournaling(journal);
+        return result;
+    }
+
+    /**
+     * Copies state of central bank. Creation of banks waits for copying, while banks are copied one by one (see
+     * {@link Bank#snapshot()}) and every account is locked only for the time of copying its own state. Each copy records
+     * position of journal it matches, so postings go on during copying and later are replayed only where they are missed.
+     * Transactions which were active at position of snapshot are copied last: every transaction journaled before that
+     * position holds locks of its accounts until it is listed, so copying of accounts waits for it
+     * @return copy of state of central bank
+     */
+    public synchronized @NonNull CentralBankSnapshot snapshot() {
+        JournalPosition position = journal.position();
+        LocalDateTime dateTime = clock.getDateTime();
+        List<CentralBankSnapshot.BankState> bankStates = new ArrayList<>(banks.size());
+        for (Bank bank : banks) {
+            bankStates.add(bank.snapshot());
+        }
+
+        List<CentralBankSnapshot.TransactionState> transactionStates = new ArrayList<>();
+        synchronized (transactions) {
+            for (Transaction transaction : transactions) {
+                if (transaction.isActiveAt(position.sequence())) {
+                    transactionStates.add(new CentralBankSnapshot.TransactionState(transaction.getId(), legsOf(transaction)));
+                }
+            }
+        }
+
+        return new CentralBankSnapshot(centralBankId, dateTime, position, bankStates, transactionStates);
+    }
+
+    /**
+     * Takes snapshot and writes it to given file. Journal records included into snapshot are made durable first, so
+     * snapshot never contains changes that journal may lose
+     * @param path - path to snapshot file
+     * @throws JournalException - if snapshot can't be written
+     */
+    public void writeSnapshot(@NonNull Path path) throws JournalException {
+        CentralBankSnapshot snapshot = snapshot();
+        // accounts copied last may reflect records appended after position of snapshot
+        journal.awaitDurable(journal.position().sequence());
+        SnapshotFile.write(path, snapshot);
     }
 
     /**
@@ -39,6 +194,16 @@ public class CentralBank {
      * @return UUID of this transaction
      */
     public @NonNull UUID addMoney(@NonNull AccountId accountId, @NonNull BigDecimal sum) {
+        return addMoney(accountId, Money.toMinorUnits(sum));
+    }
+
+    /**
+     * Add money to the account. Sum must be positive
+     * @param accountId target account id
+     * @param sum sum of transaction in minor units. Must be positive
+     * @return UUID of this transaction
+     */
+    public @NonNull UUID addMoney(@NonNull AccountId accountId, long sum) {
         return oneAccountTransaction(accountId, validateTransactionSum(sum));
     }
 
@@ -49,58 +214,225 @@ public class CentralBank {
      * @return UUID of this transaction
      */
     public @NonNull UUID withdrawMoney(@NonNull AccountId accountId, @NonNull BigDecimal sum) {
-        return oneAccountTransaction(accountId, validateTransactionSum(sum).negate());
+        return withdrawMoney(accountId, Money.toMinorUnits(sum));
+    }
+
+    /**
+     * Withdraw money from the account. Sum must be positive
+     * @param accountId target account id
+     * @param sum sum of the transaction in minor units. Must be positive
+     * @return UUID of this transaction
+     */
+    public @NonNull UUID withdrawMoney(@NonNull AccountId accountId, long sum) {
+        return oneAccountTransaction(accountId, -validateTransactionSum(sum));
     }
 
     /**
-     * Transfers money from one account to another. Sum must be positive. If money can't be withdrawn from source account, nothing changes
+     * Transfers money from one account to another. Sum must be positive. If money can't be withdrawn from source account
+     * or can't be added to target account, nothing changes
      * @param accountFromId source account id
      * @param accountToId target account id
      * @param sum sum of transfer
      * @return UUID of transaction
      */
-    public @NonNull UUID transferMoney(@NonNull AccountId accountFromId, @NonNull AccountId accountToId, BigDecimal sum) {
+    public @NonNull UUID transferMoney(@NonNull AccountId accountFromId, @NonNull AccountId accountToId, @NonNull BigDecimal sum) {
+        return transferMoney(accountFromId, accountToId, Money.toMinorUnits(sum));
+    }
+
+    /**
+     * Transfers money from one account to another. Sum must be positive. If money can't be withdrawn from source account
+     * or can't be added to target account, nothing changes
+     * @param accountFromId source account id
+     * @param accountToId target account id
+     * @param sum sum of transfer in minor units
+     * @return UUID of transaction
+     */
+    public @NonNull UUID transferMoney(@NonNull AccountId accountFromId, @NonNull AccountId accountToId, long sum) {
         validateTransactionSum(sum);
 
+        Account accountFrom = findAccount(accountFromId);
         Account accountTo = findAccount(accountToId);
 
-        if (accountTo == null) {
+        if (accountFrom == null || accountTo == null) {
             throw CentralBankException.noSuchAccount();
         }
 
-        UUID transactionId = UUID.randomUUID();
+        UUID transactionId = idGenerator.nextId();
+        long sequence;
+
+        List<Account> locked = lockInOrder(List.of(accountFrom, accountTo));
+        try {
+            TransactionEntity withdrawal = changeBalanceBy(accountFromId, -sum, transactionId);
+            TransactionEntity deposit;
+            try {
+                deposit = changeBalanceBy(accountToId, sum, transactionId);
+            }
+            catch (RuntimeException e) {
+                accountFrom.rollbackTransaction(withdrawal.transactionEntityId());
+                throw e;
+            }
 
-        List<TransactionEntity> entities = List.of(
-                changeBalanceBy(accountFromId, sum.negate()),
-                changeBalanceBy(accountToId, sum)
-        );
+            Transaction transaction = new Transaction(List.of(withdrawal, deposit), transactionId);
+            sequence = appendTransaction(transaction);
+            addTransaction(transaction);
+        }
+        finally {
+            unlock(locked);
+        }
 
-        transactions.add(new Transaction(entities, transactionId));
+        journal.awaitDurable(sequence);
         return transactionId;
     }
 
     /**
-     * Cancel transaction if it is present
+     * Commits batch of postings in given order. Every account of batch is looked up once and locked once for the whole
+     * batch, and method waits for durability only once. In {@link BatchAtomicity#ALL_OR_NOTHING} mode the whole batch is
+     * journaled as one record, otherwise every committed posting is journaled as separate transaction
+     * @param requests postings to commit
+     * @param atomicity what to do with postings that can't be committed
+     * @return results in order of requests. In {@link BatchAtomicity#ALL_OR_NOTHING} mode every result is accepted
+     * @throws GeneralBankException in {@link BatchAtomicity#ALL_OR_NOTHING} mode, error of the first posting that can't be
+     * committed. Nothing is changed in this case
+     */
+    public @NonNull List<PostingResult> postBatch(@NonNull List<PostingRequest> requests, @NonNull BatchAtomicity atomicity) {
+        boolean allOrNothing = atomicity == BatchAtomicity.ALL_OR_NOTHING;
+        PostingResult[] results = new PostingResult[requests.size()];
+        Map<AccountId, AccountLocation> locations = new HashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                validateTransactionSum(requests.get(i).sum());
+                resolveLocation(locations, requests.get(i).sourceAccountId());
+                resolveLocation(locations, requests.get(i).targetAccountId());
+            }
+            catch (GeneralBankException e) {
+                if (allOrNothing) {
+                    throw e;
+                }
+                results[i] = PostingResult.rejected(e.getMessage());
+            }
+        }
+
+        long sequence = 0;
+        List<Transaction> committed = new ArrayList<>();
+        List<Account> locked = lockInOrder(locations.values().stream().map(AccountLocation::account).toList());
+        try {
+            for (int i = 0; i < requests.size(); i++) {
+                if (results[i] != null) {
+                    continue;
+                }
+
+                Transaction transaction;
+                try {
+                    transaction = post(requests.get(i), locations);
+                }
+                catch (GeneralBankException e) {
+                    if (allOrNothing) {
+                        cancelInReverseOrder(committed);
+                        throw e;
+                    }
+                    results[i] = PostingResult.rejected(e.getMessage());
+                    continue;
+                }
+
+                if (allOrNothing) {
+                    committed.add(transaction);
+                }
+                else {
+                    sequence = appendTransaction(transaction);
+                    addTransaction(transaction);
+                }
+                results[i] = PostingResult.accepted(transaction.getId());
+            }
+
+            if (!committed.isEmpty()) {
+                sequence = appendBatch(committed);
+                committed.forEach(this::addTransaction);
+            }
+        }
+        finally {
+            unlock(locked);
+        }
+
+        journal.awaitDurable(sequence);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Cancel transaction if it is present. Cancellation is journaled before it is applied, so failed journal leaves
+     * transaction intact
      * @param transactionId id of transaction to cancel
      */
     public void cancelTransaction(@NonNull UUID transactionId) {
-        Optional<Transaction> optionalTransaction = transactions.stream().filter(t -> t.getId().equals(transactionId)).findFirst();
+        Transaction transaction = transactionsById.get(transactionId);
 
-        if (transactions.isEmpty()) {
+        if (transaction == null) {
             throw CentralBankException.noSuchTransaction();
         }
 
-        optionalTransaction.get().cancel();
+        long sequence;
+        List<Account> locked = lockInOrder(transaction.getEntities().stream().map(TransactionEntity::account).toList());
+        try {
+            // journaled first: cancellation which failed to reach journal mustn't be visible in memory
+            transaction.validateCancellation();
+            sequence = journal.append(new JournalRecord.TransactionCancelled(transactionId));
+            transaction.cancel();
+            transaction.setCancellationSequence(sequence);
+        }
+        finally {
+            unlock(locked);
+        }
+
+        journal.awaitDurable(sequence);
     }
 
-    public @NonNull Bank createBank(BigDecimal transactionLimitForDoubtfulClients) {
+    /**
+     * Sets mode of interest accrual for all banks, including banks created later. Mode doesn't change results of accrual,
+     * only the moment it is calculated, so it isn't journaled
+     * @param accrualMode mode to set
+     */
+    public synchronized void setAccrualMode(@NonNull AccrualMode accrualMode) {
+        this.accrualMode = accrualMode;
+        banks.forEach(bank -> bank.setAccrualMode(accrualMode));
+    }
+
+    /**
+     * Sets source of ids for this central bank and all its banks, including banks created later. By default ids are
+     * generated by {@link IdGenerator#timeOrdered()}
+     * @param idGenerator generator to use
+     */
+    public synchronized void setIdGenerator(@NonNull IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+        banks.forEach(bank -> bank.setIdGenerator(idGenerator));
+    }
+
+    /**
+     * Sets dispatcher delivering notifications of tariff changes for all banks, including banks created later. By default
+     * notifications are delivered synchronously by {@link NotificationDispatcher#direct()}
+     * @param notificationDispatcher dispatcher to use
+     */
+    public synchronized void setNotificationDispatcher(@NonNull NotificationDispatcher notificationDispatcher) {
+        this.notificationDispatcher = notificationDispatcher;
+        banks.forEach(bank -> bank.setNotificationDispatcher(notificationDispatcher));
+    }
+
+    /**
+     * Brings interest of all accounts of all banks up to date. Meant to be run periodically in lazy mode
+     * @see Bank#settleAccounts()
+     */
+    public void settleAccounts() {
+        banks.forEach(Bank::settleAccounts);
+    }
+
+    public synchronized @NonNull Bank createBank(BigDecimal transactionLimitForDoubtfulClients) {
         if (transactionLimitForDoubtfulClients.compareTo(BigDecimal.ZERO) < 0)
         {
             throw CentralBankException.NotPositiveTransactionLimit();
         }
 
-        var result = new Bank(clock, new BankId(UUID.randomUUID()), transactionLimitForDoubtfulClients);
-        banks.add(result);
+        var result = new Bank(clock, new BankId(idGenerator.nextId()), transactionLimitForDoubtfulClients, journal);
+        journal.commit(new JournalRecord.BankCreated(result.getBankID(), Money.toMinorUnits(transactionLimitForDoubtfulClients)));
+        addBank(result);
         return result;
     }
 
@@ -113,15 +445,73 @@ public class CentralBank {
     }
 
     /**
-     * Return unmodifiable list of transactions
-     * @return unmodifiable list of transactions
+     * Returns bank with given id or null if no such bank
+     * @param bankId id of target bank
+     * @return bank with given id or null if no such bank
+     */
+    public Bank findBank(@NonNull BankId bankId) {
+        return banksById.get(bankId);
+    }
+
+    /**
+     * Return unmodifiable copy of list of transactions in order they were committed
+     * @return unmodifiable copy of list of transactions
      */
     public List<Transaction> getTransactions() {
-        return Collections.unmodifiableList(transactions);
+        synchronized (transactions) {
+            return List.copyOf(transactions);
+        }
     }
 
-    private TransactionEntity changeBalanceBy(@NonNull AccountId accountId, @NonNull BigDecimal sum) {
-        return getBankOfAccount(accountId).addTransactionSum(accountId, sum);
+    /**
+     * Returns page of transactions in order they were committed. Takes time proportional to size of page
+     * @param offset amount of transactions to skip
+     * @param limit maximal amount of transactions to return
+     * @return unmodifiable copy of page of transactions
+     * @throws CentralBankException if offset or limit is negative
+     */
+    public @NonNull List<Transaction> getTransactions(int offset, int limit) throws CentralBankException {
+        if (offset < 0 || limit < 0) {
+            throw CentralBankException.invalidTransactionsPage(offset, limit);
+        }
+
+        synchronized (transactions) {
+            int from = Math.min(offset, transactions.size());
+            return List.copyOf(transactions.subList(from, (int) Math.min(transactions.size(), (long) from + limit)));
+        }
+    }
+
+    /**
+     * Returns changes of balance of account made by transactions in given period, in order of time
+     * @param accountId id of target account
+     * @param from start of period, inclusive
+     * @param to end of period, inclusive
+     * @return changes of balance in given period
+     */
+    public @NonNull List<AccountHistoryEntry> history(@NonNull AccountId accountId, @NonNull LocalDateTime from, @NonNull LocalDateTime to) {
+        return history(accountId, from, to, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns page of changes of balance of account made by transactions in given period, in order of time
+     * @param accountId id of target account
+     * @param from start of period, inclusive
+     * @param to end of period, inclusive
+     * @param offset amount of changes of period to skip
+     * @param limit maximal amount of changes to return
+     * @return changes of balance in given period
+     */
+    public @NonNull List<AccountHistoryEntry> history(@NonNull AccountId accountId, @NonNull LocalDateTime from, @NonNull LocalDateTime to, int offset, int limit) {
+        Account account = findAccount(accountId);
+        if (account == null) {
+            throw CentralBankException.noSuchAccount();
+        }
+
+        return account.getHistory(from, to, offset, limit);
+    }
+
+    private TransactionEntity changeBalanceBy(@NonNull AccountId accountId, long sum, @NonNull UUID transactionId) {
+        return getBankOfAccount(accountId).addTransactionSum(accountId, sum, transactionId);
     }
 
     private Account findAccount(@NonNull AccountId accountId) {
@@ -129,21 +519,357 @@ public class CentralBank {
     }
 
     private Bank getBankOfAccount(@NonNull AccountId accountId) {
-        return banks.stream().filter(bank -> bank.getBankID().equals(accountId.bankId())).findFirst().get();
+        Bank bank = banksById.get(accountId.bankId());
+        if (bank == null) {
+            throw CentralBankException.noSuchAccount();
+        }
+
+        return bank;
     }
 
-    private @NonNull BigDecimal validateTransactionSum(@NonNull BigDecimal sum) {
-        if (sum.compareTo(BigDecimal.ZERO) < 0) {
+    private void resolveLocation(@NonNull Map<AccountId, AccountLocation> locations, AccountId accountId) {
+        if (accountId == null || locations.containsKey(accountId)) {
+            return;
+        }
+
+        AccountLocation location = getBankOfAccount(accountId).locateAccount(accountId);
+        if (location == null) {
+            throw CentralBankException.noSuchAccount();
+        }
+        locations.put(accountId, location);
+    }
+
+    /**
+     * Applies legs of posting to already locked accounts. If some leg fails, previous legs are canceled
+     * @param request posting to apply
+     * @param locations locations of accounts of posting
+     * @return applied transaction, not journaled yet
+     */
+    private Transaction post(@NonNull PostingRequest request, @NonNull Map<AccountId, AccountLocation> locations) {
+        UUID transactionId = idGenerator.nextId();
+        List<TransactionEntity> entities = new ArrayList<>(2);
+        try {
+            if (request.sourceAccountId() != null) {
+                AccountLocation source = locations.get(request.sourceAccountId());
+                entities.add(source.bank().addTransactionSum(source, -request.sum(), transactionId));
+            }
+            if (request.targetAccountId() != null) {
+                AccountLocation target = locations.get(request.targetAccountId());
+                entities.add(target.bank().addTransactionSum(target, request.sum(), transactionId));
+            }
+        }
+        catch (RuntimeException e) {
+            cancelEntities(entities);
+            throw e;
+        }
+
+        return new Transaction(entities, transactionId);
+    }
+
+    /**
+     * Cancels entities of given applied but not journaled transactions, from the last one to the first one
+     * @param transactions transactions to cancel
+     */
+    private void cancelInReverseOrder(@NonNull List<Transaction> transactions) {
+        for (int i = transactions.size() - 1; i >= 0; i--) {
+            cancelEntities(transactions.get(i).getEntities());
+        }
+    }
+
+    /**
+     * Cancels given entities of not journaled transaction, from the last one to the first one
+     * @param entities entities to cancel
+     */
+    private void cancelEntities(@NonNull List<TransactionEntity> entities) {
+        for (int i = entities.size() - 1; i >= 0; i--) {
+            entities.get(i).account().rollbackTransaction(entities.get(i).transactionEntityId());
+        }
+    }
+
+    private long validateTransactionSum(long sum) {
+        if (sum < 0) {
             throw CentralBankException.notPositiveTransactionSum();
         }
 
         return sum;
     }
 
-    private @NonNull UUID oneAccountTransaction(@NonNull AccountId accountId, @NonNull BigDecimal sum) {
-        UUID transactionId = UUID.randomUUID();
-        TransactionEntity entity = changeBalanceBy(accountId, sum);
-        transactions.add(new Transaction(List.of(entity), transactionId));
+    private @NonNull UUID oneAccountTransaction(@NonNull AccountId accountId, long sum) {
+        Account account = findAccount(accountId);
+        if (account == null) {
+            throw CentralBankException.noSuchAccount();
+        }
+
+        UUID transactionId = idGenerator.nextId();
+        long sequence;
+
+        List<Account> locked = lockInOrder(List.of(account));
+        try {
+            TransactionEntity entity = changeBalanceBy(accountId, sum, transactionId);
+            Transaction transaction = new Transaction(List.of(entity), transactionId);
+            sequence = appendTransaction(transaction);
+            addTransaction(transaction);
+        }
+        finally {
+            unlock(locked);
+        }
+
+        journal.awaitDurable(sequence);
         return transactionId;
     }
+
+    /**
+     * Appends committed transaction to journal. If it can't be appended, its entities are canceled, so state in memory
+     * doesn't differ from journal. Must be called while locks of all accounts of transaction are held
+     * @param transaction committed transaction
+     * @return sequence number of appended record
+     */
+    private long appendTransaction(@NonNull Transaction transaction) {
+        long sequence;
+        try {
+            sequence = journal.append(new JournalRecord.TransactionCommitted(transaction.getId(), legsOf(transaction)));
+        }
+        catch (RuntimeException e) {
+            cancelEntities(transaction.getEntities());
+            throw e;
+        }
+
+        transaction.setJournalSequence(sequence);
+        return sequence;
+    }
+
+    /**
+     * Appends transactions of batch to journal as one record. If it can't be appended, entities of all transactions are
+     * canceled, so state in memory doesn't differ from journal. Must be called while locks of all accounts of batch are held
+     * @param transactions committed transactions in order they were applied
+     * @return sequence number of appended record
+     */
+    private long appendBatch(@NonNull List<Transaction> transactions) {
+        List<JournalRecord.TransactionCommitted> records = transactions.stream()
+                .map(transaction -> new JournalRecord.TransactionCommitted(transaction.getId(), legsOf(transaction)))
+                .toList();
+        long sequence;
+        try {
+            sequence = journal.append(new JournalRecord.BatchCommitted(records));
+        }
+        catch (RuntimeException e) {
+            cancelInReverseOrder(transactions);
+            throw e;
+        }
+
+        transactions.forEach(transaction -> transaction.setJournalSequence(sequence));
+        return sequence;
+    }
+
+    private static List<JournalRecord.Leg> legsOf(@NonNull Transaction transaction) {
+        return transaction.getEntities().stream()
+                .map(entity -> new JournalRecord.Leg(entity.account().getAccountID(), entity.sum(), entity.transactionEntityId()))
+                .toList();
+    }
+
+    /**
+     * Restores banks and transactions from snapshot, remembering journal sequences reflected by their states. Journal
+     * isn't set yet, so nothing is journaled
+     * @param snapshot snapshot to restore from
+     */
+    private void restore(@NonNull CentralBankSnapshot snapshot) {
+        for (CentralBankSnapshot.BankState bankState : snapshot.banks()) {
+            Bank bank = new Bank(clock, bankState.bankId(), Money.toBigDecimal(bankState.transactionLimitForDoubtfulClients()));
+            addBank(bank);
+            bankState.tariffs().forEach(bank::addTariff);
+            for (CentralBankSnapshot.ClientState clientState : bankState.clients()) {
+                bank.restoreClient(clientState.clientId(), clientState.clientInformation());
+                for (CentralBankSnapshot.AccountState accountState : clientState.accounts()) {
+                    bank.restoreAccount(clientState.clientId(), accountState);
+                    reflectedAccountSequences.put(accountState.accountId(), accountState.journalSequence());
+                }
+            }
+            reflectedBankSequences.put(bankState.bankId(), bankState.journalSequence());
+        }
+
+        for (CentralBankSnapshot.TransactionState transactionState : snapshot.activeTransactions()) {
+            List<TransactionEntity> entities = transactionState.legs().stream()
+                    .map(leg -> new TransactionEntity(requireAccount(leg.accountId()), leg.sum(), leg.transactionEntityId()))
+                    .toList();
+            Transaction transaction = new Transaction(entities, transactionState.transactionId());
+            transaction.setJournalSequence(snapshot.journalPosition().sequence());
+            addTransaction(transaction);
+        }
+    }
+
+    private void addTransaction(@NonNull Transaction transaction) {
+        transactionsById.put(transaction.getId(), transaction);
+        synchronized (transactions) {
+            transactions.add(transaction);
+        }
+    }
+
+    private void addBank(@NonNull Bank bank) {
+        bank.setAccrualMode(accrualMode);
+        bank.setIdGenerator(idGenerator);
+        bank.setNotificationDispatcher(notificationDispatcher);
+        banksById.put(bank.getBankID(), bank);
+        banks.add(bank);
+    }
+
+    private void startJournaling(@NonNull Journal journal) {
+        this.journal = journal;
+        banks.forEach(bank -> bank.setJournal(journal));
+        clock.subscribe(clockRecorder);
+    }
+
+    private void recordClockForward() {
+        journal.commit(new JournalRecord.ClockForwarded(clock.getDateTime()));
+    }
+
+    /**
+     * Applies journal record to this central bank. Banks and accounts whose restored state already reflects the record
+     * are skipped. Journal isn't set yet, so nothing is journaled again
+     * @param record record to apply
+     * @param sequence sequence of the record in journal
+     * @throws JournalException if record refers to unknown entities
+     */
+    private void apply(@NonNull JournalRecord record, long sequence) throws JournalException {
+        if (record instanceof JournalRecord.BankCreated created) {
+            addBank(new Bank(clock, created.bankId(), Money.toBigDecimal(created.transactionLimitForDoubtfulClients())));
+        }
+        else if (record instanceof JournalRecord.TransactionLimitChanged changed) {
+            if (!isReflected(reflectedBankSequences, changed.bankId(), sequence)) {
+                requireBank(changed.bankId()).restoreTransactionLimitForDoubtfulClients(changed.transactionLimitForDoubtfulClients());
+            }
+        }
+        else if (record instanceof JournalRecord.TariffAdded added) {
+            if (!isReflected(reflectedBankSequences, added.bankId(), sequence)) {
+                requireBank(added.bankId()).addTariff(added.tariffStats());
+            }
+        }
+        else if (record instanceof JournalRecord.TariffChanged changed) {
+            if (!isReflected(reflectedBankSequences, changed.bankId(), sequence)) {
+                requireBank(changed.bankId()).changeTariff(changed.tariffId(), changed.tariffStats());
+            }
+        }
+        else if (record instanceof JournalRecord.ClientAdded added) {
+            if (!isReflected(reflectedBankSequences, added.bankId(), sequence)) {
+                requireBank(added.bankId()).restoreClient(added.clientId(), added.clientInformation());
+            }
+        }
+        else if (record instanceof JournalRecord.ClientChanged changed) {
+            if (!isReflected(reflectedBankSequences, changed.bankId(), sequence)) {
+                requireBank(changed.bankId()).changeClientInformation(changed.clientId(), changed.clientInformation());
+            }
+        }
+        else if (record instanceof JournalRecord.AccountCreated created) {
+            if (!isReflected(reflectedBankSequences, created.accountId().bankId(), sequence)) {
+                requireBank(created.accountId().bankId()).restoreAccount(created.accountId(), created.clientId(), created.tariffId());
+            }
+        }
+        else if (record instanceof JournalRecord.TransactionCommitted committed) {
+            applyCommitted(committed, sequence);
+        }
+        else if (record instanceof JournalRecord.BatchCommitted batch) {
+            for (JournalRecord.TransactionCommitted committed : batch.transactions()) {
+                applyCommitted(committed, sequence);
+            }
+        }
+        else if (record instanceof JournalRecord.TransactionCancelled cancelled) {
+            Transaction transaction = transactionsById.get(cancelled.transactionId());
+            if (transaction == null) {
+                throw JournalException.corrupted("record refers to unknown transaction " + cancelled.transactionId());
+            }
+            for (TransactionEntity entity : transaction.getEntities()) {
+                if (!isReflected(reflectedAccountSequences, entity.account().getAccountID(), sequence)) {
+                    entity.account().cancelTransaction(entity.transactionEntityId(), entity.sum(), transaction.getId());
+                }
+            }
+            transaction.setCancellationSequence(sequence);
+        }
+        else if (record instanceof JournalRecord.ClockForwarded forwarded) {
+            clock.forward(Duration.between(clock.getDateTime(), forwarded.dateTime()));
+        }
+        else {
+            throw JournalException.corrupted("unexpected record " + record);
+        }
+    }
+
+    private void applyCommitted(@NonNull JournalRecord.TransactionCommitted committed, long sequence) throws JournalException {
+        List<TransactionEntity> entities = new ArrayList<>();
+        for (JournalRecord.Leg leg : committed.legs()) {
+            Account account = requireAccount(leg.accountId());
+            entities.add(isReflected(reflectedAccountSequences, leg.accountId(), sequence)
+                    ? new TransactionEntity(account, leg.sum(), leg.transactionEntityId())
+                    : account.addTransactionSum(leg.sum(), leg.transactionEntityId(), committed.transactionId()));
+        }
+        Transaction transaction = new Transaction(entities, committed.transactionId());
+        transaction.setJournalSequence(sequence);
+        addTransaction(transaction);
+    }
+
+    private static <K> boolean isReflected(@NonNull Map<K, Long> reflectedSequences, @NonNull K id, long sequence) {
+        return reflectedSequences.getOrDefault(id, 0L) >= sequence;
+    }
+
+    private Account requireAccount(@NonNull AccountId accountId) throws JournalException {
+        Account account = requireBank(accountId.bankId()).findAccount(accountId);
+        if (account == null) {
+            throw JournalException.corrupted("record refers to unknown account " + accountId);
+        }
+
+        return account;
+    }
+
+    private Bank requireBank(@NonNull BankId bankId) throws JournalException {
+        Bank bank = banksById.get(bankId);
+        if (bank == null) {
+            throw JournalException.corrupted("record refers to unknown bank " + bankId);
+        }
+
+        return bank;
+    }
+
+    /**
+     * Creates central bank from the first journal record and applies the rest to it
+     */
+    private static class Recovery implements Consumer<JournalRecord> {
+        private final Function<LocalDateTime, Clock> clockFactory;
+        private CentralBank centralBank;
+        private long sequence;
+
+        private Recovery(Function<LocalDateTime, Clock> clockFactory) {
+            this.clockFactory = clockFactory;
+        }
+
+        @Override
+        public void accept(JournalRecord record) {
+            sequence++;
+            if (centralBank != null) {
+                centralBank.apply(record, sequence);
+                return;
+            }
+
+            if (!(record instanceof JournalRecord.CentralBankStarted started)) {
+                throw JournalException.corrupted("journal doesn't start with central bank record");
+            }
+            centralBank = new CentralBank(clockFactory.apply(started.dateTime()), started.centralBankId());
+        }
+    }
+
+    /**
+     * Locks given accounts in {@link AccountId} order. Every account is locked once even if it is given several times
+     * @param accounts accounts to lock
+     * @return locked accounts in order they were locked
+     */
+    static List<Account> lockInOrder(@NonNull List<Account> accounts) {
+        List<Account> ordered = accounts.stream()
+                .distinct()
+                .sorted(Comparator.comparing(Account::getAccountID))
+                .toList();
+        ordered.forEach(account -> account.getLock().lock());
+        return ordered;
+    }
+
+    static void unlock(@NonNull List<Account> locked) {
+        for (int i = locked.size() - 1; i >= 0; i--) {
+            locked.get(i).getLock().unlock();
+        }
+    }
 }
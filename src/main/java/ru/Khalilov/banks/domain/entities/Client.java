@@ -9,6 +9,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Entity representing clients. Consist of ID, basic information given through {@link ClientInformation} and list of accounts client has
@@ -17,9 +18,9 @@ import java.util.UUID;
  */
 public class Client {
     @NonNull
-    private List<Account> accounts;
+    private final List<Account> accounts;
     @Getter @Setter @NonNull
-    private ClientInformation clientInformation;
+    private volatile ClientInformation clientInformation;
     @Getter @NonNull
     private UUID id;
 
@@ -27,12 +28,12 @@ public class Client {
      * Constructs Client with full information about him
      * @param id - client's ID
      * @param clientInformation - basic information about client
-     * @param accounts - list of accounts client has
+     * @param accounts - list of accounts client has. It is copied, so later changes of given list don't affect client
      * @see ClientInformation
      * @see Account
      */
     public Client(UUID id, ClientInformation clientInformation, List<Account> accounts) {
-        this.accounts = accounts;
+        this.accounts = new CopyOnWriteArrayList<>(accounts);
         this.clientInformation = clientInformation;
         this.id = id;
     }
@@ -1,6 +1,7 @@
 package ru.Khalilov.banks.domain.entities;
 
 import ru.Khalilov.banks.domain.exceptions.ClockException;
+import ru.Khalilov.banks.domain.models.CalendarView;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -20,7 +21,18 @@ public interface Clock {
      * Return amount of days in current year
      * @return amount of days in current year
      */
-    int getDaysInYear();
+    default int getDaysInYear() {
+        return getCalendarView().daysInYear();
+    }
+
+    /**
+     * Returns calendar view of current month. Implementations should cache it and create new view only when month
+     * changes, so that it can be queried on every accrual
+     * @return calendar view of current month
+     */
+    default CalendarView getCalendarView() {
+        return CalendarView.of(getDateTime().toLocalDate());
+    }
 
     /**
      * Saves subscriber inside. It will be invoked when state will change.
@@ -1,5 +1,7 @@
 package ru.Khalilov.banks.domain.entities;
 
+import java.util.List;
+
 /**
  * Defines methods obligatory for clock subscribers. It is invoked by {@link Clock}
  */
@@ -8,4 +10,14 @@ public interface ClockSubscriber {
      * Updates state after change in {@link Clock}
      */
     void updateThroughTime();
+
+    /**
+     * Returns subscribers to update after change in {@link Clock} instead of this one. Updating all of them must be
+     * equal to {@link #updateThroughTime()}, so clocks notifying subscribers in parallel can spread work of subscriber
+     * that updates many independent objects, like {@link PayoutWheel} of one large bank
+     * @return subscribers to update, only this one by default
+     */
+    default List<? extends ClockSubscriber> expand() {
+        return List.of(this);
+    }
 }
@@ -0,0 +1,24 @@
+package ru.Khalilov.banks.domain.entities;
+
+import java.util.UUID;
+
+/**
+ * Source of ids of banks, clients, accounts, transactions and transaction entities. Implementations must be thread safe
+ * and never return the same id twice
+ */
+@FunctionalInterface
+public interface IdGenerator {
+    /**
+     * Returns new unique id
+     * @return new unique id
+     */
+    UUID nextId();
+
+    /**
+     * Returns generator shared by the whole process, which produces time ordered ids
+     * @return shared {@link TimeOrderedIdGenerator}
+     */
+    static IdGenerator timeOrdered() {
+        return TimeOrderedIdGenerator.SHARED;
+    }
+}
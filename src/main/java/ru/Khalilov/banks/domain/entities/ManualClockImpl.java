@@ -2,19 +2,23 @@ package ru.Khalilov.banks.domain.entities;
 
 import ru.Khalilov.banks.domain.exceptions.ClockException;
 import ru.Khalilov.banks.domain.exceptions.ManualClockException;
+import ru.Khalilov.banks.domain.models.CalendarView;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Calendar;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
- * Clocks that can be forwarded manually for positive duration of time. Implements {@link Clock}
+ * Clocks that can be forwarded manually for positive duration of time. Implements {@link Clock}.
+ * {@link CalendarView} of current month is cached and recreated only when forward crosses month boundary
  */
 public class ManualClockImpl implements Clock{
-    private final List<ClockSubscriber> subscribers;
-    private LocalDateTime dateTime;
+    private final Set<ClockSubscriber> subscribers;
+    private volatile LocalDateTime dateTime;
+    private volatile CalendarView calendarView;
 
     /**
      * Constructs ManualClockImpl with given time
@@ -22,7 +26,8 @@ public class ManualClockImpl implements Clock{
      */
     public ManualClockImpl(LocalDateTime dateTime) {
         this.dateTime = dateTime;
-        subscribers = new ArrayList<>();
+        this.calendarView = CalendarView.of(dateTime.toLocalDate());
+        subscribers = new LinkedHashSet<>();
     }
 
     /**
@@ -35,6 +40,7 @@ public class ManualClockImpl implements Clock{
             throw ManualClockException.NotPositiveDurationToForward();
         }
         dateTime = dateTime.plus(duration);
+        getCalendarView();
         _notify();
     }
 
@@ -44,28 +50,41 @@ public class ManualClockImpl implements Clock{
     }
 
     @Override
-    public int getDaysInYear() {
-        Calendar calendar = Calendar.getInstance();
-        calendar.set(Calendar.YEAR, dateTime.getYear());
+    public CalendarView getCalendarView() {
+        CalendarView view = calendarView;
+        LocalDateTime now = dateTime;
+        if (!view.contains(now)) {
+            view = CalendarView.of(now.toLocalDate());
+            calendarView = view;
+        }
 
-        return calendar.getActualMaximum(Calendar.DAY_OF_YEAR);
+        return view;
     }
 
     @Override
-    public void subscribe(ClockSubscriber subscriber) throws ClockException {
-        if (subscribers.contains(subscriber)) {
+    public synchronized void subscribe(ClockSubscriber subscriber) throws ClockException {
+        if (!subscribers.add(subscriber)) {
             throw ClockException.AlreadySubscribed();
         }
-
-        subscribers.add(subscriber);
     }
 
     @Override
-    public boolean unsubscribe(ClockSubscriber subscriber) {
+    public synchronized boolean unsubscribe(ClockSubscriber subscriber) {
         return subscribers.remove(subscriber);
     }
 
-    private void _notify() {
-        subscribers.forEach(ClockSubscriber::updateThroughTime);
+    /**
+     * Returns copy of subscribers list in order of subscription
+     * @return copy of subscribers list in order of subscription
+     */
+    protected synchronized List<ClockSubscriber> getSubscribers() {
+        return new ArrayList<>(subscribers);
+    }
+
+    /**
+     * Invokes all subscribers one after another in the calling thread
+     */
+    protected void _notify() {
+        getSubscribers().forEach(ClockSubscriber::updateThroughTime);
     }
 }
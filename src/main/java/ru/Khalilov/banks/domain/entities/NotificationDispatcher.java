@@ -0,0 +1,34 @@
+package ru.Khalilov.banks.domain.entities;
+
+import lombok.NonNull;
+import ru.Khalilov.banks.domain.models.Message;
+
+import java.util.List;
+
+/**
+ * Delivers notifications of tariff changes to {@link TariffSubscriber}s. The same message object is delivered to every
+ * subscriber. List of subscribers is only read during the call, so caller may change it afterwards
+ */
+@FunctionalInterface
+public interface NotificationDispatcher {
+    /**
+     * Delivers message to given subscribers. Every subscriber gets messages in order they were dispatched
+     * @param subscribers - subscribers to notify
+     * @param message - message to deliver
+     */
+    void dispatch(@NonNull List<TariffSubscriber> subscribers, @NonNull Message message);
+
+    /**
+     * Waits until all messages dispatched before the call are delivered
+     */
+    default void awaitDelivered() {
+    }
+
+    /**
+     * Returns dispatcher that delivers messages on the caller's thread before returning
+     * @return synchronous dispatcher
+     */
+    static NotificationDispatcher direct() {
+        return (subscribers, message) -> subscribers.forEach(subscriber -> subscriber.receiveMessage(message));
+    }
+}
@@ -0,0 +1,103 @@
+package ru.Khalilov.banks.domain.entities;
+
+import lombok.Getter;
+import lombok.NonNull;
+import ru.Khalilov.banks.domain.exceptions.ManualClockException;
+import ru.Khalilov.banks.domain.models.ClockForwardReport;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Manual clock that notifies subscribers in parallel. Subscribers are expanded first (see {@link ClockSubscriber#expand()}),
+ * so accounts due for payout in one {@link Bank} are spread as well as different banks. Then they are split into batches
+ * which are processed by {@link ForkJoinPool}, and {@link #forward(Duration)} returns only after every batch is finished.
+ * Subscribers must not depend on each other, as accounts do.
+ */
+public class ParallelManualClockImpl extends ManualClockImpl {
+    private static final int BATCHES_PER_THREAD = 4;
+
+    @NonNull
+    private final ForkJoinPool pool;
+    private final int batchSize;
+    @Getter
+    private volatile ClockForwardReport lastForwardReport;
+
+    /**
+     * Constructs clock that uses common {@link ForkJoinPool} and splits subscribers evenly between its threads
+     * @param dateTime - start time
+     */
+    public ParallelManualClockImpl(LocalDateTime dateTime) {
+        this(dateTime, ForkJoinPool.commonPool(), 0);
+    }
+
+    /**
+     * Constructs clock with given pool and batch size
+     * @param dateTime - start time
+     * @param pool - pool that processes batches
+     * @param batchSize - amount of subscribers in one batch. 0 to split subscribers evenly between threads of pool
+     * @throws ManualClockException - if batch size is negative
+     */
+    public ParallelManualClockImpl(LocalDateTime dateTime, @NonNull ForkJoinPool pool, int batchSize) throws ManualClockException {
+        super(dateTime);
+        if (batchSize < 0) {
+            throw ManualClockException.NegativeBatchSize();
+        }
+
+        this.pool = pool;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    protected void _notify() {
+        long start = System.nanoTime();
+        List<ClockSubscriber> subscribers = new ArrayList<>();
+        for (ClockSubscriber subscriber : getSubscribers()) {
+            subscribers.addAll(subscriber.expand());
+        }
+
+        int size = batchSize > 0
+                ? batchSize
+                : Math.max(1, (subscribers.size() + pool.getParallelism() * BATCHES_PER_THREAD - 1) / (pool.getParallelism() * BATCHES_PER_THREAD));
+
+        List<Callable<Duration>> batches = new ArrayList<>();
+        for (int from = 0; from < subscribers.size(); from += size) {
+            List<ClockSubscriber> batch = subscribers.subList(from, Math.min(from + size, subscribers.size()));
+            batches.add(() -> {
+                long batchStart = System.nanoTime();
+                batch.forEach(ClockSubscriber::updateThroughTime);
+                return Duration.ofNanos(System.nanoTime() - batchStart);
+            });
+        }
+
+        List<Duration> batchDurations = new ArrayList<>();
+        for (Future<Duration> future : pool.invokeAll(batches)) {
+            batchDurations.add(await(future));
+        }
+
+        lastForwardReport = new ClockForwardReport(subscribers.size(), List.copyOf(batchDurations), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private Duration await(Future<Duration> future) {
+        try {
+            return future.get();
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+
+            throw new IllegalStateException(e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ru.Khalilov.banks.domain.entities;
+
+import lombok.NonNull;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Schedules monthly payouts of accounts of one bank. Accounts are put into one of 31 slots by their payout day
+ * (see {@link Account#getMonthlyUpdateTime()}), and the wheel is subscribed to {@link Clock} instead of the accounts.
+ * When clock crosses day boundaries, only accounts of slots whose payout day was crossed are updated. On the last day of
+ * month slots of days missing in this month are also due, as such accounts are paid on the last day.
+ * So work done on forward is proportional to accounts that actually pay out, while interest of other accounts is accrued
+ * lazily by {@link Account} itself. Due accounts don't depend on each other, so wheel gives them out by {@link #expand()}
+ * to be updated by {@link ParallelManualClockImpl} in parallel.
+ */
+class PayoutWheel implements ClockSubscriber {
+    private static final int SLOTS = 31;
+
+    @NonNull
+    private final Clock clock;
+    @NonNull
+    private final List<List<Account>> slots;
+    @NonNull
+    private LocalDate processedDate;
+
+    /**
+     * Constructs empty wheel. Days up to current date of clock are considered processed
+     * @param clock - clock of accounts
+     */
+    PayoutWheel(@NonNull Clock clock) {
+        this.clock = clock;
+        this.processedDate = clock.getDateTime().toLocalDate();
+        this.slots = new ArrayList<>(SLOTS);
+        for (int i = 0; i < SLOTS; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Puts account into slot of its payout day
+     * @param account - account to schedule
+     */
+    synchronized void add(@NonNull Account account) {
+        slots.get(account.getMonthlyUpdateTime() - 1).add(account);
+    }
+
+    /**
+     * Marks days up to current date of clock processed without updating accounts. Used when wheel is subscribed to
+     * the clock again, as payouts missed meanwhile are made by sweep of the bank
+     */
+    synchronized void skipProcessedDays() {
+        processedDate = clock.getDateTime().toLocalDate();
+    }
+
+    @Override
+    public void updateThroughTime() {
+        takeDueAccounts().forEach(Account::updateThroughTime);
+    }
+
+    /**
+     * Marks passed days processed and returns accounts whose payout day is among them, so they can be updated in
+     * parallel
+     * @return accounts which must be paid out
+     */
+    @Override
+    public List<Account> expand() {
+        return takeDueAccounts();
+    }
+
+    /**
+     * Marks days up to current date of clock processed and collects accounts whose payout day is among them
+     * @return accounts which must be paid out
+     */
+    private synchronized List<Account> takeDueAccounts() {
+        LocalDate today = clock.getDateTime().toLocalDate();
+        boolean[] due = new boolean[SLOTS];
+        int dueCount = 0;
+
+        for (LocalDate date = processedDate.plusDays(1); !date.isAfter(today) && dueCount < SLOTS; date = date.plusDays(1)) {
+            int lastSlot = date.getDayOfMonth() == date.lengthOfMonth() ? SLOTS : date.getDayOfMonth();
+            for (int day = date.getDayOfMonth(); day <= lastSlot; day++) {
+                if (!due[day - 1]) {
+                    due[day - 1] = true;
+                    dueCount++;
+                }
+            }
+        }
+
+        if (today.isAfter(processedDate)) {
+            processedDate = today;
+        }
+
+        List<Account> dueAccounts = new ArrayList<>();
+        for (int i = 0; i < SLOTS; i++) {
+            if (due[i]) {
+                dueAccounts.addAll(slots.get(i));
+            }
+        }
+
+        return dueAccounts;
+    }
+}
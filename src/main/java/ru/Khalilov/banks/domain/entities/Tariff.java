@@ -2,6 +2,7 @@ package ru.Khalilov.banks.domain.entities;
 
 import lombok.Getter;
 import lombok.NonNull;
+import ru.Khalilov.banks.domain.exceptions.MoneyException;
 import ru.Khalilov.banks.domain.exceptions.TariffException;
 import ru.Khalilov.banks.domain.models.Message;
 import ru.Khalilov.banks.domain.models.TariffStats;
@@ -11,7 +12,8 @@ import java.util.Collections;
 import java.util.List;
 
 /**
- * Tariff contains basic information about itself via {@link TariffStats}, and sends notifications when its stats changes
+ * Tariff contains basic information about itself via {@link TariffStats}, and sends notifications when its stats changes.
+ * Notification is rendered once per change and handed with all subscribers to {@link NotificationDispatcher}
  */
 public class Tariff {
     @NonNull
@@ -19,7 +21,11 @@ public class Tariff {
     @NonNull @Getter
     private Clock clock;
     @NonNull @Getter
-    private TariffStats tariffStats;
+    private volatile TariffStats tariffStats;
+    @NonNull @Getter
+    private volatile TariffEvaluator evaluator;
+    @NonNull
+    private volatile NotificationDispatcher notificationDispatcher;
 
     /**
      * Constructs tariff with given clock and tariff stats
@@ -28,7 +34,9 @@ public class Tariff {
      */
     public Tariff(@NonNull Clock clock, @NonNull TariffStats tariffStats) {
         this.clock = clock;
+        this.evaluator = TariffEvaluator.compile(tariffStats);
         this.tariffStats = tariffStats;
+        this.notificationDispatcher = NotificationDispatcher.direct();
         subscribers = new ArrayList<>();
     }
 
@@ -63,25 +71,54 @@ public class Tariff {
     }
 
     /**
-     * Set new tariff stats to this tariff. Also send messages to all subscribers about changes
+     * Set new tariff stats to this tariff and publish {@link TariffEvaluator} compiled from them. Also send messages to
+     * all subscribers about changes
      * @param tariffStats - new tariff stats
+     * @throws MoneyException - if some amount or rate of stats doesn't fit into minor units. Tariff isn't changed then
      * @see TariffStats
      * @see Message
      */
-    public void setTariffStats(TariffStats tariffStats) {
-        this.tariffStats = tariffStats;
-        notifySubscribers();
+    public void setTariffStats(TariffStats tariffStats) throws MoneyException {
+        publish(TariffEvaluator.compile(tariffStats));
+        notifySubscribers(tariffStats);
+    }
+
+    /**
+     * Publishes stats already compiled into given evaluator without notifying subscribers, so caller can publish them
+     * under its locks and notify subscribers with {@link #notifySubscribers(TariffStats)} after releasing them
+     * @param evaluator - evaluator of new stats
+     */
+    void publish(@NonNull TariffEvaluator evaluator) {
+        this.evaluator = evaluator;
+        this.tariffStats = evaluator.getTariffStats();
     }
 
-    private void notifySubscribers() {
-        subscribers.forEach(subscriber -> subscriber.receiveMessage(generateMessage()));
+    /**
+     * Sets dispatcher delivering notifications of this tariff. By default they are delivered by
+     * {@link NotificationDispatcher#direct()}
+     * @param notificationDispatcher - dispatcher to use
+     */
+    public void setNotificationDispatcher(@NonNull NotificationDispatcher notificationDispatcher) {
+        this.notificationDispatcher = notificationDispatcher;
+    }
+
+    /**
+     * Sends message about change to given stats to all subscribers
+     * @param tariffStats - stats tariff was changed to
+     */
+    void notifySubscribers(@NonNull TariffStats tariffStats) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        notificationDispatcher.dispatch(Collections.unmodifiableList(subscribers), generateMessage(tariffStats));
     }
 
-    private Message generateMessage() {
+    private Message generateMessage(TariffStats tariffStats) {
         StringBuilder stringBuilder = new StringBuilder();
         stringBuilder.append("Dear customer!\n\n")
                 .append("You receive this message because You subscribed to Notifications.\n")
-                .append("Tariff " + tariffStats.name() + " was changed. Actual terms are listed here:\n")
+                .append("Tariff ").append(tariffStats.name()).append(" was changed. Actual terms are listed here:\n")
                 .append(tariffStats.toStringStatsOnly());
         return new Message(stringBuilder.toString(), clock.getDateTime());
     }
@@ -4,13 +4,14 @@ import lombok.Getter;
 import lombok.NonNull;
 import ru.Khalilov.banks.domain.exceptions.TariffException;
 import ru.Khalilov.banks.domain.models.BalanceInterval;
+import ru.Khalilov.banks.domain.models.DepositRateTable;
 import ru.Khalilov.banks.domain.models.TariffStats;
 
 import java.math.BigDecimal;
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
 
 public class TariffBuilder {
@@ -27,7 +28,7 @@ public class TariffBuilder {
     @Getter @NonNull
     private Duration addOnlyPeriod;
     @NonNull
-    private List<BalanceInterval> depositPercentages;
+    private TreeMap<BigDecimal, BalanceInterval> depositPercentages;
 
     /**
      * Initialise all properties with valid empty values (empty string for name and account type, empty list for deposit intervals, 0 for other fields)
@@ -39,7 +40,7 @@ public class TariffBuilder {
         negativeBalanceOperationTax = BigDecimal.ZERO;
         minimalBalance = BigDecimal.ZERO;
         addOnlyPeriod = Duration.ZERO;
-        depositPercentages = new ArrayList<>();
+        depositPercentages = new TreeMap<>();
     }
 
     /**
@@ -53,7 +54,8 @@ public class TariffBuilder {
         negativeBalanceOperationTax = baseTariffStats.negativeBalanceOperationTax();
         minimalBalance = baseTariffStats.minimalBalance();
         addOnlyPeriod = baseTariffStats.addOnlyPeriod();
-        depositPercentages = baseTariffStats.depositPercentages();
+        depositPercentages = new TreeMap<>();
+        baseTariffStats.depositPercentages().forEach(interval -> depositPercentages.put(interval.lowerBound(), interval));
     }
 
     /**
@@ -134,17 +136,20 @@ public class TariffBuilder {
     }
 
     /**
-     * Add given deposit percentage interval to tariff if it is valid
+     * Add given deposit percentage interval to tariff if it is valid. Intervals are kept sorted by lower bound, so only
+     * neighbours of new interval are checked
      * @param interval - new deposit percentage interval
      * @return used TariffBuilder
      * @throws TariffException - if given interval intersects with the existing
      */
     public TariffBuilder withDepositPercentage(BalanceInterval interval) throws TariffException {
-        if (depositPercentages.stream().anyMatch(current -> current.isIntersects(interval))) {
+        Map.Entry<BigDecimal, BalanceInterval> previous = depositPercentages.floorEntry(interval.lowerBound());
+        Map.Entry<BigDecimal, BalanceInterval> next = depositPercentages.ceilingEntry(interval.lowerBound());
+        if ((previous != null && previous.getValue().isIntersects(interval)) || (next != null && next.getValue().isIntersects(interval))) {
             throw TariffException.depositIntervalsIntersects();
         }
 
-        depositPercentages.add(interval);
+        depositPercentages.put(interval.lowerBound(), interval);
         return this;
     }
 
@@ -157,7 +162,7 @@ public class TariffBuilder {
         validateName(name);
         validateAccountType(accountType);
 
-        return new TariffStats(depositPercentages,
+        return new TariffStats(DepositRateTable.of(List.copyOf(depositPercentages.values())),
                 name,
                 accountType,
                 balanceInterest,
@@ -168,11 +173,11 @@ public class TariffBuilder {
     }
 
     /**
-     * Returns unmodifiable list of deposit percentage intervals
+     * Returns unmodifiable list of deposit percentage intervals sorted by lower bound
      * @return unmodifiable list of deposit percentage intervals
      */
     public List<BalanceInterval> getDepositPercentages() {
-        return Collections.unmodifiableList(depositPercentages);
+        return List.copyOf(depositPercentages.values());
     }
 
     /**
@@ -0,0 +1,134 @@
+package ru.Khalilov.banks.domain.entities;
+
+import lombok.Getter;
+import lombok.NonNull;
+import ru.Khalilov.banks.domain.exceptions.AccountException;
+import ru.Khalilov.banks.domain.exceptions.MoneyException;
+import ru.Khalilov.banks.domain.models.AccountDifference;
+import ru.Khalilov.banks.domain.models.DepositRateTable;
+import ru.Khalilov.banks.domain.models.InterestRate;
+import ru.Khalilov.banks.domain.models.Money;
+import ru.Khalilov.banks.domain.models.TariffStats;
+
+import java.time.Year;
+
+/**
+ * {@link TariffStats} compiled for calculations in minor units (see {@link Money}). All amounts and rates are converted
+ * once, and divisors of daily interest are precomputed for both lengths of year, so calculations don't touch
+ * {@link java.math.BigDecimal} or tariff stats. Evaluator is immutable: {@link Tariff} compiles new one when its stats
+ * change and publishes it, so calculation started with old stats finishes with them.
+ * Interest of every day is rounded {@link java.math.RoundingMode#HALF_UP} to minor units, exactly as
+ * {@link java.math.BigDecimal} calculation with scale of minor units would round it. Every sum is checked for overflow.
+ * Rates are taken from {@link DepositRateTable} and kept in arrays indexed by deposit interval, with balance interest
+ * of tariff after the last interval.
+ */
+public final class TariffEvaluator {
+    private static final int SHORT_YEAR = Year.of(2023).length();
+    private static final int LONG_YEAR = Year.of(2024).length();
+
+    @NonNull @Getter
+    private final TariffStats tariffStats;
+    @Getter
+    private final long minimalBalance;
+    private final long negativeBalanceOperationTax;
+    @NonNull
+    private final DepositRateTable depositRates;
+    private final int balanceInterestIndex;
+    private final InterestRate[] rates;
+    private final long[] numerators;
+    private final long[] shortYearDivisors;
+    private final long[] longYearDivisors;
+
+    private TariffEvaluator(@NonNull TariffStats tariffStats) throws MoneyException {
+        this.tariffStats = tariffStats;
+        this.minimalBalance = Money.toMinorUnits(tariffStats.minimalBalance());
+        this.negativeBalanceOperationTax = Money.toMinorUnits(tariffStats.negativeBalanceOperationTax());
+        this.depositRates = tariffStats.depositRates();
+
+        balanceInterestIndex = depositRates.size();
+        rates = new InterestRate[balanceInterestIndex + 1];
+        numerators = new long[balanceInterestIndex + 1];
+        shortYearDivisors = new long[balanceInterestIndex + 1];
+        longYearDivisors = new long[balanceInterestIndex + 1];
+        for (int i = 0; i <= balanceInterestIndex; i++) {
+            InterestRate rate = i == balanceInterestIndex ? InterestRate.of(tariffStats.balanceInterest()) : depositRates.rate(i);
+            rates[i] = rate;
+            numerators[i] = rate.numerator();
+            shortYearDivisors[i] = Math.multiplyExact(rate.denominator(), SHORT_YEAR);
+            longYearDivisors[i] = Math.multiplyExact(rate.denominator(), LONG_YEAR);
+        }
+    }
+
+    /**
+     * Compiles given tariff stats
+     * @param tariffStats - stats to compile
+     * @return evaluator of given stats
+     * @throws MoneyException - if some amount or rate doesn't fit into minor units
+     */
+    public static @NonNull TariffEvaluator compile(@NonNull TariffStats tariffStats) throws MoneyException {
+        return new TariffEvaluator(tariffStats);
+    }
+
+    /**
+     * Calculates differences in balance after transaction
+     * @param balance - balance before transaction
+     * @param sum - sum of transaction. Positive if money adds to the account, negative otherwise
+     * @return pair of balance diff and accumulator diff, wrapped into {@link AccountDifference}
+     * @throws AccountException - if final balance is less than minimal balance
+     * @throws MoneyException - if final balance doesn't fit into minor units
+     */
+    public @NonNull AccountDifference handleTransaction(long balance, long sum) throws AccountException, MoneyException {
+        long balanceDiff = balance < 0 && sum < 0 ? Money.addExact(sum, negativeBalanceOperationTax) : sum;
+        if (Money.addExact(balance, balanceDiff) < minimalBalance) {
+            throw AccountException.tooLowFinalBalance();
+        }
+
+        return new AccountDifference(balanceDiff, 0);
+    }
+
+    /**
+     * Calculates difference in balance and accumulator after several days with constant balance. Interest of one day is
+     * rounded first and then multiplied by days
+     * @param balance - balance during all these days
+     * @param days - amount of days
+     * @param daysInYear - amount of days in year these days belong to
+     * @return pair of balance diff and accumulator diff, wrapped into {@link AccountDifference}
+     * @throws MoneyException - if accrued interest doesn't fit into minor units
+     */
+    public @NonNull AccountDifference handleDailyUpdate(long balance, long days, int daysInYear) throws MoneyException {
+        return new AccountDifference(0, Money.multiplyExact(dailyInterest(balance, daysInYear), days));
+    }
+
+    /**
+     * Calculates differences in balance and accumulator after end of month. Accumulated sum is paid to balance
+     * @param balance - current balance in minor units
+     * @param accumulator - current accumulator in minor units
+     * @return pair of balance diff and accumulator diff, wrapped into {@link AccountDifference}
+     */
+    public @NonNull AccountDifference handleMonthlyUpdate(long balance, long accumulator) {
+        return new AccountDifference(accumulator, Money.subtractExact(0, accumulator));
+    }
+
+    /**
+     * Calculates interest of one day, rounded to minor units. Rate of deposit interval containing balance is used, or
+     * balance interest of tariff if there is no such interval
+     * @param balance - balance in minor units
+     * @param daysInYear - amount of days in year the day belongs to
+     * @return interest of one day in minor units
+     */
+    public long dailyInterest(long balance, int daysInYear) {
+        int index = depositRates.findInterval(balance);
+        if (index < 0) {
+            index = balanceInterestIndex;
+        }
+
+        if (daysInYear == SHORT_YEAR) {
+            return Money.multiplyDivideHalfUp(balance, numerators[index], shortYearDivisors[index]);
+        }
+        if (daysInYear == LONG_YEAR) {
+            return Money.multiplyDivideHalfUp(balance, numerators[index], longYearDivisors[index]);
+        }
+
+        return rates[index].dailyInterest(balance, daysInYear);
+    }
+}
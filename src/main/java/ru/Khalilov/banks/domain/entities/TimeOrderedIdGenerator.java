@@ -0,0 +1,79 @@
+package ru.Khalilov.banks.domain.entities;
+
+import lombok.NonNull;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates ids in layout of UUID version 7: 48 bits of unix time in milliseconds, version, 42-bit counter of ids
+ * generated by the thread in this millisecond (split by variant bits), and 32-bit lane of the thread. Lane consists of
+ * random node number of generator and number of thread, so every thread has its own lane and counter and generation
+ * doesn't contend. Ids of one thread strictly increase, ids of different threads are ordered by milliseconds, so ids
+ * sort in posting order and indexes keyed by them stay append-friendly. Unlike {@link UUID#randomUUID()}, ids are
+ * predictable and mustn't be used as secrets.
+ * Lane is stored XOR-ed with hash of time and counter: {@link UUID#hashCode()} folds halves of id together, and without
+ * it ids of neighbouring milliseconds would fall into the same few buckets of hash tables.
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+    static final TimeOrderedIdGenerator SHARED = new TimeOrderedIdGenerator();
+
+    private static final int COUNTER_LOW_BITS = 30;
+    private static final long MAX_COUNTER = (1L << 42) - 1;
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+    private static final int THREAD_BITS = 24;
+
+    private final int node;
+    @NonNull
+    private final AtomicInteger threadCount;
+    @NonNull
+    private final ThreadLocal<Lane> lanes;
+
+    /**
+     * Constructs generator with random node number
+     */
+    public TimeOrderedIdGenerator() {
+        this.node = ThreadLocalRandom.current().nextInt(1 << (Integer.SIZE - THREAD_BITS));
+        this.threadCount = new AtomicInteger();
+        this.lanes = ThreadLocal.withInitial(() -> new Lane(node << THREAD_BITS | threadCount.getAndIncrement() & ((1 << THREAD_BITS) - 1)));
+    }
+
+    @Override
+    public UUID nextId() {
+        Lane lane = lanes.get();
+        long now = System.currentTimeMillis();
+        if (now > lane.millis) {
+            lane.millis = now;
+            lane.counter = 0;
+        }
+        else if (++lane.counter > MAX_COUNTER) {
+            // clock went back or thread generated all ids of this millisecond, so next millisecond is borrowed
+            lane.millis++;
+            lane.counter = 0;
+        }
+
+        long mostSignificantBits = lane.millis << 16 | VERSION | lane.counter >>> COUNTER_LOW_BITS;
+        long leastSignificantBits = VARIANT | (lane.counter & ((1L << COUNTER_LOW_BITS) - 1)) << Integer.SIZE
+                | (lane.id ^ scramble(lane.millis, lane.counter)) & 0xFFFFFFFFL;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    private static int scramble(long millis, long counter) {
+        return (int) (((millis << 22) ^ counter) * 0x9E3779B97F4A7C15L >>> Integer.SIZE);
+    }
+
+    /**
+     * State of one thread: its lane, millisecond of the last id and counter of ids in this millisecond
+     */
+    private static final class Lane {
+        private final int id;
+        private long millis;
+        private long counter;
+
+        private Lane(int id) {
+            this.id = id;
+        }
+    }
+}
@@ -5,7 +5,8 @@ import lombok.NonNull;
 import ru.Khalilov.banks.domain.exceptions.TransactionException;
 import ru.Khalilov.banks.domain.models.TransactionEntity;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
@@ -18,6 +19,8 @@ public class Transaction {
     private final List<TransactionEntity> entities;
     @NonNull @Getter
     private final UUID id;
+    private volatile long journalSequence;
+    private volatile long cancellationSequence = Long.MAX_VALUE;
 
     /**
      * Creates transaction with given list of transaction entities and id
@@ -30,33 +33,111 @@ public class Transaction {
     }
 
     /**
-     * Successively cancel all entities of this transaction. Validate cancellation before start
+     * Return unmodifiable list of entities of this transaction
+     * @return unmodifiable list of entities of this transaction
+     */
+    public List<TransactionEntity> getEntities() {
+        return Collections.unmodifiableList(entities);
+    }
+
+    /**
+     * Successively cancel all entities of this transaction. Validate cancellation before start. Cancellation is recorded
+     * in history of accounts with id of this transaction
      */
     public void cancel() {
         validateCancellation();
 
-        entities.forEach(entity -> entity.account().cancelTransaction(entity.transactionEntityId(), entity.sum()));
+        entities.forEach(entity -> entity.account().cancelTransaction(entity.transactionEntityId(), entity.sum(), id));
     }
 
-    @Override
-    public String toString() {
-        List<String> entityStrings = new ArrayList<>();
+    /**
+     * Remembers journal record which committed this transaction. Must be called while locks of all accounts of
+     * transaction are held
+     * @param journalSequence - sequence of record which committed transaction
+     */
+    void setJournalSequence(long journalSequence) {
+        this.journalSequence = journalSequence;
+    }
+
+    /**
+     * Remembers journal record which canceled this transaction. Must be called while locks of all accounts of transaction
+     * are held
+     * @param cancellationSequence - sequence of record which canceled transaction
+     */
+    void setCancellationSequence(long cancellationSequence) {
+        this.cancellationSequence = cancellationSequence;
+    }
+
+    /**
+     * Checks that transaction was committed and not canceled by journal records up to given one
+     * @param sequence - sequence of journal record
+     * @return true if transaction was active after given record
+     */
+    boolean isActiveAt(long sequence) {
+        return journalSequence <= sequence && cancellationSequence > sequence;
+    }
+
+    /**
+     * Writes entities of transaction to given output as a box, one entity per line
+     * @param output - output to write to
+     * @throws IOException - if output fails
+     */
+    public void render(@NonNull Appendable output) throws IOException {
+        render(output, new StringBuilder());
+    }
+
+    /**
+     * Writes entities of transaction to given output as a box, one entity per line. Entities are rendered into given
+     * buffer first to find width of box, so listings pass the same buffer for all transactions
+     * @param output - output to write to
+     * @param buffer - buffer to reuse, its content is replaced
+     * @throws IOException - if output fails
+     */
+    public void render(@NonNull Appendable output, @NonNull StringBuilder buffer) throws IOException {
+        buffer.setLength(0);
         int maxLength = 0;
-        for (TransactionEntity entity: entities) {
-            String current = entity.toString();
-            maxLength = Math.max(maxLength, current.length());
-            entityStrings.add(current);
+        for (TransactionEntity entity : entities) {
+            int start = buffer.length();
+            entity.render(buffer);
+            maxLength = Math.max(maxLength, buffer.length() - start);
+            buffer.append('\n');
+        }
+
+        renderBorder(output, maxLength);
+        int start = 0;
+        for (int end = buffer.indexOf("\n"); end >= 0; end = buffer.indexOf("\n", start)) {
+            output.append("| ").append(buffer, start, end).append(" |\n");
+            start = end + 1;
         }
+        renderBorder(output, maxLength);
+    }
 
+    @Override
+    public String toString() {
         StringBuilder builder = new StringBuilder();
-        builder.append("+").append(String.join("", Collections.nCopies(maxLength + 2, " "))).append("+\n");
-        entityStrings.forEach(str -> builder.append("| ").append(str).append(" |\n"));
-        builder.append("+").append(String.join("", Collections.nCopies(maxLength + 2, " "))).append("+\n");
+        try {
+            render(builder);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
 
         return builder.toString();
     }
 
-    private void validateCancellation() {
+    private static void renderBorder(Appendable output, int maxLength) throws IOException {
+        output.append('+');
+        for (int i = 0; i < maxLength + 2; i++) {
+            output.append(' ');
+        }
+        output.append("+\n");
+    }
+
+    /**
+     * Checks that all entities of this transaction can be canceled
+     * @throws TransactionException if some entity was already canceled or doesn't exist
+     */
+    void validateCancellation() {
         if (entities.stream().anyMatch(entity -> !entity.account().isContainsTransactionEntity(entity.transactionEntityId()))) {
             throw TransactionException.invalidTransactionEntityInformation();
         }
@@ -50,6 +50,26 @@ public class AccountException extends GeneralBankException{
         return new AccountException("Account hasn't committed given transaction or it already canceled");
     }
 
+    /**
+     * Creates AccountException caused by attempt to roll back transaction entity which isn't the last change of balance
+     * @return AccountException caused by attempt to roll back transaction entity which isn't the last change of balance
+     */
+    public static AccountException notLastTransaction()
+    {
+        return new AccountException("Only the last transaction of account can be rolled back");
+    }
+
+    /**
+     * Creates AccountException indicating invalid page of account history
+     * @param offset - requested offset
+     * @param limit - requested size of page
+     * @return AccountException indicating invalid page of account history
+     */
+    public static AccountException invalidHistoryPage(int offset, int limit)
+    {
+        return new AccountException("Offset and size of history page can't be negative, but " + offset + " and " + limit + " found");
+    }
+
     /**
      * Creates AccountException indicating attempt to update balance after negative time span
      * @return AccountException indicating attempt to update balance after negative time span
@@ -42,6 +42,26 @@ public class CentralBankException extends GeneralBankException{
         return new CentralBankException("Sum of transaction must be more thn 0");
     }
 
+    /**
+     * Creates CentralBankException indicating posting that has neither source nor target account
+     * @return CentralBankException indicating posting that has neither source nor target account
+     */
+    public static CentralBankException postingWithoutAccounts()
+    {
+        return new CentralBankException("Posting must have source or target account");
+    }
+
+    /**
+     * Creates CentralBankException indicating invalid page of transactions
+     * @param offset - requested offset
+     * @param limit - requested size of page
+     * @return CentralBankException indicating invalid page of transactions
+     */
+    public static CentralBankException invalidTransactionsPage(int offset, int limit)
+    {
+        return new CentralBankException("Offset and size of transactions page can't be negative, but " + offset + " and " + limit + " found");
+    }
+
     /**
      * Creates CentralBankException indicating not positive transaction limit
      * @return CentralBankException indicating not positive transaction limit
@@ -2,6 +2,8 @@ package ru.Khalilov.banks.domain.exceptions;
 
 import ru.Khalilov.banks.domain.models.EmailImpl;
 
+import java.time.Duration;
+
 /**
  * Thrown to indicate invalid arguments and incorrect operations email-related classes and it's methods.
  *
@@ -26,4 +28,35 @@ public class EmailException extends GeneralBankException {
     {
         return new EmailException("String '" + address + "' isn't a valid email address");
     }
+
+    /**
+     * Creates EmailException indicating attempt to create mailbox without room for messages
+     * @param capacity - given capacity of mailbox
+     * @return EmailException indicating attempt to create mailbox without room for messages
+     */
+    public static EmailException notPositiveCapacity(int capacity)
+    {
+        return new EmailException("Capacity of mailbox must be positive, but " + capacity + " found");
+    }
+
+    /**
+     * Creates EmailException indicating invalid page of messages
+     * @param offset - requested offset
+     * @param limit - requested size of page
+     * @return EmailException indicating invalid page of messages
+     */
+    public static EmailException invalidPage(int offset, int limit)
+    {
+        return new EmailException("Offset and size of page of messages can't be negative, but " + offset + " and " + limit + " found");
+    }
+
+    /**
+     * Creates EmailException indicating negative maximal age of messages
+     * @param maxAge - given maximal age
+     * @return EmailException indicating negative maximal age of messages
+     */
+    public static EmailException negativeMaxAge(Duration maxAge)
+    {
+        return new EmailException("Maximal age of messages can't be negative, but " + maxAge + " found");
+    }
 }
@@ -11,4 +11,13 @@ public class GeneralBankException extends RuntimeException{
     protected GeneralBankException(String message) {
         super(message);
     }
+
+    /**
+     * Constructs GeneralBankException with the specified detail message and cause
+     * @param message - the detail message
+     * @param cause - the cause
+     */
+    protected GeneralBankException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
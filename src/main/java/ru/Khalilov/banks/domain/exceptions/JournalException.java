@@ -0,0 +1,86 @@
+package ru.Khalilov.banks.domain.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Thrown to indicate failures of journal and incorrect operations with it
+ *
+ * @see ru.Khalilov.banks.domain.journal.Journal
+ */
+public class JournalException extends GeneralBankException {
+    /**
+     * Constructs JournalException with the specified detail message
+     *
+     * @param message - the detail message
+     */
+    protected JournalException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs JournalException with the specified detail message and cause
+     *
+     * @param message - the detail message
+     * @param cause - the cause
+     */
+    protected JournalException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    /**
+     * Creates JournalException indicating failed input/output operation with journal file
+     * @param cause - exception thrown by file operation
+     * @return JournalException indicating failed input/output operation with journal file
+     */
+    public static JournalException ioFailure(IOException cause)
+    {
+        return new JournalException("Journal input/output failed: " + cause.getMessage(), cause);
+    }
+
+    /**
+     * Creates JournalException indicating that journal doesn't accept records after previous failure
+     * @param cause - previous failure
+     * @return JournalException indicating that journal doesn't accept records after previous failure
+     */
+    public static JournalException failed(JournalException cause)
+    {
+        return new JournalException("Journal is unusable after previous failure", cause);
+    }
+
+    /**
+     * Creates JournalException indicating attempt to use closed journal
+     * @return JournalException indicating attempt to use closed journal
+     */
+    public static JournalException closed()
+    {
+        return new JournalException("Journal is closed");
+    }
+
+    /**
+     * Creates JournalException indicating file which isn't a journal or journal record which can't be decoded
+     * @param details - description of the problem
+     * @return JournalException indicating file which isn't a journal or journal record which can't be decoded
+     */
+    public static JournalException corrupted(String details)
+    {
+        return new JournalException("Journal is corrupted: " + details);
+    }
+
+    /**
+     * Creates JournalException indicating attempt to start new central bank on journal with records
+     * @return JournalException indicating attempt to start new central bank on journal with records
+     */
+    public static JournalException notEmpty()
+    {
+        return new JournalException("Journal already contains records, central bank must be recovered from it");
+    }
+
+    /**
+     * Creates JournalException indicating attempt to recover central bank from journal without records
+     * @return JournalException indicating attempt to recover central bank from journal without records
+     */
+    public static JournalException empty()
+    {
+        return new JournalException("Journal doesn't contain records to recover from");
+    }
+}
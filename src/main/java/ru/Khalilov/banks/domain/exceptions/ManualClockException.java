@@ -21,4 +21,12 @@ public class ManualClockException extends ClockException {
     public static ManualClockException NotPositiveDurationToForward() {
         return new ManualClockException("Duration must be positive");
     }
+
+    /**
+     * Creates ManualClockException indicating attempt to split subscribers into batches of negative size
+     * @return ManualClockException indicating attempt to split subscribers into batches of negative size
+     */
+    public static ManualClockException NegativeBatchSize() {
+        return new ManualClockException("Batch size can't be negative");
+    }
 }
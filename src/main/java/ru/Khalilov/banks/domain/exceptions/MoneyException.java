@@ -0,0 +1,38 @@
+package ru.Khalilov.banks.domain.exceptions;
+
+import java.math.BigDecimal;
+
+/**
+ * Thrown to indicate amounts of money that can't be represented in minor units
+ *
+ * @see ru.Khalilov.banks.domain.models.Money
+ */
+public class MoneyException extends GeneralBankException {
+    /**
+     * Constructs MoneyException with the specified detail message
+     *
+     * @param message - the detail message
+     */
+    protected MoneyException(String message) {
+        super(message);
+    }
+
+    /**
+     * Creates MoneyException indicating amount too large to be stored in minor units
+     * @param amount - given amount
+     * @return MoneyException indicating amount too large to be stored in minor units
+     */
+    public static MoneyException tooLargeAmount(BigDecimal amount)
+    {
+        return new MoneyException("Amount " + amount + " is too large");
+    }
+
+    /**
+     * Creates MoneyException indicating result of calculation too large to be stored in minor units
+     * @return MoneyException indicating result of calculation too large to be stored in minor units
+     */
+    public static MoneyException overflow()
+    {
+        return new MoneyException("Result of calculation is too large");
+    }
+}
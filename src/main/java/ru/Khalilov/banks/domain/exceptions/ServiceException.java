@@ -103,6 +103,16 @@ public class ServiceException extends GeneralBankException {
         return SomethingNotChosen("account");
     }
 
+    /**
+     * Creates ServiceException indicating attempt to use non-existing or closed session
+     * @param id - given session ID
+     * @return ServiceException indicating attempt to use non-existing or closed session
+     */
+    public static ServiceException noSessionFound(UUID id)
+    {
+        return new ServiceException("No open session with id '" + id + "' was found");
+    }
+
     private static ServiceException SomethingNotChosen(String name)
     {
         return new ServiceException("To do this operation you should choose " + name + " first");
@@ -22,6 +22,15 @@ public class TariffException extends GeneralBankException {
         return new TariffException("Twice subscription isn't allowed");
     }
 
+    /**
+     * Creates TariffException indicating attempt to notify subscribers through closed dispatcher
+     * @return TariffException indicating attempt to notify subscribers through closed dispatcher
+     */
+    public static TariffException notificationDispatcherClosed()
+    {
+        return new TariffException("Notification dispatcher is closed");
+    }
+
     /**
      * Creates TariffException indicating invalid name of tariff
      * @param name - given name
@@ -0,0 +1,88 @@
+package ru.Khalilov.banks.domain.journal;
+
+import lombok.NonNull;
+import ru.Khalilov.banks.domain.models.AccountHistoryEntry;
+import ru.Khalilov.banks.domain.models.AccountId;
+import ru.Khalilov.banks.domain.models.BankId;
+import ru.Khalilov.banks.domain.models.ClientInformation;
+import ru.Khalilov.banks.domain.models.TariffStats;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Copy of the whole state of {@link ru.Khalilov.banks.domain.entities.CentralBank}. Banks and accounts are copied one by
+ * one, so every bank and account state records sequence of the last journal record it reflects, which is not before
+ * {@link #journalPosition()}. State is restored by replaying journal records after {@link #journalPosition()}, each of
+ * them applied only to states that don't reflect it yet.
+ * Only transactions which can still be canceled at {@link #journalPosition()} are copied, so canceled transactions
+ * aren't listed after restore.
+ * Sums are stored in minor units (see {@link ru.Khalilov.banks.domain.models.Money})
+ * @param centralBankId - id of central bank
+ * @param dateTime - clock time when copying started
+ * @param journalPosition - position of the last journal record reflected by all states of snapshot
+ * @param banks - state of all banks in order of creation
+ * @param activeTransactions - transactions committed and not canceled at {@link #journalPosition()}, in order of commit
+ */
+public record CentralBankSnapshot(
+        @NonNull UUID centralBankId,
+        @NonNull LocalDateTime dateTime,
+        @NonNull JournalPosition journalPosition,
+        @NonNull List<BankState> banks,
+        @NonNull List<TransactionState> activeTransactions) {
+
+    /**
+     * State of bank
+     * @param bankId - id of bank
+     * @param transactionLimitForDoubtfulClients - limit for doubtful clients
+     * @param tariffs - current stats of all tariffs
+     * @param clients - state of all clients
+     * @param journalSequence - sequence of the last journal record reflected by tariffs, clients and set of accounts
+     */
+    public record BankState(@NonNull BankId bankId, long transactionLimitForDoubtfulClients, @NonNull List<TariffStats> tariffs, @NonNull List<ClientState> clients, long journalSequence) {
+    }
+
+    /**
+     * State of client
+     * @param clientId - id of client
+     * @param clientInformation - information about client
+     * @param accounts - state of all accounts of client
+     */
+    public record ClientState(@NonNull UUID clientId, @NonNull ClientInformation clientInformation, @NonNull List<AccountState> accounts) {
+    }
+
+    /**
+     * State of account
+     * @param accountId - id of account
+     * @param tariffId - id of current stats of account's tariff
+     * @param creationTime - date and time of creation
+     * @param monthlyUpdateTime - day of monthly update
+     * @param previousUpdateTime - date and time of the last update through time
+     * @param balance - balance
+     * @param accumulator - accumulator
+     * @param transactionEntityIds - ids of transaction entities which weren't canceled
+     * @param history - changes of balance by transactions in order of time
+     * @param journalSequence - sequence of the last journal record reflected by this state
+     */
+    public record AccountState(
+            @NonNull AccountId accountId,
+            @NonNull UUID tariffId,
+            @NonNull LocalDateTime creationTime,
+            int monthlyUpdateTime,
+            @NonNull LocalDateTime previousUpdateTime,
+            long balance,
+            long accumulator,
+            @NonNull List<UUID> transactionEntityIds,
+            @NonNull List<AccountHistoryEntry> history,
+            long journalSequence) {
+    }
+
+    /**
+     * State of transaction
+     * @param transactionId - id of transaction
+     * @param legs - entities of transaction
+     */
+    public record TransactionState(@NonNull UUID transactionId, @NonNull List<JournalRecord.Leg> legs) {
+    }
+}
@@ -0,0 +1,391 @@
+package ru.Khalilov.banks.domain.journal;
+
+import lombok.NonNull;
+import ru.Khalilov.banks.domain.exceptions.JournalException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * {@link Journal} stored in a single file and written through {@link FileChannel}.
+ * File starts with magic number and version, followed by frames: payload length, CRC32 of payload and payload produced
+ * by {@link JournalCodec}. When file is opened, frames are checked one by one, and everything after the first
+ * incomplete or damaged frame is cut off, since it can only be a write interrupted by crash.
+ * Appended records are collected in memory. The first thread waiting for durability becomes leader: it optionally waits
+ * for group commit window, writes all collected records and calls {@link FileChannel#force(boolean)} once for all of them,
+ * while other threads wait for it or append to the next group. So under load one fsync covers many postings.
+ */
+public class FileChannelJournal implements Journal {
+    private static final int MAGIC = 0x42414E4B;
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int FRAME_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final long groupCommitWindowNanos;
+    private final ReentrantLock lock;
+    private final Condition groupSynced;
+    private ByteBuffer pending;
+    private ByteBuffer spare;
+    private long writePosition;
+    private long appendedSequence;
+    private long durableSequence;
+    private long syncCount;
+    private boolean syncing;
+    private boolean closed;
+    private JournalException failure;
+
+    /**
+     * Opens journal file, creating it if necessary. Records are synced as soon as somebody waits for them
+     * @param path - path to journal file
+     * @throws JournalException - if file can't be opened or isn't a journal
+     */
+    public FileChannelJournal(@NonNull Path path) throws JournalException {
+        this(path, Duration.ZERO);
+    }
+
+    /**
+     * Opens journal file, creating it if necessary
+     * @param path - path to journal file
+     * @param groupCommitWindow - time the leader waits for more records before sync. Longer window gives fewer syncs
+     *                          under load, but adds up to this time to latency of every call
+     * @throws JournalException - if file can't be opened or isn't a journal
+     */
+    public FileChannelJournal(@NonNull Path path, @NonNull Duration groupCommitWindow) throws JournalException {
+        if (groupCommitWindow.isNegative()) {
+            throw new IllegalArgumentException("Group commit window can't be negative");
+        }
+
+        this.groupCommitWindowNanos = groupCommitWindow.toNanos();
+        this.lock = new ReentrantLock();
+        this.groupSynced = lock.newCondition();
+        this.pending = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        this.spare = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        catch (IOException e) {
+            throw JournalException.ioFailure(e);
+        }
+
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+                writeFully(header, 0);
+                channel.force(true);
+                writePosition = FILE_HEADER_SIZE;
+            }
+            else {
+                checkHeader();
+                writePosition = scan(FILE_HEADER_SIZE, payload -> appendedSequence++);
+                if (channel.size() > writePosition) {
+                    channel.truncate(writePosition);
+                    channel.force(true);
+                }
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            closeQuietly();
+            throw e instanceof IOException ioException ? JournalException.ioFailure(ioException) : (RuntimeException) e;
+        }
+
+        durableSequence = appendedSequence;
+    }
+
+    @Override
+    public long append(@NonNull JournalRecord record) throws JournalException {
+        byte[] payload = JournalCodec.encode(record);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        lock.lock();
+        try {
+            checkUsable();
+            pending = withCapacity(pending, FRAME_HEADER_SIZE + payload.length);
+            pending.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+            return ++appendedSequence;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void awaitDurable(long sequence) throws JournalException {
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (failure != null) {
+                    throw JournalException.failed(failure);
+                }
+
+                if (syncing) {
+                    groupSynced.awaitUninterruptibly();
+                }
+                else {
+                    syncGroup();
+                }
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return appendedSequence == 0;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public @NonNull JournalPosition position() {
+        lock.lock();
+        try {
+            return new JournalPosition(appendedSequence, writePosition + pending.position());
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void replay(@NonNull Consumer<JournalRecord> consumer) throws JournalException {
+        replay(new JournalPosition(0, FILE_HEADER_SIZE), consumer);
+    }
+
+    @Override
+    public void replay(@NonNull JournalPosition after, @NonNull Consumer<JournalRecord> consumer) throws JournalException {
+        long lastSequence;
+        lock.lock();
+        try {
+            checkUsable();
+            if (after.sequence() < 0 || after.sequence() > appendedSequence
+                    || after.offset() < FILE_HEADER_SIZE || after.offset() > writePosition + pending.position()) {
+                throw JournalException.corrupted("position " + after + " is outside of journal");
+            }
+            lastSequence = appendedSequence;
+        }
+        finally {
+            lock.unlock();
+        }
+
+        awaitDurable(lastSequence);
+        try {
+            scan(after.offset(), payload -> consumer.accept(JournalCodec.decode(payload)));
+        }
+        catch (IOException e) {
+            throw JournalException.ioFailure(e);
+        }
+    }
+
+    /**
+     * Returns amount of syncs made since journal was opened
+     * @return amount of syncs made since journal was opened
+     */
+    public long getSyncCount() {
+        lock.lock();
+        try {
+            return syncCount;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws JournalException {
+        long lastSequence;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            lastSequence = appendedSequence;
+        }
+        finally {
+            lock.unlock();
+        }
+
+        try {
+            awaitDurable(lastSequence);
+        }
+        finally {
+            lock.lock();
+            try {
+                closed = true;
+                channel.close();
+            }
+            catch (IOException e) {
+                throw JournalException.ioFailure(e);
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes and syncs all pending records as leader of the group. Must be called with lock held; the lock is released
+     * during input/output, so other threads can append next group meanwhile
+     */
+    private void syncGroup() {
+        syncing = true;
+        try {
+            // interrupt closes FileChannel, so it is postponed until input/output is done
+            boolean interrupted = Thread.interrupted();
+            long remaining = groupCommitWindowNanos;
+            while (remaining > 0) {
+                try {
+                    remaining = groupSynced.awaitNanos(remaining);
+                }
+                catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+
+            ByteBuffer group = pending.flip();
+            pending = spare;
+            long groupSequence = appendedSequence;
+            long position = writePosition;
+            writePosition += group.remaining();
+
+            lock.unlock();
+            try {
+                writeFully(group, position);
+                channel.force(false);
+            }
+            catch (IOException e) {
+                failure = JournalException.ioFailure(e);
+            }
+            finally {
+                lock.lock();
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            spare = group.clear();
+            if (failure == null) {
+                durableSequence = groupSequence;
+                syncCount++;
+            }
+        }
+        finally {
+            syncing = false;
+            groupSynced.signalAll();
+        }
+    }
+
+    /**
+     * Reads frames from given offset until the first incomplete or damaged one
+     * @param start - offset of the first frame
+     * @param payloadConsumer - consumer of payloads of valid frames
+     * @return position after the last valid frame
+     */
+    private long scan(long start, Consumer<byte[]> payloadConsumer) throws IOException {
+        long position = start;
+        long size = channel.size();
+        ByteBuffer frameHeader = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+        CRC32 crc = new CRC32();
+
+        while (size - position >= FRAME_HEADER_SIZE) {
+            readFully(frameHeader.clear(), position);
+            int length = frameHeader.flip().getInt();
+            int checksum = frameHeader.getInt();
+            if (length <= 0 || length > MAX_RECORD_SIZE || size - position - FRAME_HEADER_SIZE < length) {
+                break;
+            }
+
+            byte[] payload = new byte[length];
+            readFully(ByteBuffer.wrap(payload), position + FRAME_HEADER_SIZE);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            payloadConsumer.accept(payload);
+            position += FRAME_HEADER_SIZE + length;
+        }
+
+        return position;
+    }
+
+    private void closeQuietly() {
+        try {
+            channel.close();
+        }
+        catch (IOException ignored) {
+        }
+    }
+
+    private void checkHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        if (channel.size() < FILE_HEADER_SIZE) {
+            throw JournalException.corrupted("file is too short");
+        }
+
+        readFully(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw JournalException.corrupted("file isn't a journal");
+        }
+
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw JournalException.corrupted("unsupported version " + version);
+        }
+    }
+
+    private void checkUsable() throws JournalException {
+        if (closed) {
+            throw JournalException.closed();
+        }
+
+        if (failure != null) {
+            throw JournalException.failed(failure);
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw JournalException.corrupted("unexpected end of file");
+            }
+            position += read;
+        }
+    }
+
+    private static ByteBuffer withCapacity(ByteBuffer buffer, int required) {
+        if (buffer.remaining() >= required) {
+            return buffer;
+        }
+
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + required));
+        return grown.put(buffer.flip());
+    }
+}
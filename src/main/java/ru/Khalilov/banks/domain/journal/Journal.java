@@ -0,0 +1,75 @@
+package ru.Khalilov.banks.domain.journal;
+
+import lombok.NonNull;
+import ru.Khalilov.banks.domain.exceptions.JournalException;
+
+import java.util.function.Consumer;
+
+/**
+ * Append-only log of changes made to {@link ru.Khalilov.banks.domain.entities.CentralBank} and its banks. Records are
+ * appended after change is applied in memory but before call is acknowledged, and are replayed in the same order to
+ * rebuild state after restart.
+ * Appending and waiting for durability are separated, so records can be appended while account locks are held, and
+ * the wait happens after they are released. It allows implementations to make several records durable at once.
+ * After any failure journal doesn't accept new records.
+ */
+public interface Journal extends AutoCloseable {
+    /**
+     * Appends record to the journal. Record isn't guaranteed to be durable until {@link #awaitDurable(long)} returns
+     * @param record - record to append
+     * @return sequence number of appended record
+     * @throws JournalException - if journal is closed or failed
+     */
+    long append(@NonNull JournalRecord record) throws JournalException;
+
+    /**
+     * Blocks until record with given sequence number and all records before it are durable
+     * @param sequence - sequence number returned by {@link #append(JournalRecord)}
+     * @throws JournalException - if records can't be made durable
+     */
+    void awaitDurable(long sequence) throws JournalException;
+
+    /**
+     * Appends record and waits until it is durable
+     * @param record - record to append
+     * @throws JournalException - if record can't be appended or made durable
+     */
+    default void commit(@NonNull JournalRecord record) throws JournalException {
+        awaitDurable(append(record));
+    }
+
+    /**
+     * Checks if journal contains any records
+     * @return true if there are no records, false otherwise
+     */
+    boolean isEmpty();
+
+    /**
+     * Returns position after the last appended record
+     * @return position after the last appended record
+     */
+    @NonNull JournalPosition position();
+
+    /**
+     * Passes all records to given consumer in order they were appended. Must not be called concurrently with appends
+     * @param consumer - consumer of records
+     * @throws JournalException - if records can't be read or decoded
+     */
+    void replay(@NonNull Consumer<JournalRecord> consumer) throws JournalException;
+
+    /**
+     * Passes records appended after given position to consumer in order they were appended. Records before the position
+     * aren't read. Must not be called concurrently with appends
+     * @param after - position returned by {@link #position()}
+     * @param consumer - consumer of records
+     * @throws JournalException - if position doesn't belong to this journal or records can't be read or decoded
+     */
+    void replay(@NonNull JournalPosition after, @NonNull Consumer<JournalRecord> consumer) throws JournalException;
+
+    /**
+     * Makes all appended records durable and releases resources
+     * @throws JournalException - if records can't be made durable
+     */
+    @Override
+    void close() throws JournalException;
+}
@@ -0,0 +1,320 @@
+package ru.Khalilov.banks.domain.journal;
+
+import lombok.NonNull;
+import ru.Khalilov.banks.domain.exceptions.GeneralBankException;
+import ru.Khalilov.banks.domain.exceptions.JournalException;
+import ru.Khalilov.banks.domain.models.*;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Converts {@link JournalRecord} to bytes and back. First byte of encoded record is its type, the rest are its fields
+ * in order of declaration. Nullable fields are prefixed with presence flag, collections with their size.
+ * Methods encoding single fields are shared with {@link SnapshotFile}.
+ */
+final class JournalCodec {
+    private static final byte CENTRAL_BANK_STARTED = 1;
+    private static final byte BANK_CREATED = 2;
+    private static final byte TRANSACTION_LIMIT_CHANGED = 3;
+    private static final byte TARIFF_ADDED = 4;
+    private static final byte TARIFF_CHANGED = 5;
+    private static final byte CLIENT_ADDED = 6;
+    private static final byte CLIENT_CHANGED = 7;
+    private static final byte ACCOUNT_CREATED = 8;
+    private static final byte TRANSACTION_COMMITTED = 9;
+    private static final byte TRANSACTION_CANCELLED = 10;
+    private static final byte CLOCK_FORWARDED = 11;
+    private static final byte BATCH_COMMITTED = 12;
+    private static final int MAX_NUMBER_SIZE = 1024;
+
+    private JournalCodec() {
+    }
+
+    /**
+     * Encodes record to bytes
+     * @param record - record to encode
+     * @return encoded record
+     */
+    static byte[] encode(@NonNull JournalRecord record) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            if (record instanceof JournalRecord.CentralBankStarted started) {
+                output.writeByte(CENTRAL_BANK_STARTED);
+                writeUuid(output, started.centralBankId());
+                writeDateTime(output, started.dateTime());
+            }
+            else if (record instanceof JournalRecord.BankCreated created) {
+                output.writeByte(BANK_CREATED);
+                writeUuid(output, created.bankId().BankId());
+                output.writeLong(created.transactionLimitForDoubtfulClients());
+            }
+            else if (record instanceof JournalRecord.TransactionLimitChanged changed) {
+                output.writeByte(TRANSACTION_LIMIT_CHANGED);
+                writeUuid(output, changed.bankId().BankId());
+                output.writeLong(changed.transactionLimitForDoubtfulClients());
+            }
+            else if (record instanceof JournalRecord.TariffAdded added) {
+                output.writeByte(TARIFF_ADDED);
+                writeUuid(output, added.bankId().BankId());
+                writeTariffStats(output, added.tariffStats());
+            }
+            else if (record instanceof JournalRecord.TariffChanged changed) {
+                output.writeByte(TARIFF_CHANGED);
+                writeUuid(output, changed.bankId().BankId());
+                writeUuid(output, changed.tariffId());
+                writeTariffStats(output, changed.tariffStats());
+            }
+            else if (record instanceof JournalRecord.ClientAdded added) {
+                output.writeByte(CLIENT_ADDED);
+                writeUuid(output, added.bankId().BankId());
+                writeUuid(output, added.clientId());
+                writeClientInformation(output, added.clientInformation());
+            }
+            else if (record instanceof JournalRecord.ClientChanged changed) {
+                output.writeByte(CLIENT_CHANGED);
+                writeUuid(output, changed.bankId().BankId());
+                writeUuid(output, changed.clientId());
+                writeClientInformation(output, changed.clientInformation());
+            }
+            else if (record instanceof JournalRecord.AccountCreated created) {
+                output.writeByte(ACCOUNT_CREATED);
+                writeAccountId(output, created.accountId());
+                writeUuid(output, created.clientId());
+                writeUuid(output, created.tariffId());
+            }
+            else if (record instanceof JournalRecord.TransactionCommitted committed) {
+                output.writeByte(TRANSACTION_COMMITTED);
+                writeTransactionCommitted(output, committed);
+            }
+            else if (record instanceof JournalRecord.BatchCommitted batch) {
+                output.writeByte(BATCH_COMMITTED);
+                output.writeInt(batch.transactions().size());
+                for (JournalRecord.TransactionCommitted committed : batch.transactions()) {
+                    writeTransactionCommitted(output, committed);
+                }
+            }
+            else if (record instanceof JournalRecord.TransactionCancelled cancelled) {
+                output.writeByte(TRANSACTION_CANCELLED);
+                writeUuid(output, cancelled.transactionId());
+            }
+            else if (record instanceof JournalRecord.ClockForwarded forwarded) {
+                output.writeByte(CLOCK_FORWARDED);
+                writeDateTime(output, forwarded.dateTime());
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes record from bytes
+     * @param bytes - encoded record
+     * @return decoded record
+     * @throws JournalException - if bytes don't contain valid record
+     */
+    static JournalRecord decode(byte @NonNull [] bytes) throws JournalException {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte type = input.readByte();
+            JournalRecord result = switch (type) {
+                case CENTRAL_BANK_STARTED -> new JournalRecord.CentralBankStarted(readUuid(input), readDateTime(input));
+                case BANK_CREATED -> new JournalRecord.BankCreated(new BankId(readUuid(input)), input.readLong());
+                case TRANSACTION_LIMIT_CHANGED -> new JournalRecord.TransactionLimitChanged(new BankId(readUuid(input)), input.readLong());
+                case TARIFF_ADDED -> new JournalRecord.TariffAdded(new BankId(readUuid(input)), readTariffStats(input));
+                case TARIFF_CHANGED -> new JournalRecord.TariffChanged(new BankId(readUuid(input)), readUuid(input), readTariffStats(input));
+                case CLIENT_ADDED -> new JournalRecord.ClientAdded(new BankId(readUuid(input)), readUuid(input), readClientInformation(input));
+                case CLIENT_CHANGED -> new JournalRecord.ClientChanged(new BankId(readUuid(input)), readUuid(input), readClientInformation(input));
+                case ACCOUNT_CREATED -> new JournalRecord.AccountCreated(readAccountId(input), readUuid(input), readUuid(input));
+                case TRANSACTION_COMMITTED -> readTransactionCommitted(input);
+                case TRANSACTION_CANCELLED -> new JournalRecord.TransactionCancelled(readUuid(input));
+                case CLOCK_FORWARDED -> new JournalRecord.ClockForwarded(readDateTime(input));
+                case BATCH_COMMITTED -> readBatchCommitted(input);
+                default -> throw JournalException.corrupted("unknown record type " + type);
+            };
+
+            if (input.available() > 0) {
+                throw JournalException.corrupted("record of type " + type + " has trailing bytes");
+            }
+
+            return result;
+        }
+        catch (IOException e) {
+            throw JournalException.corrupted("record is truncated");
+        }
+        catch (JournalException e) {
+            throw e;
+        }
+        catch (GeneralBankException | IllegalArgumentException | DateTimeException e) {
+            throw JournalException.corrupted("record contains invalid value: " + e.getMessage());
+        }
+    }
+
+    private static void writeTransactionCommitted(DataOutputStream output, JournalRecord.TransactionCommitted committed) throws IOException {
+        writeUuid(output, committed.transactionId());
+        output.writeInt(committed.legs().size());
+        for (JournalRecord.Leg leg : committed.legs()) {
+            writeAccountId(output, leg.accountId());
+            output.writeLong(leg.sum());
+            writeUuid(output, leg.transactionEntityId());
+        }
+    }
+
+    private static JournalRecord.BatchCommitted readBatchCommitted(DataInputStream input) throws IOException {
+        int size = readSize(input);
+        List<JournalRecord.TransactionCommitted> transactions = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            transactions.add(readTransactionCommitted(input));
+        }
+
+        return new JournalRecord.BatchCommitted(transactions);
+    }
+
+    private static JournalRecord.TransactionCommitted readTransactionCommitted(DataInputStream input) throws IOException {
+        UUID transactionId = readUuid(input);
+        int size = readSize(input);
+        List<JournalRecord.Leg> legs = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            legs.add(new JournalRecord.Leg(readAccountId(input), input.readLong(), readUuid(input)));
+        }
+
+        return new JournalRecord.TransactionCommitted(transactionId, legs);
+    }
+
+    static void writeTariffStats(DataOutputStream output, TariffStats stats) throws IOException {
+        output.writeInt(stats.depositPercentages().size());
+        for (BalanceInterval interval : stats.depositPercentages()) {
+            writeBigDecimal(output, interval.lowerBound());
+            writeBigDecimal(output, interval.upperBound());
+            writeBigDecimal(output, interval.interestRate());
+        }
+        output.writeUTF(stats.name());
+        output.writeUTF(stats.accountType());
+        writeBigDecimal(output, stats.balanceInterest());
+        writeBigDecimal(output, stats.negativeBalanceOperationTax());
+        writeBigDecimal(output, stats.minimalBalance());
+        output.writeLong(stats.addOnlyPeriod().getSeconds());
+        output.writeInt(stats.addOnlyPeriod().getNano());
+        writeUuid(output, stats.id());
+    }
+
+    static TariffStats readTariffStats(DataInputStream input) throws IOException {
+        int size = readSize(input);
+        List<BalanceInterval> depositPercentages = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            depositPercentages.add(new BalanceInterval(readBigDecimal(input), readBigDecimal(input), readBigDecimal(input)));
+        }
+
+        return new TariffStats(depositPercentages,
+                input.readUTF(),
+                input.readUTF(),
+                readBigDecimal(input),
+                readBigDecimal(input),
+                readBigDecimal(input),
+                Duration.ofSeconds(input.readLong(), input.readInt()),
+                readUuid(input));
+    }
+
+    static void writeClientInformation(DataOutputStream output, ClientInformation information) throws IOException {
+        output.writeUTF(information.name());
+        output.writeUTF(information.surname());
+
+        output.writeBoolean(information.address() != null);
+        if (information.address() != null) {
+            output.writeUTF(information.address().get_street());
+            output.writeInt(information.address().get_building());
+        }
+
+        output.writeBoolean(information.passport() != null);
+        if (information.passport() != null) {
+            output.writeInt(information.passport().getSeries());
+            output.writeInt(information.passport().getNumber());
+        }
+
+        output.writeBoolean(information.emailImpl() != null);
+        if (information.emailImpl() != null) {
+            output.writeUTF(information.emailImpl().getAddress());
+        }
+    }
+
+    static ClientInformation readClientInformation(DataInputStream input) throws IOException {
+        String name = input.readUTF();
+        String surname = input.readUTF();
+        Address address = input.readBoolean() ? new Address(input.readUTF(), input.readInt()) : null;
+        Passport passport = input.readBoolean()
+                ? new Passport(zeroPadded(input.readInt(), Passport.SERIES_LENGTH), zeroPadded(input.readInt(), Passport.NUMBER_LENGTH))
+                : null;
+        EmailImpl email = input.readBoolean() ? new EmailImpl(input.readUTF()) : null;
+
+        return new ClientInformation(name, surname, address, passport, email);
+    }
+
+    private static String zeroPadded(int value, int length) {
+        return String.format("%0" + length + "d", value);
+    }
+
+    static void writeAccountId(DataOutputStream output, AccountId accountId) throws IOException {
+        writeUuid(output, accountId.accountId());
+        writeUuid(output, accountId.bankId().BankId());
+    }
+
+    static AccountId readAccountId(DataInputStream input) throws IOException {
+        return new AccountId(readUuid(input), new BankId(readUuid(input)));
+    }
+
+    static void writeUuid(DataOutputStream output, UUID uuid) throws IOException {
+        output.writeLong(uuid.getMostSignificantBits());
+        output.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    static UUID readUuid(DataInputStream input) throws IOException {
+        return new UUID(input.readLong(), input.readLong());
+    }
+
+    static void writeDateTime(DataOutputStream output, LocalDateTime dateTime) throws IOException {
+        output.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+        output.writeInt(dateTime.getNano());
+    }
+
+    static LocalDateTime readDateTime(DataInputStream input) throws IOException {
+        return LocalDateTime.ofEpochSecond(input.readLong(), input.readInt(), ZoneOffset.UTC);
+    }
+
+    private static void writeBigDecimal(DataOutputStream output, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        output.writeInt(value.scale());
+        output.writeInt(unscaled.length);
+        output.write(unscaled);
+    }
+
+    private static BigDecimal readBigDecimal(DataInputStream input) throws IOException {
+        int scale = input.readInt();
+        int size = readSize(input);
+        if (size == 0 || size > MAX_NUMBER_SIZE) {
+            throw JournalException.corrupted("invalid number size " + size);
+        }
+
+        byte[] unscaled = new byte[size];
+        input.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    static int readSize(DataInputStream input) throws IOException {
+        int size = input.readInt();
+        if (size < 0) {
+            throw JournalException.corrupted("invalid size " + size);
+        }
+
+        return size;
+    }
+}
@@ -0,0 +1,10 @@
+package ru.Khalilov.banks.domain.journal;
+
+/**
+ * Position in {@link Journal} right after some record
+ * @param sequence - sequence number of the record, 0 if position is before the first record
+ * @param offset - implementation specific offset of the end of the record, used to start replay without reading
+ *               previous records
+ */
+public record JournalPosition(long sequence, long offset) {
+}
@@ -0,0 +1,123 @@
+package ru.Khalilov.banks.domain.journal;
+
+import lombok.NonNull;
+import ru.Khalilov.banks.domain.models.AccountId;
+import ru.Khalilov.banks.domain.models.BankId;
+import ru.Khalilov.banks.domain.models.ClientInformation;
+import ru.Khalilov.banks.domain.models.TariffStats;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Record of a single change stored in {@link Journal}. Every record contains ids of all entities it touches, so it can
+ * be applied again to rebuild the same state. Sums are stored in minor units (see {@link ru.Khalilov.banks.domain.models.Money})
+ */
+public sealed interface JournalRecord {
+    /**
+     * First record of every journal
+     * @param centralBankId - id of central bank
+     * @param dateTime - clock time when central bank was started
+     */
+    record CentralBankStarted(@NonNull UUID centralBankId, @NonNull LocalDateTime dateTime) implements JournalRecord {
+    }
+
+    /**
+     * New bank was created
+     * @param bankId - id of bank
+     * @param transactionLimitForDoubtfulClients - limit for doubtful clients in minor units
+     */
+    record BankCreated(@NonNull BankId bankId, long transactionLimitForDoubtfulClients) implements JournalRecord {
+    }
+
+    /**
+     * Limit for transactions of doubtful clients was changed
+     * @param bankId - id of bank
+     * @param transactionLimitForDoubtfulClients - new limit in minor units
+     */
+    record TransactionLimitChanged(@NonNull BankId bankId, long transactionLimitForDoubtfulClients) implements JournalRecord {
+    }
+
+    /**
+     * New tariff was added to bank
+     * @param bankId - id of bank
+     * @param tariffStats - stats of new tariff
+     */
+    record TariffAdded(@NonNull BankId bankId, @NonNull TariffStats tariffStats) implements JournalRecord {
+    }
+
+    /**
+     * Tariff stats were changed
+     * @param bankId - id of bank
+     * @param tariffId - id of tariff before change
+     * @param tariffStats - new stats
+     */
+    record TariffChanged(@NonNull BankId bankId, @NonNull UUID tariffId, @NonNull TariffStats tariffStats) implements JournalRecord {
+    }
+
+    /**
+     * New client was added to bank
+     * @param bankId - id of bank
+     * @param clientId - id of client
+     * @param clientInformation - information about client
+     */
+    record ClientAdded(@NonNull BankId bankId, @NonNull UUID clientId, @NonNull ClientInformation clientInformation) implements JournalRecord {
+    }
+
+    /**
+     * Information about client was changed
+     * @param bankId - id of bank
+     * @param clientId - id of client
+     * @param clientInformation - new information
+     */
+    record ClientChanged(@NonNull BankId bankId, @NonNull UUID clientId, @NonNull ClientInformation clientInformation) implements JournalRecord {
+    }
+
+    /**
+     * New account was created
+     * @param accountId - id of account
+     * @param clientId - id of owner
+     * @param tariffId - id of chosen tariff
+     */
+    record AccountCreated(@NonNull AccountId accountId, @NonNull UUID clientId, @NonNull UUID tariffId) implements JournalRecord {
+    }
+
+    /**
+     * Transaction was committed
+     * @param transactionId - id of transaction
+     * @param legs - changes of account balances in order they were applied
+     */
+    record TransactionCommitted(@NonNull UUID transactionId, @NonNull List<Leg> legs) implements JournalRecord {
+    }
+
+    /**
+     * Single change of account balance, stored part of {@link ru.Khalilov.banks.domain.models.TransactionEntity}
+     * @param accountId - id of account
+     * @param sum - sum added to balance in minor units
+     * @param transactionEntityId - id of transaction entity
+     */
+    record Leg(@NonNull AccountId accountId, long sum, @NonNull UUID transactionEntityId) {
+    }
+
+    /**
+     * Batch of transactions was committed at once, so either all of them are journaled or none
+     * @param transactions - committed transactions in order they were applied
+     */
+    record BatchCommitted(@NonNull List<TransactionCommitted> transactions) implements JournalRecord {
+    }
+
+    /**
+     * Transaction was canceled
+     * @param transactionId - id of transaction
+     */
+    record TransactionCancelled(@NonNull UUID transactionId) implements JournalRecord {
+    }
+
+    /**
+     * Clock was forwarded
+     * @param dateTime - clock time after forwarding
+     */
+    record ClockForwarded(@NonNull LocalDateTime dateTime) implements JournalRecord {
+    }
+}
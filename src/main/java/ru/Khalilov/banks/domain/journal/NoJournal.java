@@ -0,0 +1,49 @@
+package ru.Khalilov.banks.domain.journal;
+
+import lombok.NonNull;
+
+import java.util.function.Consumer;
+
+/**
+ * Journal which discards all records. Used when state doesn't have to survive restart
+ */
+public final class NoJournal implements Journal {
+    /**
+     * The only instance of this journal
+     */
+    public static final NoJournal INSTANCE = new NoJournal();
+
+    private NoJournal() {
+    }
+
+    @Override
+    public long append(@NonNull JournalRecord record) {
+        return 0;
+    }
+
+    @Override
+    public void awaitDurable(long sequence) {
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return true;
+    }
+
+    @Override
+    public @NonNull JournalPosition position() {
+        return new JournalPosition(0, 0);
+    }
+
+    @Override
+    public void replay(@NonNull Consumer<JournalRecord> consumer) {
+    }
+
+    @Override
+    public void replay(@NonNull JournalPosition after, @NonNull Consumer<JournalRecord> consumer) {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,264 @@
+package ru.Khalilov.banks.domain.journal;
+
+import lombok.NonNull;
+import ru.Khalilov.banks.domain.exceptions.GeneralBankException;
+import ru.Khalilov.banks.domain.exceptions.JournalException;
+import ru.Khalilov.banks.domain.models.AccountHistoryEntry;
+import ru.Khalilov.banks.domain.models.BankId;
+import ru.Khalilov.banks.domain.models.TariffStats;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Stores {@link CentralBankSnapshot} in a binary file: magic number and version, snapshot fields in order of declaration
+ * (collections are prefixed with their size) and CRC32 of everything before it. File is written next to the target
+ * under temporary name, synced and then atomically moved over the previous snapshot, so crash during writing leaves
+ * the previous snapshot intact. Files of any other version are rejected.
+ */
+public final class SnapshotFile {
+    private static final int MAGIC = 0x424E4B53;
+    private static final int VERSION = 5;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Writes snapshot to given file, replacing previous one
+     * @param path - path to snapshot file
+     * @param snapshot - snapshot to write
+     * @throws JournalException - if snapshot can't be written
+     */
+    public static void write(@NonNull Path path, @NonNull CentralBankSnapshot snapshot) throws JournalException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            BufferedOutputStream buffered = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+            CRC32 checksum = new CRC32();
+            DataOutputStream output = new DataOutputStream(new CheckedOutputStream(buffered, checksum));
+
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            writeSnapshot(output, snapshot);
+            output.flush();
+
+            new DataOutputStream(buffered).writeLong(checksum.getValue());
+            buffered.flush();
+            channel.force(true);
+        }
+        catch (IOException e) {
+            throw JournalException.ioFailure(e);
+        }
+
+        try {
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (IOException e) {
+            throw JournalException.ioFailure(e);
+        }
+        syncDirectory(path);
+    }
+
+    /**
+     * Reads snapshot from given file
+     * @param path - path to snapshot file
+     * @return read snapshot
+     * @throws JournalException - if file can't be read or is damaged
+     */
+    public static @NonNull CentralBankSnapshot read(@NonNull Path path) throws JournalException {
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE)) {
+            CRC32 checksum = new CRC32();
+            DataInputStream input = new DataInputStream(new CheckedInputStream(file, checksum));
+
+            if (input.readInt() != MAGIC) {
+                throw JournalException.corrupted("file isn't a snapshot");
+            }
+            int version = input.readInt();
+            if (version != VERSION) {
+                throw JournalException.corrupted("unsupported snapshot version " + version);
+            }
+
+            CentralBankSnapshot snapshot = readSnapshot(input);
+            long expected = checksum.getValue();
+            if (input.readLong() != expected || input.read() != -1) {
+                throw JournalException.corrupted("snapshot checksum doesn't match");
+            }
+
+            return snapshot;
+        }
+        catch (EOFException e) {
+            throw JournalException.corrupted("snapshot is truncated");
+        }
+        catch (IOException e) {
+            throw JournalException.ioFailure(e);
+        }
+        catch (JournalException e) {
+            throw e;
+        }
+        catch (GeneralBankException | IllegalArgumentException | DateTimeException e) {
+            throw JournalException.corrupted("snapshot contains invalid value: " + e.getMessage());
+        }
+    }
+
+    private static void writeSnapshot(DataOutputStream output, CentralBankSnapshot snapshot) throws IOException {
+        JournalCodec.writeUuid(output, snapshot.centralBankId());
+        JournalCodec.writeDateTime(output, snapshot.dateTime());
+        output.writeLong(snapshot.journalPosition().sequence());
+        output.writeLong(snapshot.journalPosition().offset());
+
+        output.writeInt(snapshot.banks().size());
+        for (CentralBankSnapshot.BankState bank : snapshot.banks()) {
+            JournalCodec.writeUuid(output, bank.bankId().BankId());
+            output.writeLong(bank.transactionLimitForDoubtfulClients());
+            output.writeLong(bank.journalSequence());
+
+            output.writeInt(bank.tariffs().size());
+            for (TariffStats tariff : bank.tariffs()) {
+                JournalCodec.writeTariffStats(output, tariff);
+            }
+
+            output.writeInt(bank.clients().size());
+            for (CentralBankSnapshot.ClientState client : bank.clients()) {
+                JournalCodec.writeUuid(output, client.clientId());
+                JournalCodec.writeClientInformation(output, client.clientInformation());
+                output.writeInt(client.accounts().size());
+                for (CentralBankSnapshot.AccountState account : client.accounts()) {
+                    writeAccount(output, account);
+                }
+            }
+        }
+
+        output.writeInt(snapshot.activeTransactions().size());
+        for (CentralBankSnapshot.TransactionState transaction : snapshot.activeTransactions()) {
+            JournalCodec.writeUuid(output, transaction.transactionId());
+            output.writeInt(transaction.legs().size());
+            for (JournalRecord.Leg leg : transaction.legs()) {
+                JournalCodec.writeAccountId(output, leg.accountId());
+                output.writeLong(leg.sum());
+                JournalCodec.writeUuid(output, leg.transactionEntityId());
+            }
+        }
+    }
+
+    private static CentralBankSnapshot readSnapshot(DataInputStream input) throws IOException {
+        UUID centralBankId = JournalCodec.readUuid(input);
+        var dateTime = JournalCodec.readDateTime(input);
+        JournalPosition journalPosition = new JournalPosition(input.readLong(), input.readLong());
+
+        int bankCount = JournalCodec.readSize(input);
+        List<CentralBankSnapshot.BankState> banks = new ArrayList<>();
+        for (int i = 0; i < bankCount; i++) {
+            BankId bankId = new BankId(JournalCodec.readUuid(input));
+            long limit = input.readLong();
+            long bankSequence = input.readLong();
+
+            int tariffCount = JournalCodec.readSize(input);
+            List<TariffStats> tariffs = new ArrayList<>();
+            for (int j = 0; j < tariffCount; j++) {
+                tariffs.add(JournalCodec.readTariffStats(input));
+            }
+
+            int clientCount = JournalCodec.readSize(input);
+            List<CentralBankSnapshot.ClientState> clients = new ArrayList<>();
+            for (int j = 0; j < clientCount; j++) {
+                UUID clientId = JournalCodec.readUuid(input);
+                var clientInformation = JournalCodec.readClientInformation(input);
+                int accountCount = JournalCodec.readSize(input);
+                List<CentralBankSnapshot.AccountState> accounts = new ArrayList<>();
+                for (int k = 0; k < accountCount; k++) {
+                    accounts.add(readAccount(input));
+                }
+                clients.add(new CentralBankSnapshot.ClientState(clientId, clientInformation, accounts));
+            }
+
+            banks.add(new CentralBankSnapshot.BankState(bankId, limit, tariffs, clients, bankSequence));
+        }
+
+        int transactionCount = JournalCodec.readSize(input);
+        List<CentralBankSnapshot.TransactionState> transactions = new ArrayList<>();
+        for (int i = 0; i < transactionCount; i++) {
+            UUID transactionId = JournalCodec.readUuid(input);
+            int legCount = JournalCodec.readSize(input);
+            List<JournalRecord.Leg> legs = new ArrayList<>();
+            for (int j = 0; j < legCount; j++) {
+                legs.add(new JournalRecord.Leg(JournalCodec.readAccountId(input), input.readLong(), JournalCodec.readUuid(input)));
+            }
+            transactions.add(new CentralBankSnapshot.TransactionState(transactionId, legs));
+        }
+
+        return new CentralBankSnapshot(centralBankId, dateTime, journalPosition, banks, transactions);
+    }
+
+    private static void writeAccount(DataOutputStream output, CentralBankSnapshot.AccountState account) throws IOException {
+        JournalCodec.writeAccountId(output, account.accountId());
+        JournalCodec.writeUuid(output, account.tariffId());
+        JournalCodec.writeDateTime(output, account.creationTime());
+        output.writeInt(account.monthlyUpdateTime());
+        JournalCodec.writeDateTime(output, account.previousUpdateTime());
+        output.writeLong(account.balance());
+        output.writeLong(account.accumulator());
+        output.writeInt(account.transactionEntityIds().size());
+        for (UUID id : account.transactionEntityIds()) {
+            JournalCodec.writeUuid(output, id);
+        }
+        output.writeInt(account.history().size());
+        for (AccountHistoryEntry entry : account.history()) {
+            JournalCodec.writeDateTime(output, entry.time());
+            output.writeLong(entry.amount());
+            output.writeLong(entry.balance());
+            JournalCodec.writeUuid(output, entry.transactionId());
+        }
+        output.writeLong(account.journalSequence());
+    }
+
+    private static CentralBankSnapshot.AccountState readAccount(DataInputStream input) throws IOException {
+        var accountId = JournalCodec.readAccountId(input);
+        UUID tariffId = JournalCodec.readUuid(input);
+        var creationTime = JournalCodec.readDateTime(input);
+        int monthlyUpdateTime = input.readInt();
+        var previousUpdateTime = JournalCodec.readDateTime(input);
+        long balance = input.readLong();
+        long accumulator = input.readLong();
+        int idCount = JournalCodec.readSize(input);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < idCount; i++) {
+            ids.add(JournalCodec.readUuid(input));
+        }
+        int historySize = JournalCodec.readSize(input);
+        List<AccountHistoryEntry> history = new ArrayList<>();
+        for (int i = 0; i < historySize; i++) {
+            history.add(new AccountHistoryEntry(JournalCodec.readDateTime(input), input.readLong(), input.readLong(), JournalCodec.readUuid(input)));
+        }
+        long accountSequence = input.readLong();
+
+        return new CentralBankSnapshot.AccountState(accountId, tariffId, creationTime, monthlyUpdateTime, previousUpdateTime, balance, accumulator, ids, history, accountSequence);
+    }
+
+    /**
+     * Syncs directory so that move of snapshot file survives crash. Not every platform allows it, so failures are ignored
+     */
+    private static void syncDirectory(Path path) {
+        Path directory = path.toAbsolutePath().getParent();
+        if (directory == null) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+        catch (IOException ignored) {
+        }
+    }
+}
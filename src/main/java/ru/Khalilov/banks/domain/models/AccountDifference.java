@@ -1,11 +1,9 @@
 package ru.Khalilov.banks.domain.models;
 
-import java.math.BigDecimal;
-
 /**
  * Used to pass differences in account's balance and accumulator after some calculations
- * @param balanceDiff - difference in balance
- * @param accumulatedDiff - difference in accumulator
+ * @param balanceDiff - difference in balance, in minor units (see {@link Money})
+ * @param accumulatedDiff - difference in accumulator, in minor units (see {@link Money})
  */
-public record AccountDifference(BigDecimal balanceDiff, BigDecimal accumulatedDiff) {
+public record AccountDifference(long balanceDiff, long accumulatedDiff) {
 }
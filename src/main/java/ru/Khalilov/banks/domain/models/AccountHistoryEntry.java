@@ -0,0 +1,18 @@
+package ru.Khalilov.banks.domain.models;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One change of account balance made by transaction or its cancellation
+ * @param time - clock time of change
+ * @param amount - sum by which balance was changed, in minor units (see {@link Money}). Negative for decrease of balance
+ * @param balance - balance right after change, in minor units
+ * @param transactionId - id of transaction that made the change
+ */
+public record AccountHistoryEntry(LocalDateTime time, long amount, long balance, UUID transactionId) {
+    @Override
+    public String toString() {
+        return time + " | " + Money.toBigDecimal(amount) + " | balance " + Money.toBigDecimal(balance) + " | " + transactionId;
+    }
+}
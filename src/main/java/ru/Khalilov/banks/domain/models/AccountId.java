@@ -4,10 +4,16 @@ import java.util.UUID;
 
 /**
  * Container for account id. Since account depends on bank, it made of bankId and UUID of this account.
+ * Account ids are ordered by bank id first and then by account UUID. This order is used to lock several accounts without deadlocks.
  *
  * @param accountId UUID of account
  * @param bankId    ID of bank that contains this account
  * @see UUID
  */
-public record AccountId(UUID accountId, ru.Khalilov.banks.domain.models.BankId bankId) {
+public record AccountId(UUID accountId, ru.Khalilov.banks.domain.models.BankId bankId) implements Comparable<AccountId> {
+    @Override
+    public int compareTo(AccountId other) {
+        int bankComparison = bankId.BankId().compareTo(other.bankId.BankId());
+        return bankComparison != 0 ? bankComparison : accountId.compareTo(other.accountId);
+    }
 }
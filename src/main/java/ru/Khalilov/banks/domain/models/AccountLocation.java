@@ -0,0 +1,14 @@
+package ru.Khalilov.banks.domain.models;
+
+import ru.Khalilov.banks.domain.entities.Account;
+import ru.Khalilov.banks.domain.entities.Bank;
+import ru.Khalilov.banks.domain.entities.Client;
+
+/**
+ * Index entry that resolves account id to all objects involved in posting to this account
+ * @param bank - {@link Bank} that contains account
+ * @param client - {@link Client} who owns account
+ * @param account - the {@link Account} itself
+ */
+public record AccountLocation(Bank bank, Client client, Account account) {
+}
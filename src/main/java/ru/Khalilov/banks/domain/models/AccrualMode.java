@@ -0,0 +1,16 @@
+package ru.Khalilov.banks.domain.models;
+
+/**
+ * Describes when interest of accounts is brought up to date
+ */
+public enum AccrualMode {
+    /**
+     * Accounts are updated on their payout days by the bank's clock subscriber, and lazily in between
+     */
+    EAGER,
+    /**
+     * Bank doesn't subscribe to the clock at all, so forwarding clock doesn't depend on amount of accounts. Accounts are
+     * updated only when they are read, posted to or swept
+     */
+    LAZY
+}
@@ -19,12 +19,13 @@ public record BalanceInterval(BigDecimal lowerBound, BigDecimal upperBound, BigD
     }
 
     /**
-     * Checks if 2 balance intervals are intersecting each other
+     * Checks if 2 balance intervals are intersecting each other. Intervals sharing only a bound don't intersect, since
+     * upper bound isn't included
      * @param other - second interval
      * @return true if intervals intersects, false otherwise
      */
     public boolean isIntersects(BalanceInterval other) {
-        return !(lowerBound.compareTo(other.upperBound) > 0 || upperBound.compareTo(other.lowerBound) < 0);
+        return lowerBound.compareTo(other.upperBound) < 0 && other.lowerBound.compareTo(upperBound) < 0;
     }
 
 }
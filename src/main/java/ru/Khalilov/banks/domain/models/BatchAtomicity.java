@@ -0,0 +1,15 @@
+package ru.Khalilov.banks.domain.models;
+
+/**
+ * Describes how batch of postings is applied when some of them can't be committed
+ */
+public enum BatchAtomicity {
+    /**
+     * Either every posting of batch is committed, or none of them
+     */
+    ALL_OR_NOTHING,
+    /**
+     * Postings are committed one by one, and failed ones are reported without affecting others
+     */
+    PER_ITEM
+}
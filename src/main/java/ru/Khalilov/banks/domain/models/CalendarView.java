@@ -0,0 +1,81 @@
+package ru.Khalilov.banks.domain.models;
+
+import lombok.NonNull;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Calendar facts about one month, computed once so that accrual code can query them without allocating
+ * @param year - year of the month
+ * @param month - number of the month, from 1 to 12
+ * @param daysInYear - amount of days in the year
+ * @param daysInMonth - amount of days in the month
+ * @param monthStartDayOfYear - day of year of the first day of the month
+ * @param firstDayOfMonth - the first day of the month
+ * @param lastDayOfMonth - the last day of the month
+ * @param lastDayOfYear - the last day of the year
+ */
+public record CalendarView(
+        int year,
+        int month,
+        int daysInYear,
+        int daysInMonth,
+        int monthStartDayOfYear,
+        LocalDate firstDayOfMonth,
+        LocalDate lastDayOfMonth,
+        LocalDate lastDayOfYear) {
+
+    /**
+     * Creates view of the month containing given date
+     * @param date - any date of the month
+     * @return view of the month
+     */
+    public static @NonNull CalendarView of(@NonNull LocalDate date) {
+        LocalDate firstDayOfMonth = date.withDayOfMonth(1);
+        return new CalendarView(date.getYear(),
+                date.getMonthValue(),
+                date.lengthOfYear(),
+                date.lengthOfMonth(),
+                firstDayOfMonth.getDayOfYear(),
+                firstDayOfMonth,
+                date.withDayOfMonth(date.lengthOfMonth()),
+                date.withDayOfYear(date.lengthOfYear()));
+    }
+
+    /**
+     * Checks if given date belongs to the month of this view
+     * @param date - date to check
+     * @return true if date belongs to the month, false otherwise
+     */
+    public boolean contains(@NonNull LocalDate date) {
+        return date.getYear() == year && date.getMonthValue() == month;
+    }
+
+    /**
+     * Checks if given date and time belongs to the month of this view
+     * @param dateTime - date and time to check
+     * @return true if date and time belongs to the month, false otherwise
+     */
+    public boolean contains(@NonNull LocalDateTime dateTime) {
+        return dateTime.getYear() == year && dateTime.getMonthValue() == month;
+    }
+
+    /**
+     * Returns day of year of given day of the month
+     * @param dayOfMonth - day of the month
+     * @return day of year
+     */
+    public int dayOfYear(int dayOfMonth) {
+        return monthStartDayOfYear + dayOfMonth - 1;
+    }
+
+    /**
+     * Checks if given day is the last day of the month
+     * @param dayOfMonth - day of the month
+     * @return true if it is the last day, false otherwise
+     */
+    public boolean isLastDayOfMonth(int dayOfMonth) {
+        return dayOfMonth == daysInMonth;
+    }
+}
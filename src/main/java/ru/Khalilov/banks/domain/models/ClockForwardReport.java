@@ -0,0 +1,14 @@
+package ru.Khalilov.banks.domain.models;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Timing of one clock forward made by {@link ru.Khalilov.banks.domain.entities.ParallelManualClockImpl}
+ * @param subscribers - amount of notified subscribers, after they were expanded (see
+ *                    {@link ru.Khalilov.banks.domain.entities.ClockSubscriber#expand()})
+ * @param batchDurations - time spent by each batch of subscribers, in order of batches
+ * @param total - time from start of notification until the last batch finished
+ */
+public record ClockForwardReport(int subscribers, List<Duration> batchDurations, Duration total) {
+}
@@ -0,0 +1,113 @@
+package ru.Khalilov.banks.domain.models;
+
+import lombok.NonNull;
+import ru.Khalilov.banks.domain.exceptions.TariffException;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable table of deposit interest rates, sorted by lower bound of balance. Bounds are kept in minor units and rates
+ * as {@link InterestRate}, so rate for a balance is found by binary search without {@link java.math.BigDecimal}
+ * arithmetic. Table is also an unmodifiable list of its intervals in order of bounds.
+ * Intervals are half-open, [lowerBound, upperBound), so adjacent tiers may share a bound.
+ */
+public final class DepositRateTable extends AbstractList<BalanceInterval> implements RandomAccess {
+    private static final DepositRateTable EMPTY = new DepositRateTable(new BalanceInterval[0]);
+
+    private final BalanceInterval[] intervals;
+    private final long[] lowerBounds;
+    private final long[] upperBounds;
+    private final InterestRate[] rates;
+
+    private DepositRateTable(BalanceInterval[] sortedIntervals) {
+        this.intervals = sortedIntervals;
+        this.lowerBounds = new long[sortedIntervals.length];
+        this.upperBounds = new long[sortedIntervals.length];
+        this.rates = new InterestRate[sortedIntervals.length];
+        for (int i = 0; i < sortedIntervals.length; i++) {
+            lowerBounds[i] = Money.toMinorUnits(sortedIntervals[i].lowerBound());
+            upperBounds[i] = Money.toMinorUnits(sortedIntervals[i].upperBound());
+            rates[i] = InterestRate.of(sortedIntervals[i].interestRate());
+        }
+    }
+
+    /**
+     * Builds table of given intervals. Given table is returned as is
+     * @param intervals - intervals in any order
+     * @return table of given intervals
+     * @throws TariffException - if some intervals intersect
+     */
+    public static @NonNull DepositRateTable of(@NonNull List<BalanceInterval> intervals) throws TariffException {
+        if (intervals instanceof DepositRateTable table) {
+            return table;
+        }
+        if (intervals.isEmpty()) {
+            return EMPTY;
+        }
+
+        BalanceInterval[] sorted = intervals.toArray(new BalanceInterval[0]);
+        Arrays.sort(sorted, Comparator.comparing(BalanceInterval::lowerBound));
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i - 1].isIntersects(sorted[i])) {
+                throw TariffException.depositIntervalsIntersects();
+            }
+        }
+
+        return new DepositRateTable(sorted);
+    }
+
+    /**
+     * Finds rate of interval containing given balance
+     * @param balance - balance in minor units
+     * @param defaultRate - rate returned if no interval contains balance
+     * @return rate of interval containing balance, or default rate
+     */
+    public @NonNull InterestRate findRate(long balance, @NonNull InterestRate defaultRate) {
+        int index = findInterval(balance);
+        return index < 0 ? defaultRate : rates[index];
+    }
+
+    /**
+     * Return rate of interval with given index
+     * @param index - index of interval
+     * @return rate of interval
+     */
+    public @NonNull InterestRate rate(int index) {
+        return rates[index];
+    }
+
+    /**
+     * Finds index of interval containing given balance
+     * @param balance - balance in minor units
+     * @return index of interval containing balance, or -1 if there is no such interval
+     */
+    public int findInterval(long balance) {
+        int low = 0;
+        int high = lowerBounds.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (lowerBounds[middle] <= balance) {
+                low = middle + 1;
+            }
+            else {
+                high = middle - 1;
+            }
+        }
+
+        return high >= 0 && balance < upperBounds[high] ? high : -1;
+    }
+
+    @Override
+    public BalanceInterval get(int index) {
+        return intervals[index];
+    }
+
+    @Override
+    public int size() {
+        return intervals.length;
+    }
+}
@@ -1,67 +1,170 @@
 package ru.Khalilov.banks.domain.models;
 
 import lombok.Getter;
+import lombok.NonNull;
 import ru.Khalilov.banks.domain.entities.TariffSubscriber;
 import ru.Khalilov.banks.domain.exceptions.EmailException;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
 
 /**
- * Model of email with incoming messages. Implements interface {@link TariffSubscriber}
+ * Model of email with incoming messages. Implements interface {@link TariffSubscriber}. Messages may be delivered from
+ * threads of {@link ru.Khalilov.banks.domain.entities.NotificationDispatcher}, so access to them is synchronized.
+ * Mailbox is a ring buffer of limited capacity: when it is full, the oldest message is dropped. Messages older than
+ * maximal age relative to the latest received message are dropped too. Texts of messages are pooled, so subscribers of
+ * one tariff share one copy of notification text.
  */
 public class EmailImpl implements TariffSubscriber {
-    private final List<Message> messages;
+    public static final int DEFAULT_CAPACITY = 100;
+    public static final Duration DEFAULT_MAX_AGE = Duration.ofDays(365);
+
+    private final Message[] messages;
+    private int first;
+    private int size;
     @Getter
     private final String address;
+    @Getter
+    private final Duration maxAge;
 
     /**
-     * Constructs new email with given address and no received messages. Checks address for validity.
+     * Constructs new email with given address, no received messages and default limits of mailbox. Checks address for validity.
      * @param address - given address
      * @throws EmailException in case of invalid address
      * @see Address
      */
     public EmailImpl(String address) throws EmailException {
+        this(address, DEFAULT_CAPACITY, DEFAULT_MAX_AGE);
+    }
+
+    /**
+     * Constructs new email with given address, no received messages and given limits of mailbox. Checks address for validity.
+     * @param address - given address
+     * @param capacity - maximal amount of kept messages
+     * @param maxAge - maximal age of kept message relative to the latest one
+     * @throws EmailException in case of invalid address or limits
+     */
+    public EmailImpl(String address, int capacity, @NonNull Duration maxAge) throws EmailException {
         if (!EmailImpl.isValid(address)) {
             throw EmailException.InvalidAddress(address);
         }
+        if (capacity <= 0) {
+            throw EmailException.notPositiveCapacity(capacity);
+        }
+        if (maxAge.isNegative()) {
+            throw EmailException.negativeMaxAge(maxAge);
+        }
+
         this.address = address;
-        messages = new ArrayList<>();
+        this.maxAge = maxAge;
+        messages = new Message[capacity];
+    }
+
+    /**
+     * Returns kept messages from the oldest to the latest
+     * @return kept messages from the oldest to the latest
+     */
+    public synchronized List<Message> getMessages() {
+        List<Message> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(get(i));
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns page of kept messages from the oldest to the latest
+     * @param offset - amount of messages to skip
+     * @param limit - maximal amount of messages to return
+     * @return page of kept messages
+     * @throws EmailException - if offset or limit is negative
+     */
+    public synchronized List<Message> getMessages(int offset, int limit) throws EmailException {
+        if (offset < 0 || limit < 0) {
+            throw EmailException.invalidPage(offset, limit);
+        }
+
+        int end = (int) Math.min(size, (long) offset + limit);
+        List<Message> result = new ArrayList<>(Math.max(end - offset, 0));
+        for (int i = offset; i < end; i++) {
+            result.add(get(i));
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns amount of kept messages
+     * @return amount of kept messages
+     */
+    public synchronized int getMessageCount() {
+        return size;
     }
 
-    public List<Message> getMessages() {
-        return Collections.unmodifiableList(messages);
+    /**
+     * Returns maximal amount of kept messages
+     * @return maximal amount of kept messages
+     */
+    public int getCapacity() {
+        return messages.length;
     }
 
     /**
-     * Saves received message
+     * Saves received message, dropping the oldest one if mailbox is full and messages which became too old
      * @param message - received message
      */
-    public void receiveMessage(Message message)
+    public synchronized void receiveMessage(Message message)
     {
-        messages.add(message);
+        message = MessageTextPool.intern(message);
+        if (size == messages.length) {
+            messages[first] = null;
+            first = next(first);
+            size--;
+        }
+        messages[(first + size) % messages.length] = message;
+        size++;
+
+        var oldestAllowed = message.dateTime().minus(maxAge);
+        while (size > 1 && messages[first].dateTime().isBefore(oldestAllowed)) {
+            messages[first] = null;
+            first = next(first);
+            size--;
+        }
     }
 
     /**
      * Creates string containing all received messages
      * @return string containing all received messages
      */
-    public String toStringAll() {
-        return Stream.of(messages).collect( String::new, (result, item) -> result += item.toString() + "\n", (res1, res2) -> res1 += res2);
+    public synchronized String toStringAll() {
+        StringBuilder builder = new StringBuilder();
+        try {
+            for (int i = 0; i < size; i++) {
+                get(i).render(builder);
+                builder.append('\n');
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return builder.toString();
     }
 
     /**
      * Creates string with the latest received message
      * @return string with the latest received message
      */
-    public String toStringLast() {
-        if (messages.isEmpty()) {
+    public synchronized String toStringLast() {
+        if (size == 0) {
             return new String();
         }
-        return messages.get(messages.size() - 1).toString();
+        return get(size - 1).toString();
     }
 
     /**
@@ -81,4 +184,12 @@ public class EmailImpl implements TariffSubscriber {
     public static boolean isValid(String address) {
         return Pattern.compile("^(.+)@(\\S+)$").matcher(address).matches();
     }
+
+    private Message get(int index) {
+        return messages[(first + index) % messages.length];
+    }
+
+    private int next(int index) {
+        return index + 1 == messages.length ? 0 : index + 1;
+    }
 }
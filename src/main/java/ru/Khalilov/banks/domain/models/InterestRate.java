@@ -0,0 +1,40 @@
+package ru.Khalilov.banks.domain.models;
+
+import lombok.NonNull;
+import ru.Khalilov.banks.domain.exceptions.MoneyException;
+
+import java.math.BigDecimal;
+
+/**
+ * Annual interest rate stored as exact fraction of two {@code long}s, so that interest is calculated in minor units
+ * (see {@link Money}) without {@link BigDecimal} arithmetic
+ * @param numerator - unscaled value of rate
+ * @param denominator - power of ten rate is scaled by
+ */
+public record InterestRate(long numerator, long denominator) {
+    /**
+     * Converts rate to exact fraction
+     * @param rate - annual interest rate
+     * @return rate as fraction
+     * @throws MoneyException - if rate has too many digits to be stored in {@code long}
+     */
+    public static @NonNull InterestRate of(@NonNull BigDecimal rate) throws MoneyException {
+        BigDecimal scaled = rate.scale() < 0 ? rate.setScale(0) : rate;
+        try {
+            return new InterestRate(scaled.unscaledValue().longValueExact(), BigDecimal.ONE.movePointRight(scaled.scale()).longValueExact());
+        }
+        catch (ArithmeticException e) {
+            throw MoneyException.tooLargeAmount(rate);
+        }
+    }
+
+    /**
+     * Calculates interest of one day, rounded {@link java.math.RoundingMode#HALF_UP} to minor units
+     * @param balance - balance in minor units
+     * @param daysInYear - amount of days in year the day belongs to
+     * @return interest of one day in minor units
+     */
+    public long dailyInterest(long balance, int daysInYear) {
+        return Money.multiplyDivideHalfUp(balance, numerator, Math.multiplyExact(denominator, daysInYear));
+    }
+}
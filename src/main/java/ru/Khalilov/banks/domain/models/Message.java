@@ -1,5 +1,7 @@
 package ru.Khalilov.banks.domain.models;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 
 /**
@@ -9,8 +11,25 @@ import java.time.LocalDateTime;
  * @see EmailImpl
  */
 public record Message(String messageText, LocalDateTime dateTime) {
+    /**
+     * Writes text representation of message to given output
+     * @param output - output to write to
+     * @throws IOException - if output fails
+     */
+    public void render(Appendable output) throws IOException {
+        output.append(dateTime.toString()).append("\nMessage text:\n\n").append(messageText);
+    }
+
     @Override
     public String toString() {
-        return dateTime.toString() + "\nMessage text:\n\n" + messageText;
+        StringBuilder builder = new StringBuilder();
+        try {
+            render(builder);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return builder.toString();
     }
 }
@@ -0,0 +1,45 @@
+package ru.Khalilov.banks.domain.models;
+
+import lombok.NonNull;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Process-wide pool of message texts, so that mailboxes keep one copy of text every subscriber of a tariff got.
+ * Texts are held weakly and disappear from the pool when no mailbox keeps them. Notification is usually delivered as the
+ * same {@link Message} object to all subscribers, so the last pooled text is checked first without locking.
+ */
+final class MessageTextPool {
+    private static final Map<String, WeakReference<String>> TEXTS = new WeakHashMap<>();
+    private static volatile String lastText;
+
+    private MessageTextPool() {
+    }
+
+    /**
+     * Returns message with pooled instance of its text
+     * @param message - received message
+     * @return given message if its text is already pooled instance, otherwise message with the same time and pooled text
+     */
+    static @NonNull Message intern(@NonNull Message message) {
+        String text = message.messageText();
+        if (text == null || text == lastText) {
+            return message;
+        }
+
+        String pooled;
+        synchronized (TEXTS) {
+            WeakReference<String> reference = TEXTS.get(text);
+            pooled = reference == null ? null : reference.get();
+            if (pooled == null) {
+                TEXTS.put(text, new WeakReference<>(text));
+                pooled = text;
+            }
+        }
+        lastText = pooled;
+
+        return pooled == text ? message : new Message(pooled, message.dateTime());
+    }
+}
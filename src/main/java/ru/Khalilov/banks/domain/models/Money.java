@@ -0,0 +1,134 @@
+package ru.Khalilov.banks.domain.models;
+
+import lombok.NonNull;
+import ru.Khalilov.banks.domain.exceptions.MoneyException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point representation of money used by accounts and postings. Amounts are stored as {@code long} count of minor
+ * units ({@link #SCALE} digits after decimal point). Every result that doesn't fit into minor units is rounded
+ * {@link RoundingMode#HALF_UP}, as it was done with {@link BigDecimal} before.
+ * {@link BigDecimal} is used only to exchange amounts with services and user interface.
+ */
+public final class Money {
+    /**
+     * Amount of digits after decimal point
+     */
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * Converts amount to minor units, rounding it {@link RoundingMode#HALF_UP} to {@link #SCALE} digits
+     * @param amount - amount to convert
+     * @return amount in minor units
+     * @throws MoneyException - if amount doesn't fit into minor units
+     */
+    public static long toMinorUnits(@NonNull BigDecimal amount) throws MoneyException {
+        BigInteger minorUnits = amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue();
+        if (minorUnits.bitLength() >= Long.SIZE) {
+            throw MoneyException.tooLargeAmount(amount);
+        }
+
+        return minorUnits.longValue();
+    }
+
+    /**
+     * Converts minor units to {@link BigDecimal} with the least non-negative scale, so 1000 is returned for 1000.00
+     * @param minorUnits - amount in minor units
+     * @return amount as {@link BigDecimal}
+     */
+    public static @NonNull BigDecimal toBigDecimal(long minorUnits) {
+        BigDecimal result = BigDecimal.valueOf(minorUnits, SCALE).stripTrailingZeros();
+        return result.scale() < 0 ? result.setScale(0) : result;
+    }
+
+    /**
+     * Adds two amounts
+     * @param augend - first amount
+     * @param addend - second amount
+     * @return sum of amounts
+     * @throws MoneyException - if sum doesn't fit into {@code long}
+     */
+    public static long addExact(long augend, long addend) throws MoneyException {
+        long result = augend + addend;
+        if (((augend ^ result) & (addend ^ result)) < 0) {
+            throw MoneyException.overflow();
+        }
+
+        return result;
+    }
+
+    /**
+     * Subtracts one amount from another
+     * @param minuend - amount to subtract from
+     * @param subtrahend - amount to subtract
+     * @return difference of amounts
+     * @throws MoneyException - if difference doesn't fit into {@code long}
+     */
+    public static long subtractExact(long minuend, long subtrahend) throws MoneyException {
+        long result = minuend - subtrahend;
+        if (((minuend ^ subtrahend) & (minuend ^ result)) < 0) {
+            throw MoneyException.overflow();
+        }
+
+        return result;
+    }
+
+    /**
+     * Multiplies amount by integer factor
+     * @param value - amount to multiply
+     * @param multiplier - factor
+     * @return product
+     * @throws MoneyException - if product doesn't fit into {@code long}
+     */
+    public static long multiplyExact(long value, long multiplier) throws MoneyException {
+        long high = Math.multiplyHigh(value, multiplier);
+        long low = value * multiplier;
+        if (high != (low >> (Long.SIZE - 1))) {
+            throw MoneyException.overflow();
+        }
+
+        return low;
+    }
+
+    /**
+     * Calculates value * multiplier / divisor rounded {@link RoundingMode#HALF_UP}. Doesn't allocate unless
+     * value * multiplier overflows {@code long}
+     * @param value - value to multiply
+     * @param multiplier - multiplier
+     * @param divisor - positive divisor
+     * @return rounded result
+     * @throws MoneyException - if result doesn't fit into {@code long}
+     */
+    public static long multiplyDivideHalfUp(long value, long multiplier, long divisor) throws MoneyException {
+        long high = Math.multiplyHigh(value, multiplier);
+        long low = value * multiplier;
+        if (high != (low >> (Long.SIZE - 1))) {
+            return multiplyDivideHalfUpExact(value, multiplier, divisor);
+        }
+
+        long quotient = low / divisor;
+        long remainder = low % divisor;
+        if (Math.abs(remainder) >= divisor - Math.abs(remainder)) {
+            quotient += Long.signum(low);
+        }
+
+        return quotient;
+    }
+
+    private static long multiplyDivideHalfUpExact(long value, long multiplier, long divisor) {
+        BigInteger result = new BigDecimal(BigInteger.valueOf(value).multiply(BigInteger.valueOf(multiplier)))
+                .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP)
+                .toBigInteger();
+        if (result.bitLength() >= Long.SIZE) {
+            throw MoneyException.overflow();
+        }
+
+        return result.longValue();
+    }
+}
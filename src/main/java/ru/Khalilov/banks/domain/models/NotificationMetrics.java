@@ -0,0 +1,13 @@
+package ru.Khalilov.banks.domain.models;
+
+/**
+ * Counters of {@link ru.Khalilov.banks.domain.entities.AsyncNotificationDispatcher} since it was created
+ * @param messages - amount of dispatched messages
+ * @param batches - amount of batches messages were split into
+ * @param delivered - amount of messages received by subscribers
+ * @param failed - amount of deliveries in which subscriber threw exception
+ * @param backpressureWaits - amount of times dispatching thread waited because queue of worker was full
+ * @param pendingBatches - amount of batches queued or being delivered right now
+ */
+public record NotificationMetrics(long messages, long batches, long delivered, long failed, long backpressureWaits, long pendingBatches) {
+}
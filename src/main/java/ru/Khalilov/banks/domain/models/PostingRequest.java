@@ -0,0 +1,50 @@
+package ru.Khalilov.banks.domain.models;
+
+import lombok.NonNull;
+import ru.Khalilov.banks.domain.exceptions.CentralBankException;
+
+/**
+ * Describes one posting of a batch (see {@link ru.Khalilov.banks.domain.entities.CentralBank#postBatch}). Credit has only
+ * target account, debit has only source account and transfer has both
+ * @param sourceAccountId - account money is withdrawn from, or null for credit
+ * @param targetAccountId - account money is added to, or null for debit
+ * @param sum - sum of posting in minor units (see {@link Money}). Must be positive
+ */
+public record PostingRequest(AccountId sourceAccountId, AccountId targetAccountId, long sum) {
+    public PostingRequest {
+        if (sourceAccountId == null && targetAccountId == null) {
+            throw CentralBankException.postingWithoutAccounts();
+        }
+    }
+
+    /**
+     * Creates posting that adds money to account
+     * @param accountId - target account
+     * @param sum - sum in minor units
+     * @return credit posting
+     */
+    public static PostingRequest credit(@NonNull AccountId accountId, long sum) {
+        return new PostingRequest(null, accountId, sum);
+    }
+
+    /**
+     * Creates posting that withdraws money from account
+     * @param accountId - source account
+     * @param sum - sum in minor units
+     * @return debit posting
+     */
+    public static PostingRequest debit(@NonNull AccountId accountId, long sum) {
+        return new PostingRequest(accountId, null, sum);
+    }
+
+    /**
+     * Creates posting that transfers money from one account to another
+     * @param sourceAccountId - source account
+     * @param targetAccountId - target account
+     * @param sum - sum in minor units
+     * @return transfer posting
+     */
+    public static PostingRequest transfer(@NonNull AccountId sourceAccountId, @NonNull AccountId targetAccountId, long sum) {
+        return new PostingRequest(sourceAccountId, targetAccountId, sum);
+    }
+}
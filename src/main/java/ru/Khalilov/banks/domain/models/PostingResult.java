@@ -0,0 +1,38 @@
+package ru.Khalilov.banks.domain.models;
+
+import lombok.NonNull;
+
+import java.util.UUID;
+
+/**
+ * Outcome of one posting of a batch: id of committed transaction or reason why posting was rejected
+ * @param transactionId - id of committed transaction, or null if posting was rejected
+ * @param rejectionReason - message of the error that rejected posting, or null if posting was committed
+ */
+public record PostingResult(UUID transactionId, String rejectionReason) {
+    /**
+     * Creates result of committed posting
+     * @param transactionId - id of committed transaction
+     * @return result of committed posting
+     */
+    public static PostingResult accepted(@NonNull UUID transactionId) {
+        return new PostingResult(transactionId, null);
+    }
+
+    /**
+     * Creates result of rejected posting
+     * @param rejectionReason - why posting was rejected
+     * @return result of rejected posting
+     */
+    public static PostingResult rejected(@NonNull String rejectionReason) {
+        return new PostingResult(null, rejectionReason);
+    }
+
+    /**
+     * Checks if posting was committed
+     * @return true if posting was committed, false otherwise
+     */
+    public boolean isAccepted() {
+        return transactionId != null;
+    }
+}
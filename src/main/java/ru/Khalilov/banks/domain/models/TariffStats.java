@@ -7,7 +7,7 @@ import java.util.UUID;
 
 /**
  * Describes parameters of tariff in a bank
- * @param depositPercentages - list of annual deposit interest rates
+ * @param depositPercentages - annual deposit interest rates. Stored as {@link DepositRateTable}, so they are sorted by bounds
  * @param name - name of tariff
  * @param accountType - type of tariff ('deposit', 'credit', 'debit' etc). Can be omitted or not totally correct
  * @param balanceInterest - annual interest rate on account balance
@@ -25,6 +25,17 @@ public record TariffStats(
         BigDecimal minimalBalance,
         Duration addOnlyPeriod,
         UUID id) {
+    public TariffStats {
+        depositPercentages = DepositRateTable.of(depositPercentages);
+    }
+
+    /**
+     * Returns deposit interest rates as table searchable by balance
+     * @return deposit interest rates as table searchable by balance
+     */
+    public DepositRateTable depositRates() {
+        return (DepositRateTable) depositPercentages;
+    }
 
     /**
      * Returns string with general information about tariff
@@ -2,21 +2,38 @@ package ru.Khalilov.banks.domain.models;
 
 import ru.Khalilov.banks.domain.entities.Account;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.UUID;
 
 /**
  * Represents simple unique change of sum in 1 account.
  * @param account - {@link Account} which balance was changed
- * @param sum - sum by which balance was changed. Negative value indicates a decrease in balance, positive - an increase.
+ * @param sum - sum by which balance was changed, in minor units (see {@link Money}). Negative value indicates a decrease in balance, positive - an increase.
  * @param transactionEntityId - {@link UUID} of this entity
  */
-public record TransactionEntity(Account account, BigDecimal sum, UUID transactionEntityId) {
+public record TransactionEntity(Account account, long sum, UUID transactionEntityId) {
+    /**
+     * Writes text representation of entity to given output
+     * @param output - output to write to
+     * @throws IOException - if output fails
+     */
+    public void render(Appendable output) throws IOException {
+        output.append("TransactionEntity{account: ").append(String.valueOf(account.getAccountID()))
+                .append(", sum: ").append(Money.toBigDecimal(sum).toString())
+                .append('}');
+    }
+
     @Override
     public String toString() {
-        return "TransactionEntity{" +
-                "account: " + account.getAccountID() +
-                ", sum: " + sum +
-                '}';
+        StringBuilder builder = new StringBuilder();
+        try {
+            render(builder);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return builder.toString();
     }
 }
@@ -0,0 +1,43 @@
+package ru.Khalilov.banks.domain.services;
+
+import lombok.NonNull;
+import ru.Khalilov.banks.domain.entities.CentralBank;
+
+import java.util.UUID;
+
+/**
+ * Serves many operators working with one {@link CentralBank}. Every operator works in own session, which is
+ * {@link SingleWorkstationService} with own choice of current bank, tariff, client and accounts
+ */
+public interface MultiSessionService {
+    /**
+     * Opens new session with nothing chosen
+     * @return id of new session
+     */
+    @NonNull UUID openSession();
+
+    /**
+     * Returns open session with given id
+     * @param sessionId - id of session
+     * @return service of this session
+     */
+    @NonNull SingleWorkstationService getSession(@NonNull UUID sessionId);
+
+    /**
+     * Closes session with given id. Closed session can't be got anymore
+     * @param sessionId - id of session
+     */
+    void closeSession(@NonNull UUID sessionId);
+
+    /**
+     * Return amount of open sessions
+     * @return amount of open sessions
+     */
+    int getSessionCount();
+
+    /**
+     * Return central bank shared by all sessions
+     * @return central bank shared by all sessions
+     */
+    @NonNull CentralBank getCentralBank();
+}
@@ -0,0 +1,61 @@
+package ru.Khalilov.banks.domain.services;
+
+import lombok.Getter;
+import lombok.NonNull;
+import ru.Khalilov.banks.domain.entities.CentralBank;
+import ru.Khalilov.banks.domain.exceptions.ServiceException;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps open sessions in concurrent map by id. Session holds nothing but its choice of current objects, and it doesn't
+ * own a thread: operations run on thread of caller, so opening session costs one small object. Sessions may be used
+ * from different threads at the same time, since {@link CentralBank} is thread-safe and every session keeps its choice
+ * in immutable cursor
+ */
+public class MultiSessionServiceImpl implements MultiSessionService {
+    @NonNull @Getter
+    private final CentralBank centralBank;
+    @NonNull
+    private final Map<UUID, SingleWorkstationService> sessions;
+
+    /**
+     * Constructs service with no open sessions
+     * @param centralBank central bank shared by all sessions
+     */
+    public MultiSessionServiceImpl(@NonNull CentralBank centralBank) {
+        this.centralBank = centralBank;
+        this.sessions = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public @NonNull UUID openSession() {
+        UUID id = UUID.randomUUID();
+        sessions.put(id, new SingleWorkstationServiceImpl(centralBank));
+        return id;
+    }
+
+    @Override
+    public @NonNull SingleWorkstationService getSession(@NonNull UUID sessionId) {
+        SingleWorkstationService session = sessions.get(sessionId);
+        if (session == null) {
+            throw ServiceException.noSessionFound(sessionId);
+        }
+
+        return session;
+    }
+
+    @Override
+    public void closeSession(@NonNull UUID sessionId) {
+        if (sessions.remove(sessionId) == null) {
+            throw ServiceException.noSessionFound(sessionId);
+        }
+    }
+
+    @Override
+    public int getSessionCount() {
+        return sessions.size();
+    }
+}
@@ -2,6 +2,7 @@ package ru.Khalilov.banks.domain.services;
 
 import lombok.NonNull;
 import ru.Khalilov.banks.domain.entities.*;
+import ru.Khalilov.banks.domain.models.AccountHistoryEntry;
 import ru.Khalilov.banks.domain.models.AccountId;
 import ru.Khalilov.banks.domain.models.BankId;
 import ru.Khalilov.banks.domain.models.EmailImpl;
@@ -9,6 +10,7 @@ import ru.Khalilov.banks.domain.models.TariffStats;
 
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -67,6 +69,13 @@ public interface SingleWorkstationService {
      * @return list of all {@link Transaction}
      */
     @NonNull List<Transaction> getTransactions();
+    /**
+     * Return page of {@link Transaction} in order they were committed
+     * @param offset amount of transactions to skip
+     * @param limit maximal amount of transactions to return
+     * @return transactions of page
+     */
+    @NonNull List<Transaction> getTransactions(int offset, int limit);
     /**
      * Return list of all {@link Bank}
      * @return list of all {@link Bank}
@@ -165,8 +174,9 @@ public interface SingleWorkstationService {
 
     /**
      * Creates new account for current client based on current tariff in current bank
+     * @return created account
      */
-    void createAccount();
+    @NonNull Account createAccount();
 
     /**
      * Set account as current (from-account)
@@ -207,4 +217,14 @@ public interface SingleWorkstationService {
      * @return balance of account after this time
      */
     @NonNull BigDecimal predictBalance(@NonNull Duration duration);
+
+    /**
+     * Returns page of changes of balance of current account in given period
+     * @param from start of period, inclusive
+     * @param to end of period, inclusive
+     * @param offset amount of changes of period to skip
+     * @param limit maximal amount of changes to return
+     * @return changes of balance in order of time
+     */
+    @NonNull List<AccountHistoryEntry> getHistory(@NonNull LocalDateTime from, @NonNull LocalDateTime to, int offset, int limit);
 }
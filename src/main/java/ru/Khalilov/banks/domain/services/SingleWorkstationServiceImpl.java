@@ -7,20 +7,47 @@ import ru.Khalilov.banks.domain.models.*;
 
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Workstation of one operator. Service keeps only choice of current bank, tariff, client and accounts, while all data
+ * lives in shared thread-safe {@link CentralBank}, so many services may work with one central bank (see
+ * {@link MultiSessionService}). The choice is kept in immutable {@link Cursor} replaced as a whole, so every operation
+ * sees consistent choice even if the same service is used from several threads. Bank, tariff, client and account are
+ * found by their ids through indexes of central bank and banks
+ */
 public class SingleWorkstationServiceImpl implements SingleWorkstationService {
+    private static final Cursor EMPTY_CURSOR = new Cursor(null, null, null, null, null);
+
     private final CentralBank centralBank;
-    private Bank currentBank;
-    private TariffStats currentTariffStats;
-    private Client currentClient;
-    private Account currentAccount;
-    private Account secondaryAccount;
+    private volatile Cursor cursor = EMPTY_CURSOR;
+
+    private record Cursor(Bank bank, TariffStats tariffStats, Client client, Account account, Account secondaryAccount) {
+        private Cursor withTariffStats(TariffStats tariffStats) {
+            return new Cursor(bank, tariffStats, client, account, secondaryAccount);
+        }
+
+        private Cursor withAccount(Account account) {
+            return new Cursor(bank, tariffStats, client, account, secondaryAccount);
+        }
+
+        private Cursor withSecondaryAccount(Account secondaryAccount) {
+            return new Cursor(bank, tariffStats, client, account, secondaryAccount);
+        }
+    }
 
     public SingleWorkstationServiceImpl(Clock clock) {
-        centralBank = new CentralBank(clock, UUID.randomUUID());
+        this(new CentralBank(clock, UUID.randomUUID()));
+    }
+
+    /**
+     * Constructs service working with given central bank, for example recovered from journal
+     * @param centralBank central bank to work with
+     */
+    public SingleWorkstationServiceImpl(@NonNull CentralBank centralBank) {
+        this.centralBank = centralBank;
     }
 
     /**
@@ -50,8 +77,7 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public @NonNull Bank getBank() {
-        validateBank();
-        return currentBank;
+        return validateBank(cursor).bank();
     }
 
     /**
@@ -61,8 +87,7 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public @NonNull TariffStats getTariffStats() {
-        validateTariffStats();
-        return currentTariffStats;
+        return validateTariffStats(cursor).tariffStats();
     }
 
     /**
@@ -72,19 +97,19 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public @NonNull Client getClient() {
-        validateClient();
-        return currentClient;
+        return validateClient(cursor).client();
     }
 
     /**
-     * Return current {@link EmailImpl} if it was chosen
+     * Return current {@link EmailImpl} if it was chosen. Notifications dispatched before the call are delivered first
      *
      * @return current {@link EmailImpl} if it was chosen
      */
     @Override
     public @NonNull EmailImpl getEmail() {
-        validateClient();
-        return currentClient.getClientInformation().emailImpl();
+        Client client = validateClient(cursor).client();
+        centralBank.getNotificationDispatcher().awaitDelivered();
+        return client.getClientInformation().emailImpl();
     }
 
     /**
@@ -94,8 +119,7 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public @NonNull Account getAccount() {
-        validateAccount(currentAccount);
-        return currentAccount;
+        return validateAccount(cursor.account());
     }
 
     /**
@@ -105,8 +129,7 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public @NonNull Account getSecondaryAccount() {
-        validateAccount(secondaryAccount);
-        return secondaryAccount;
+        return validateAccount(cursor.secondaryAccount());
     }
 
     /**
@@ -116,8 +139,7 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public @NonNull BigDecimal getBalance() {
-        validateAccount(currentAccount);
-        return currentAccount.getBalance();
+        return validateAccount(cursor.account()).getBalance();
     }
 
     @Override
@@ -135,6 +157,18 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
         return centralBank.getTransactions();
     }
 
+    /**
+     * Return page of {@link Transaction} in order they were committed
+     *
+     * @param offset amount of transactions to skip
+     * @param limit maximal amount of transactions to return
+     * @return transactions of page
+     */
+    @Override
+    public @NonNull List<Transaction> getTransactions(int offset, int limit) {
+        return centralBank.getTransactions(offset, limit);
+    }
+
     /**
      * Return list of all {@link Bank}
      *
@@ -152,8 +186,7 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public @NonNull List<TariffStats> getTariffStatsList() {
-        validateBank();
-        return currentBank.getTariffStats();
+        return validateBank(cursor).bank().getTariffStats();
     }
 
     /**
@@ -163,8 +196,7 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public @NonNull List<Client> getClients() {
-        validateBank();
-        return currentBank.getClients();
+        return validateBank(cursor).bank().getClients();
     }
 
     /**
@@ -174,8 +206,7 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public @NonNull List<Account> getAccounts() {
-        validateClient();
-        return currentClient.getAccounts();
+        return validateClient(cursor).client().getAccounts();
     }
 
     /**
@@ -200,15 +231,15 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public void enterBank(@NonNull BankId id) {
-        Optional<Bank> found = centralBank.getBanks().stream().filter(b -> b.getBankID().equals(id)).findFirst();
-        if (found.isEmpty())
+        Bank found = centralBank.findBank(id);
+        if (found == null)
         {
             throw ServiceException.noBankFound(id);
         }
 
-        if (found.get().equals(currentBank)) return;
+        if (found.equals(cursor.bank())) return;
 
-        enterBank(found.get());
+        enterBank(found);
     }
 
     /**
@@ -228,8 +259,8 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public @NonNull TariffBuilder getTariffChanger() {
-        validateTariffStats();
-        return currentBank.getTariffChanger(currentTariffStats);
+        Cursor current = validateTariffStats(cursor);
+        return current.bank().getTariffChanger(current.tariffStats());
     }
 
     /**
@@ -240,14 +271,14 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public void addClient(@NonNull ClientInformationBuilder builder, boolean enter) {
-        validateBank();
+        Bank bank = validateBank(cursor).bank();
 
         ClientInformation client = builder.build();
-        UUID id = currentBank.addClient(client);
+        UUID id = bank.addClient(client);
 
         if (enter)
         {
-            enterClient(id);
+            enterClient(bank, id);
         }
     }
 
@@ -258,9 +289,9 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public void changeClient(@NonNull ClientInformationBuilder builder) {
-        validateClient();
+        Cursor current = validateClient(cursor);
 
-        currentBank.changeClientInformation(currentClient.getId(), builder.build());
+        current.bank().changeClientInformation(current.client().getId(), builder.build());
     }
 
     /**
@@ -271,12 +302,12 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public void addTariff(@NonNull TariffBuilder builder, boolean enter) {
-        validateBank();
+        Cursor current = validateBank(cursor);
         TariffStats built = builder.build();
-        currentBank.addTariff(built);
+        current.bank().addTariff(built);
         if (enter)
         {
-            currentTariffStats = built;
+            cursor = current.withTariffStats(built);
         }
     }
 
@@ -287,8 +318,8 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public void changeTariff(@NonNull TariffBuilder builder) {
-        validateTariffStats();
-        currentBank.changeTariff(currentTariffStats.id(), builder.build());
+        Cursor current = validateTariffStats(cursor);
+        current.bank().changeTariff(current.tariffStats().id(), builder.build());
     }
 
     /**
@@ -298,15 +329,15 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public void chooseTariff(@NonNull UUID id) {
-        validateBank();
+        Cursor current = validateBank(cursor);
 
-        Optional<TariffStats> found = currentBank.getTariffStats().stream().filter(t -> t.id().equals(id)).findFirst();
+        TariffStats found = current.bank().findTariffStats(id);
 
-        if (found.isEmpty()) {
+        if (found == null) {
             throw ServiceException.noTariffFound(id);
         }
 
-        currentTariffStats = found.get();
+        cursor = current.withTariffStats(found);
     }
 
     /**
@@ -316,17 +347,7 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public void enterClient(@NonNull UUID id) {
-        validateBank();
-
-        Optional<Client> found = currentBank.getClients().stream().filter(c -> c.getId().equals(id)).findFirst();
-        if (found.isEmpty())
-        {
-            throw ServiceException.noClientFound(id);
-        }
-
-        if (found.get().equals(currentClient)) return;
-
-        enterClient(found.get());
+        enterClient(validateBank(cursor).bank(), id);
     }
 
     /**
@@ -336,8 +357,9 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public @NonNull String showLastEmail() {
-        validateEmail();
-        return currentClient.getClientInformation().emailImpl().toStringLast();
+        EmailImpl email = validateEmail(cursor);
+        centralBank.getNotificationDispatcher().awaitDelivered();
+        return email.toStringLast();
     }
 
     /**
@@ -347,18 +369,20 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public @NonNull String showAllEmails() {
-        validateEmail();
-        return currentClient.getClientInformation().emailImpl().toStringAll();
+        EmailImpl email = validateEmail(cursor);
+        centralBank.getNotificationDispatcher().awaitDelivered();
+        return email.toStringAll();
     }
 
     /**
      * Creates new account for current client based on current tariff in current bank
+     *
+     * @return created account
      */
     @Override
-    public void createAccount() {
-        validateClient();
-        validateTariffStats();
-        currentBank.createAccount(currentClient, currentTariffStats);
+    public @NonNull Account createAccount() {
+        Cursor current = validateTariffStats(validateClient(cursor));
+        return current.bank().createAccount(current.client(), current.tariffStats());
     }
 
     /**
@@ -368,7 +392,8 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public void chooseAccount(@NonNull AccountId id) {
-        currentAccount = getAccount(id);
+        Cursor current = cursor;
+        cursor = current.withAccount(getAccount(current, id));
     }
 
     /**
@@ -378,7 +403,8 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public void chooseSecondaryAccount(@NonNull AccountId id) {
-        secondaryAccount = getAccount(id);
+        Cursor current = cursor;
+        cursor = current.withSecondaryAccount(getAccount(current, id));
     }
 
     /**
@@ -389,8 +415,7 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public @NonNull UUID putMoney(@NonNull BigDecimal sum) {
-        validateAccount(currentAccount);
-        return centralBank.addMoney(currentAccount.getAccountID(), sum);
+        return centralBank.addMoney(validateAccount(cursor.account()).getAccountID(), sum);
     }
 
     /**
@@ -401,8 +426,7 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public @NonNull UUID withdrawMoney(@NonNull BigDecimal sum) {
-        validateAccount(currentAccount);
-        return centralBank.withdrawMoney(currentAccount.getAccountID(), sum);
+        return centralBank.withdrawMoney(validateAccount(cursor.account()).getAccountID(), sum);
     }
 
     /**
@@ -413,9 +437,8 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public @NonNull UUID transferMoney(@NonNull BigDecimal sum) {
-        validateAccount(currentAccount);
-        validateAccount(secondaryAccount);
-        return centralBank.transferMoney(currentAccount.getAccountID(), secondaryAccount.getAccountID(), sum);
+        Cursor current = cursor;
+        return centralBank.transferMoney(validateAccount(current.account()).getAccountID(), validateAccount(current.secondaryAccount()).getAccountID(), sum);
     }
 
     /**
@@ -426,80 +449,107 @@ public class SingleWorkstationServiceImpl implements SingleWorkstationService {
      */
     @Override
     public @NonNull BigDecimal predictBalance(@NonNull Duration duration) {
-        validateAccount(currentAccount);
+        return validateAccount(cursor.account()).predict(duration);
+    }
 
-        return currentAccount.predict(duration);
+    /**
+     * Returns page of changes of balance of current account in given period
+     *
+     * @param from start of period, inclusive
+     * @param to end of period, inclusive
+     * @param offset amount of changes of period to skip
+     * @param limit maximal amount of changes to return
+     * @return changes of balance in order of time
+     */
+    @Override
+    public @NonNull List<AccountHistoryEntry> getHistory(@NonNull LocalDateTime from, @NonNull LocalDateTime to, int offset, int limit) {
+        return centralBank.history(validateAccount(cursor.account()).getAccountID(), from, to, offset, limit);
     }
 
-    private void validateBank()
+    private Cursor validateBank(Cursor current)
     {
-        if (currentBank == null)
+        if (current.bank() == null)
         {
             throw ServiceException.noBankChosen();
         }
+
+        return current;
     }
 
-    private void validateTariffStats()
+    private Cursor validateTariffStats(Cursor current)
     {
-        validateBank();
-        if (currentTariffStats == null)
+        validateBank(current);
+        if (current.tariffStats() == null)
         {
             throw ServiceException.noTariffChosen();
         }
+
+        return current;
     }
 
-    private void validateClient()
+    private Cursor validateClient(Cursor current)
     {
-        validateBank();
+        validateBank(current);
 
-        if (currentClient == null)
+        if (current.client() == null)
         {
             throw ServiceException.noClientChosen();
         }
+
+        return current;
     }
 
-    private void validateEmail()
+    private EmailImpl validateEmail(Cursor current)
     {
-        validateClient();
+        EmailImpl email = validateClient(current).client().getClientInformation().emailImpl();
 
-        if (currentClient.getClientInformation().emailImpl() == null)
+        if (email == null)
         {
             throw ServiceException.clientWithNoEmail();
         }
+
+        return email;
     }
 
-    private void validateAccount(Account account)
+    private Account validateAccount(Account account)
     {
         if (account == null)
         {
             throw ServiceException.noAccountChosen();
         }
+
+        return account;
     }
 
-    private Account getAccount(@NonNull AccountId id)
+    private Account getAccount(Cursor current, @NonNull AccountId id)
     {
-        validateClient();
+        validateClient(current);
 
-        Optional<Account> found = currentClient.getAccounts().stream().filter(account -> account.getAccountID().equals(id)).findFirst();
+        AccountLocation found = current.bank().locateAccount(id);
 
-        if (found.isEmpty()) {
+        if (found == null || !found.client().equals(current.client())) {
             throw ServiceException.noAccountFound(id);
         }
 
-        return found.get();
+        return found.account();
     }
 
     private void enterBank(@NonNull Bank bank)
     {
-        currentBank = bank;
-        currentTariffStats = null;
-        currentClient = null;
-        currentAccount = null;
+        cursor = new Cursor(bank, null, null, null, cursor.secondaryAccount());
     }
 
-    private void enterClient(@NonNull Client found)
+    private void enterClient(@NonNull Bank bank, @NonNull UUID id)
     {
-        currentClient = found;
-        currentAccount = null;
+        Client found = bank.findClient(id);
+        if (found == null)
+        {
+            throw ServiceException.noClientFound(id);
+        }
+
+        Cursor current = cursor;
+        if (found.equals(current.client())) return;
+
+        cursor = new Cursor(current.bank(), current.tariffStats(), found, null, current.secondaryAccount());
     }
 }
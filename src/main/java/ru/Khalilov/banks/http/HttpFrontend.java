@@ -0,0 +1,337 @@
+package ru.Khalilov.banks.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.NonNull;
+import ru.Khalilov.banks.domain.entities.Account;
+import ru.Khalilov.banks.domain.entities.CentralBank;
+import ru.Khalilov.banks.domain.entities.ClientInformationBuilder;
+import ru.Khalilov.banks.domain.entities.TariffBuilder;
+import ru.Khalilov.banks.domain.exceptions.GeneralBankException;
+import ru.Khalilov.banks.domain.models.AccountId;
+import ru.Khalilov.banks.domain.models.Address;
+import ru.Khalilov.banks.domain.models.BankId;
+import ru.Khalilov.banks.domain.models.EmailImpl;
+import ru.Khalilov.banks.domain.models.Passport;
+import ru.Khalilov.banks.domain.services.SingleWorkstationService;
+import ru.Khalilov.banks.domain.services.SingleWorkstationServiceImpl;
+import ru.Khalilov.banks.http.exceptions.HttpRequestException;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Embedded HTTP front-end of {@link CentralBank}, built on {@link HttpServer}. Every operation is stateless POST request
+ * with flat JSON object naming all objects it works with, e.g. {@code POST /put {"bankId": ..., "clientId": ...,
+ * "accountId": ..., "sum": 100}}. Request gets its own {@link SingleWorkstationService} over shared central bank, so
+ * requests run concurrently on pool of threads and don't see each other's choice.
+ * Latency of every endpoint is recorded, and {@code GET /stats} reports count, p50 and p99 of all endpoints.
+ * {@code /skip} moves clock of the whole central bank, so it runs exclusively, while other endpoints run concurrently.
+ * Requests aren't authenticated, so front-end listens on loopback address unless other address is given explicitly
+ */
+public class HttpFrontend implements AutoCloseable {
+    private static final int BACKLOG = 1024;
+    private static final int MAX_KEPT_BUFFER_SIZE = 64 * 1024;
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+
+    /**
+     * System property disabling Nagle's algorithm for all {@link HttpServer}s of JVM. Headers and body of response are
+     * written separately, so without it every response waits for delayed acknowledgement of headers. It is read once,
+     * when the first server is created, so applications set it at startup or with {@code -Dsun.net.httpserver.nodelay=true}
+     */
+    public static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    private final CentralBank centralBank;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+    private final ThreadLocal<StringBuilder> responseBuffers = ThreadLocal.withInitial(StringBuilder::new);
+    private final ReadWriteLock clockLock = new ReentrantReadWriteLock();
+
+    @FunctionalInterface
+    private interface Endpoint {
+        void handle(SingleWorkstationService service, RequestFields request, JsonWriter response);
+    }
+
+    /**
+     * Constructs front-end listening on given port of loopback address. Server doesn't accept requests until
+     * {@link #start()}
+     * @param centralBank - central bank requests work with
+     * @param port - port to listen on, 0 chooses any free port
+     * @param threads - amount of threads handling requests
+     * @throws IOException - if port can't be bound
+     */
+    public HttpFrontend(@NonNull CentralBank centralBank, int port, int threads) throws IOException {
+        this(centralBank, new InetSocketAddress(InetAddress.getLoopbackAddress(), port), threads);
+    }
+
+    /**
+     * Constructs front-end listening on given address. Server doesn't accept requests until {@link #start()}. Any
+     * address except loopback lets everyone reaching it operate accounts
+     * @param centralBank - central bank requests work with
+     * @param address - address to listen on, port 0 chooses any free port
+     * @param threads - amount of threads handling requests
+     * @throws IOException - if address can't be bound
+     */
+    public HttpFrontend(@NonNull CentralBank centralBank, @NonNull InetSocketAddress address, int threads) throws IOException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Amount of threads must be positive");
+        }
+
+        this.centralBank = centralBank;
+        this.server = HttpServer.create(address, BACKLOG);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "http-frontend-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+
+        post("/banks", this::createBank);
+        post("/clients", this::createClient);
+        post("/tariffs", this::createTariff);
+        post("/accounts", this::createAccount);
+        post("/put", (service, request, response) -> writeTransaction(response, chooseAccount(service, request).putMoney(request.decimal("sum"))));
+        post("/withdraw", (service, request, response) -> writeTransaction(response, chooseAccount(service, request).withdrawMoney(request.decimal("sum"))));
+        post("/transfer", this::transfer);
+        post("/cancel", (service, request, response) -> {
+            service.cancelTransaction(request.uuid("transactionId"));
+            response.beginObject().name("cancelled").value(request.string("transactionId")).endObject();
+        });
+        post("/predict", (service, request, response) -> {
+            BigDecimal balance = chooseAccount(service, request).predictBalance(Duration.ofDays(request.integer("days")));
+            response.beginObject().name("balance").value(balance).endObject();
+        });
+        post("/skip", true, (service, request, response) -> {
+            service.getClock().forward(Duration.ofDays(request.integer("days")));
+            response.beginObject().name("dateTime").value(service.getClock().getDateTime().toString()).endObject();
+        });
+        server.createContext("/stats", this::handleStats);
+        server.createContext("/", exchange -> send(exchange, HttpRequestException.notFound(exchange.getRequestURI().getPath())));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public @NonNull InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Return latencies of endpoints by their paths
+     * @return unmodifiable map of latencies
+     */
+    public @NonNull Map<String, LatencyHistogram> getLatencies() {
+        return Collections.unmodifiableMap(latencies);
+    }
+
+    /**
+     * Stops accepting requests and waits shortly for requests in progress
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void post(String path, Endpoint endpoint) {
+        post(path, false, endpoint);
+    }
+
+    /**
+     * Registers POST endpoint. Exclusive endpoint waits until all other requests are handled and holds them back while
+     * it runs
+     * @param path - path of endpoint
+     * @param exclusive - whether endpoint changes state shared by all requests
+     * @param endpoint - handler of requests
+     */
+    private void post(String path, boolean exclusive, Endpoint endpoint) {
+        Lock lock = exclusive ? clockLock.writeLock() : clockLock.readLock();
+        LatencyHistogram histogram = new LatencyHistogram();
+        latencies.put(path, histogram);
+        server.createContext(path, exchange -> {
+            long start = System.nanoTime();
+            try {
+                if (!exchange.getRequestMethod().equals("POST")) {
+                    throw HttpRequestException.methodNotAllowed(exchange.getRequestMethod());
+                }
+
+                RequestFields request = new RequestFields(new JsonObjectReader(
+                        new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)).readObject());
+                StringBuilder buffer = takeBuffer();
+                lock.lock();
+                try {
+                    endpoint.handle(new SingleWorkstationServiceImpl(centralBank), request, new JsonWriter(buffer));
+                }
+                finally {
+                    lock.unlock();
+                }
+                send(exchange, 200, buffer);
+            }
+            catch (HttpRequestException e) {
+                send(exchange, e);
+            }
+            catch (GeneralBankException e) {
+                sendError(exchange, 400, e.getMessage());
+            }
+            catch (RuntimeException e) {
+                sendError(exchange, 500, String.valueOf(e.getMessage()));
+            }
+            finally {
+                histogram.record(System.nanoTime() - start);
+            }
+        });
+    }
+
+    private void createBank(SingleWorkstationService service, RequestFields request, JsonWriter response) {
+        service.createBank(request.decimal("transactionLimit"), true);
+        response.beginObject().name("bankId").value(service.getBank().getBankID().BankId().toString()).endObject();
+    }
+
+    private void createClient(SingleWorkstationService service, RequestFields request, JsonWriter response) {
+        service.enterBank(new BankId(request.uuid("bankId")));
+        ClientInformationBuilder builder = service.getClientInformationBuilder()
+                .withName(request.string("name"))
+                .withSurname(request.string("surname"));
+        if (request.has("street")) {
+            builder.withAddress(new Address(request.string("street"), request.integer("building")));
+        }
+        if (request.has("passportSeries")) {
+            builder.withPassport(new Passport(request.string("passportSeries"), request.string("passportNumber")));
+        }
+        if (request.has("email")) {
+            builder.withEmail(new EmailImpl(request.string("email")));
+        }
+
+        service.addClient(builder, true);
+        response.beginObject().name("clientId").value(service.getClient().getId().toString()).endObject();
+    }
+
+    private void createTariff(SingleWorkstationService service, RequestFields request, JsonWriter response) {
+        service.enterBank(new BankId(request.uuid("bankId")));
+        TariffBuilder builder = service.getTariffBuilder()
+                .withName(request.string("name"))
+                .withAccountType(request.string("accountType"))
+                .withBalanceInterest(request.decimal("balanceInterest"));
+        if (request.has("negativeOperationTax")) {
+            builder.withNegativeOperationTax(request.decimal("negativeOperationTax"));
+        }
+        if (request.has("minimalBalance")) {
+            builder.withMinimalBalance(request.decimal("minimalBalance"));
+        }
+        if (request.has("addOnlyDays")) {
+            builder.withAddOnlyPeriod(Duration.ofDays(request.integer("addOnlyDays")));
+        }
+
+        service.addTariff(builder, true);
+        response.beginObject().name("tariffId").value(service.getTariffStats().id().toString()).endObject();
+    }
+
+    private void createAccount(SingleWorkstationService service, RequestFields request, JsonWriter response) {
+        service.enterBank(new BankId(request.uuid("bankId")));
+        service.enterClient(request.uuid("clientId"));
+        service.chooseTariff(request.uuid("tariffId"));
+        Account account = service.createAccount();
+        response.beginObject().name("accountId").value(account.getAccountID().accountId().toString()).endObject();
+    }
+
+    private void transfer(SingleWorkstationService service, RequestFields request, JsonWriter response) {
+        BankId toBankId = new BankId(request.uuid("toBankId"));
+        service.enterBank(toBankId);
+        service.enterClient(request.uuid("toClientId"));
+        service.chooseSecondaryAccount(new AccountId(request.uuid("toAccountId"), toBankId));
+
+        writeTransaction(response, chooseAccount(service, request).transferMoney(request.decimal("sum")));
+    }
+
+    private SingleWorkstationService chooseAccount(SingleWorkstationService service, RequestFields request) {
+        BankId bankId = new BankId(request.uuid("bankId"));
+        service.enterBank(bankId);
+        service.enterClient(request.uuid("clientId"));
+        service.chooseAccount(new AccountId(request.uuid("accountId"), bankId));
+        return service;
+    }
+
+    private void writeTransaction(JsonWriter response, UUID transactionId) {
+        response.beginObject().name("transactionId").value(transactionId.toString()).endObject();
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            send(exchange, HttpRequestException.methodNotAllowed(exchange.getRequestMethod()));
+            return;
+        }
+
+        StringBuilder buffer = takeBuffer();
+        JsonWriter response = new JsonWriter(buffer).beginObject();
+        for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            response.name(entry.getKey()).beginObject()
+                    .name("count").value(histogram.count())
+                    .name("p50Micros").value(BigDecimal.valueOf(histogram.percentile(0.5), 3))
+                    .name("p99Micros").value(BigDecimal.valueOf(histogram.percentile(0.99), 3))
+                    .endObject();
+        }
+        response.endObject();
+        send(exchange, 200, buffer);
+    }
+
+    private StringBuilder takeBuffer() {
+        StringBuilder buffer = responseBuffers.get();
+        // single huge response mustn't pin its buffer forever
+        if (buffer.capacity() > MAX_KEPT_BUFFER_SIZE) {
+            buffer = new StringBuilder();
+            responseBuffers.set(buffer);
+        }
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    private void send(HttpExchange exchange, HttpRequestException e) throws IOException {
+        sendError(exchange, e.getStatusCode(), e.getMessage());
+    }
+
+    private void sendError(HttpExchange exchange, int statusCode, String message) throws IOException {
+        StringBuilder buffer = takeBuffer();
+        new JsonWriter(buffer).beginObject().name("error").value(message).endObject();
+        send(exchange, statusCode, buffer);
+    }
+
+    private void send(HttpExchange exchange, int statusCode, CharSequence body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+}
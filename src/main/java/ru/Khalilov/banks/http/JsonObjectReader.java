@@ -0,0 +1,192 @@
+package ru.Khalilov.banks.http;
+
+import lombok.NonNull;
+import ru.Khalilov.banks.http.exceptions.HttpRequestException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads flat JSON object, whose members are strings, numbers, booleans or nulls, straight from stream of characters.
+ * Values are kept as their text, so numbers are parsed later exactly as written; members with null value are skipped.
+ * Nested objects and arrays aren't supported, since requests of front-end don't need them
+ */
+public class JsonObjectReader {
+    private static final int BUFFER_SIZE = 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private final StringBuilder token = new StringBuilder();
+
+    public JsonObjectReader(@NonNull Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the whole object. Empty input is read as empty object
+     * @return members of object by name
+     * @throws HttpRequestException - if input isn't flat JSON object
+     */
+    public @NonNull Map<String, String> readObject() {
+        Map<String, String> members = new HashMap<>();
+        int c = nextNonSpace();
+        if (c < 0) {
+            return members;
+        }
+        expect(c, '{');
+
+        c = nextNonSpace();
+        if (c == '}') {
+            return checkEnd(members);
+        }
+        while (true) {
+            expect(c, '"');
+            String name = readString();
+            expect(nextNonSpace(), ':');
+            String value = readValue(nextNonSpace());
+            if (value != null) {
+                members.put(name, value);
+            }
+
+            c = nextNonSpace();
+            if (c == '}') {
+                return checkEnd(members);
+            }
+            expect(c, ',');
+            c = nextNonSpace();
+        }
+    }
+
+    private Map<String, String> checkEnd(Map<String, String> members) {
+        if (nextNonSpace() >= 0) {
+            throw HttpRequestException.malformedJson("unexpected characters after object");
+        }
+
+        return members;
+    }
+
+    private String readValue(int first) {
+        if (first == '"') {
+            return readString();
+        }
+        if (first == '{' || first == '[') {
+            throw HttpRequestException.malformedJson("nested objects and arrays aren't supported");
+        }
+
+        token.setLength(0);
+        int c = first;
+        while (c >= 0 && c != ',' && c != '}' && !Character.isWhitespace(c)) {
+            token.append((char) c);
+            c = read();
+        }
+        if (c >= 0) {
+            position--;
+        }
+
+        String literal = token.toString();
+        if (literal.equals("null")) {
+            return null;
+        }
+        if (literal.isEmpty() || !(literal.equals("true") || literal.equals("false") || isNumber(literal))) {
+            throw HttpRequestException.malformedJson("invalid value '" + literal + "'");
+        }
+
+        return literal;
+    }
+
+    private String readString() {
+        token.setLength(0);
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                throw HttpRequestException.malformedJson("string isn't closed");
+            }
+            if (c == '"') {
+                return token.toString();
+            }
+            if (c != '\\') {
+                token.append((char) c);
+                continue;
+            }
+
+            int escaped = read();
+            switch (escaped) {
+                case '"', '\\', '/' -> token.append((char) escaped);
+                case 'b' -> token.append('\b');
+                case 'f' -> token.append('\f');
+                case 'n' -> token.append('\n');
+                case 'r' -> token.append('\r');
+                case 't' -> token.append('\t');
+                case 'u' -> token.append(readUnicodeEscape());
+                default -> throw HttpRequestException.malformedJson("invalid escape");
+            }
+        }
+    }
+
+    private char readUnicodeEscape() {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(read(), 16);
+            if (digit < 0) {
+                throw HttpRequestException.malformedJson("invalid unicode escape");
+            }
+            value = value * 16 + digit;
+        }
+
+        return (char) value;
+    }
+
+    private static boolean isNumber(String literal) {
+        int i = literal.charAt(0) == '-' ? 1 : 0;
+        boolean digits = false;
+        for (; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+            }
+            else if (c != '.' && c != 'e' && c != 'E' && c != '+' && c != '-') {
+                return false;
+            }
+        }
+
+        return digits;
+    }
+
+    private void expect(int actual, char expected) {
+        if (actual != expected) {
+            throw HttpRequestException.malformedJson("expected '" + expected + "'");
+        }
+    }
+
+    private int nextNonSpace() {
+        int c = read();
+        while (c >= 0 && Character.isWhitespace(c)) {
+            c = read();
+        }
+
+        return c;
+    }
+
+    private int read() {
+        if (position == limit) {
+            try {
+                int read = reader.read(buffer, 0, buffer.length);
+                if (read <= 0) {
+                    return -1;
+                }
+                position = 0;
+                limit = read;
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return buffer[position++];
+    }
+}
@@ -0,0 +1,183 @@
+package ru.Khalilov.banks.http;
+
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+
+/**
+ * Streaming JSON writer. Tokens are appended to output as soon as they are written, without building tree of values or
+ * looking into objects by reflection; writer only remembers whether the current object or array needs comma before the
+ * next value. Numbers are written as plain decimals, so amounts of money keep all their digits
+ */
+public class JsonWriter {
+    private static final int MAX_DEPTH = 64;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Appendable output;
+    private final boolean[] hasValues = new boolean[MAX_DEPTH];
+    private int depth;
+    private boolean afterName;
+
+    public JsonWriter(@NonNull Appendable output) {
+        this.output = output;
+    }
+
+    public @NonNull JsonWriter beginObject() {
+        return open('{');
+    }
+
+    public @NonNull JsonWriter endObject() {
+        return close('}');
+    }
+
+    public @NonNull JsonWriter beginArray() {
+        return open('[');
+    }
+
+    public @NonNull JsonWriter endArray() {
+        return close(']');
+    }
+
+    /**
+     * Writes name of the next member of object
+     * @param name - name of member
+     * @return this writer
+     */
+    public @NonNull JsonWriter name(@NonNull String name) {
+        beforeValue();
+        writeString(name);
+        append(':');
+        afterName = true;
+        return this;
+    }
+
+    public @NonNull JsonWriter value(String value) {
+        if (value == null) {
+            return nullValue();
+        }
+
+        beforeValue();
+        writeString(value);
+        return this;
+    }
+
+    public @NonNull JsonWriter value(long value) {
+        beforeValue();
+        try {
+            output.append(Long.toString(value));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    public @NonNull JsonWriter value(BigDecimal value) {
+        if (value == null) {
+            return nullValue();
+        }
+
+        beforeValue();
+        try {
+            output.append(value.toPlainString());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    public @NonNull JsonWriter value(boolean value) {
+        beforeValue();
+        try {
+            output.append(value ? "true" : "false");
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    public @NonNull JsonWriter nullValue() {
+        beforeValue();
+        try {
+            output.append("null");
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    private JsonWriter open(char bracket) {
+        beforeValue();
+        if (depth == MAX_DEPTH) {
+            throw new IllegalStateException("JSON is nested too deep");
+        }
+        append(bracket);
+        hasValues[depth++] = false;
+        return this;
+    }
+
+    private JsonWriter close(char bracket) {
+        if (depth == 0) {
+            throw new IllegalStateException("There is no open object or array");
+        }
+        depth--;
+        append(bracket);
+        return this;
+    }
+
+    private void beforeValue() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (hasValues[depth - 1]) {
+                append(',');
+            }
+            hasValues[depth - 1] = true;
+        }
+    }
+
+    private void writeString(String value) {
+        try {
+            output.append('"');
+            int start = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    continue;
+                }
+
+                output.append(value, start, i);
+                start = i + 1;
+                switch (c) {
+                    case '"' -> output.append("\\\"");
+                    case '\\' -> output.append("\\\\");
+                    case '\n' -> output.append("\\n");
+                    case '\r' -> output.append("\\r");
+                    case '\t' -> output.append("\\t");
+                    default -> output.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                }
+            }
+            output.append(value, start, value.length());
+            output.append('"');
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void append(char c) {
+        try {
+            output.append(c);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package ru.Khalilov.banks.http;
+
+import lombok.NonNull;
+import ru.Khalilov.banks.http.exceptions.HttpRequestException;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Typed access to members of request object read by {@link JsonObjectReader}
+ */
+public class RequestFields {
+    private final Map<String, String> members;
+
+    public RequestFields(@NonNull Map<String, String> members) {
+        this.members = members;
+    }
+
+    public boolean has(@NonNull String name) {
+        return members.containsKey(name);
+    }
+
+    public @NonNull String string(@NonNull String name) {
+        String value = members.get(name);
+        if (value == null) {
+            throw HttpRequestException.missingField(name);
+        }
+
+        return value;
+    }
+
+    public @NonNull UUID uuid(@NonNull String name) {
+        String value = string(name);
+        try {
+            return UUID.fromString(value);
+        }
+        catch (IllegalArgumentException e) {
+            throw HttpRequestException.invalidField(name, value, "UUID");
+        }
+    }
+
+    public @NonNull BigDecimal decimal(@NonNull String name) {
+        String value = string(name);
+        try {
+            return new BigDecimal(value);
+        }
+        catch (NumberFormatException e) {
+            throw HttpRequestException.invalidField(name, value, "number");
+        }
+    }
+
+    public int integer(@NonNull String name) {
+        String value = string(name);
+        try {
+            return Integer.parseInt(value);
+        }
+        catch (NumberFormatException e) {
+            throw HttpRequestException.invalidField(name, value, "int");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package ru.Khalilov.banks.http.exceptions;
+
+import lombok.Getter;
+
+public class HttpRequestException extends RuntimeException {
+    @Getter
+    private final int statusCode;
+
+    /**
+     * Constructs a new runtime exception with the specified detail message and HTTP status of response.
+     *
+     * @param statusCode HTTP status code the request is answered with
+     * @param message the detail message. The detail message is saved for
+     *                later retrieval by the {@link #getMessage()} method.
+     */
+    protected HttpRequestException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public static HttpRequestException missingField(String name) {
+        return new HttpRequestException(400, "Field '" + name + "' is required");
+    }
+
+    public static HttpRequestException invalidField(String name, String value, String expected) {
+        return new HttpRequestException(400, "Field '" + name + "' with value '" + value + "' isn't " + expected);
+    }
+
+    public static HttpRequestException malformedJson(String reason) {
+        return new HttpRequestException(400, "Request body isn't flat JSON object: " + reason);
+    }
+
+    public static HttpRequestException methodNotAllowed(String method) {
+        return new HttpRequestException(405, "Method " + method + " isn't allowed");
+    }
+
+    public static HttpRequestException notFound(String path) {
+        return new HttpRequestException(404, "No endpoint " + path);
+    }
+}
@@ -1,17 +1,89 @@
 package ru.Khalilov.banks.tests;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.Khalilov.banks.console.ScriptRunner;
+import ru.Khalilov.banks.console.exceptions.GeneralCLIException;
+import ru.Khalilov.banks.console.factories.AddHandlerFactoryImpl;
+import ru.Khalilov.banks.console.handlers.ChangingHandlerBuilder;
+import ru.Khalilov.banks.console.handlers.CommandTree;
+import ru.Khalilov.banks.console.handlers.HandlerBase;
+import ru.Khalilov.banks.console.handlers.NotChangingHandlerBuilder;
+import ru.Khalilov.banks.console.readers.BufferedIOHandler;
+import ru.Khalilov.banks.console.readers.ConsoleIOHandler;
+import ru.Khalilov.banks.console.readers.ScriptIOHandler;
 import ru.Khalilov.banks.domain.entities.*;
 import ru.Khalilov.banks.domain.exceptions.AccountException;
 import ru.Khalilov.banks.domain.exceptions.BankException;
+import ru.Khalilov.banks.domain.exceptions.CentralBankException;
+import ru.Khalilov.banks.domain.exceptions.EmailException;
+import ru.Khalilov.banks.domain.exceptions.JournalException;
+import ru.Khalilov.banks.domain.exceptions.MoneyException;
+import ru.Khalilov.banks.domain.exceptions.ServiceException;
+import ru.Khalilov.banks.domain.exceptions.TariffException;
+import ru.Khalilov.banks.domain.exceptions.TransactionException;
+import ru.Khalilov.banks.domain.journal.CentralBankSnapshot;
+import ru.Khalilov.banks.domain.journal.FileChannelJournal;
+import ru.Khalilov.banks.domain.journal.Journal;
+import ru.Khalilov.banks.domain.journal.JournalPosition;
+import ru.Khalilov.banks.domain.journal.JournalRecord;
+import ru.Khalilov.banks.domain.journal.NoJournal;
+import ru.Khalilov.banks.domain.journal.SnapshotFile;
+import ru.Khalilov.banks.domain.models.AccountDifference;
+import ru.Khalilov.banks.domain.models.AccountHistoryEntry;
+import ru.Khalilov.banks.domain.models.AccountId;
+import ru.Khalilov.banks.domain.models.AccrualMode;
+import ru.Khalilov.banks.domain.models.BalanceInterval;
+import ru.Khalilov.banks.domain.models.BankId;
+import ru.Khalilov.banks.domain.models.BatchAtomicity;
+import ru.Khalilov.banks.domain.models.CalendarView;
 import ru.Khalilov.banks.domain.models.Address;
 import ru.Khalilov.banks.domain.models.EmailImpl;
+import ru.Khalilov.banks.domain.models.InterestRate;
+import ru.Khalilov.banks.domain.models.Message;
+import ru.Khalilov.banks.domain.models.Money;
+import ru.Khalilov.banks.domain.models.NotificationMetrics;
 import ru.Khalilov.banks.domain.models.Passport;
+import ru.Khalilov.banks.domain.models.PostingRequest;
+import ru.Khalilov.banks.domain.models.PostingResult;
 import ru.Khalilov.banks.domain.models.TariffStats;
+import ru.Khalilov.banks.domain.services.MultiSessionService;
+import ru.Khalilov.banks.domain.services.MultiSessionServiceImpl;
+import ru.Khalilov.banks.domain.services.SingleWorkstationService;
+import ru.Khalilov.banks.domain.services.SingleWorkstationServiceImpl;
+import ru.Khalilov.banks.http.HttpFrontend;
+import ru.Khalilov.banks.http.JsonObjectReader;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -86,6 +158,32 @@ public class BanksTest {
             centralBank.transferMoney(debitAccountA.getAccountID(), debitAccountB.getAccountID(), BigDecimal.valueOf(10000)));
     }
 
+    @Test
+    public void accountLookups_RejectUnknownIdsAndForeignBanks()
+    {
+        AccountId accountA = debitAccountA.getAccountID();
+        AccountId unknownAccount = new AccountId(UUID.randomUUID(), bank1.getBankID());
+        AccountId accountAInBank2 = new AccountId(accountA.accountId(), bank2.getBankID());
+        AccountId accountInUnknownBank = new AccountId(accountA.accountId(), new BankId(UUID.randomUUID()));
+
+        assertSame(bank1, centralBank.findBank(bank1.getBankID()));
+        assertNull(centralBank.findBank(new BankId(UUID.randomUUID())));
+
+        assertSame(debitAccountA, bank1.locateAccount(accountA).account());
+        assertSame(clientA, bank1.locateAccount(accountA).client());
+        assertNull(bank1.locateAccount(unknownAccount));
+        assertNull(bank2.locateAccount(accountAInBank2));
+        assertNull(bank2.locateAccount(accountA));
+        assertNull(bank2.findAccount(accountA));
+
+        assertThrows(CentralBankException.class, () -> centralBank.addMoney(unknownAccount, BigDecimal.TEN));
+        assertThrows(CentralBankException.class, () -> centralBank.addMoney(accountAInBank2, BigDecimal.TEN));
+        assertThrows(CentralBankException.class, () -> centralBank.addMoney(accountInUnknownBank, BigDecimal.TEN));
+        assertThrows(CentralBankException.class, () -> centralBank.transferMoney(accountA, accountInUnknownBank, BigDecimal.TEN));
+        assertEquals(BigDecimal.ZERO, debitAccountA.getBalance());
+        assertTrue(centralBank.getTransactions().isEmpty());
+    }
+
     @Test
     public void cancelTransaction_BalanceChanges()
     {
@@ -100,6 +198,9 @@ public class BanksTest {
 
         assertEquals(BigDecimal.valueOf(10000), debitAccountA.getBalance());
         assertEquals(BigDecimal.ZERO, debitAccountB.getBalance());
+
+        assertThrows(TransactionException.class, () -> centralBank.cancelTransaction(secondTransaction));
+        assertThrows(CentralBankException.class, () -> centralBank.cancelTransaction(UUID.randomUUID()));
     }
 
     @Test
@@ -114,4 +215,1093 @@ public class BanksTest {
 
         assertEquals(1, clientA.getClientInformation().emailImpl().getMessages().size());
     }
+
+    @Test
+    public void changeTariff_WaitsForPostingsInProgress() throws Exception
+    {
+        TariffStats tariff = bank1.getTariffStats().get(0);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> change;
+        debitAccountA.getLock().lock();
+        try {
+            change = executor.submit(() -> bank1.changeTariff(tariff.id(), new TariffBuilder(tariff).withMinimalBalance(BigDecimal.valueOf(-100)).build()));
+            Thread.sleep(100);
+            assertFalse(change.isDone());
+            assertSame(tariff, debitAccountA.getAccountBalanceHandler().getTariff().getTariffStats());
+        }
+        finally {
+            debitAccountA.getLock().unlock();
+        }
+
+        change.get();
+        executor.shutdown();
+        assertEquals(-10000, debitAccountA.getAccountBalanceHandler().getEvaluator().getMinimalBalance());
+
+        List<Boolean> lockedDuringNotification = new ArrayList<>();
+        Tariff changed = debitAccountA.getAccountBalanceHandler().getTariff();
+        changed.subscribe(new EmailImpl("observer@mail.ru") {
+            @Override
+            public void receiveMessage(Message message) {
+                lockedDuringNotification.add(debitAccountA.getLock().isLocked() || Thread.holdsLock(bank1));
+                super.receiveMessage(message);
+            }
+        });
+        TariffStats current = changed.getTariffStats();
+        bank1.changeTariff(current.id(), new TariffBuilder(current).withMinimalBalance(BigDecimal.valueOf(-200)).build());
+        assertEquals(List.of(false), lockedDuringNotification);
+    }
+
+    @Test
+    public void journalFailure_LeavesCancellationAndTariffUnchanged()
+    {
+        FailingJournal journal = new FailingJournal();
+        CentralBank journaled = new CentralBank(new ManualClockImpl(LocalDateTime.of(2023, 5, 20, 12, 0)), UUID.randomUUID(), journal);
+        Bank bank = journaled.createBank(BigDecimal.valueOf(100000));
+        bank.addTariff(new TariffBuilder().withName("debit").withAccountType("debit").build());
+        TariffStats tariff = bank.getTariffStats().get(0);
+        Client client = bank.findClient(bank.addClient(new ClientInformationBuilder().withName("Ivan").withSurname("Ivanov").build()));
+        Account account = bank.createAccount(client, tariff);
+        UUID transactionId = journaled.addMoney(account.getAccountID(), BigDecimal.valueOf(1000));
+
+        journal.allowedAppends = 0;
+        assertThrows(JournalException.class, () -> journaled.cancelTransaction(transactionId));
+        assertEquals(BigDecimal.valueOf(1000), account.getBalance());
+        assertTrue(account.isContainsTransactionEntity(journaled.getTransactions().get(0).getEntities().get(0).transactionEntityId()));
+
+        assertThrows(JournalException.class, () -> bank.changeTariff(tariff.id(), new TariffBuilder(tariff).withMinimalBalance(BigDecimal.valueOf(-100)).build()));
+        assertSame(tariff, account.getAccountBalanceHandler().getTariff().getTariffStats());
+        assertSame(tariff, bank.findTariffStats(tariff.id()));
+    }
+
+    @Test
+    public void postBatch_JournalsAllOrNothingBatchAsOneRecord()
+    {
+        FailingJournal journal = new FailingJournal();
+        CentralBank journaled = new CentralBank(new ManualClockImpl(LocalDateTime.of(2023, 5, 20, 12, 0)), UUID.randomUUID(), journal);
+        Bank bank = journaled.createBank(BigDecimal.valueOf(100000));
+        bank.addTariff(new TariffBuilder().withName("debit").withAccountType("debit").withBalanceInterest(BigDecimal.ZERO).build());
+        Client client = bank.findClient(bank.addClient(new ClientInformationBuilder().withName("Ivan").withSurname("Ivanov").build()));
+        AccountId accountA = bank.createAccount(client, bank.getTariffStats().get(0)).getAccountID();
+        AccountId accountB = bank.createAccount(client, bank.getTariffStats().get(0)).getAccountID();
+        journaled.addMoney(accountA, 100000);
+        List<PostingRequest> batch = List.of(
+                PostingRequest.transfer(accountA, accountB, 30000),
+                PostingRequest.debit(accountB, 10000),
+                PostingRequest.credit(accountA, 500));
+
+        int recordCount = journal.records.size();
+        journal.allowedAppends = 1;
+        journaled.addMoney(accountB, 100);
+        assertThrows(JournalException.class, () -> journaled.postBatch(batch, BatchAtomicity.ALL_OR_NOTHING));
+        assertEquals(BigDecimal.valueOf(1000), bank.findAccount(accountA).getBalance());
+        assertEquals(BigDecimal.ONE, bank.findAccount(accountB).getBalance());
+        assertEquals(2, journaled.getTransactions().size());
+        assertEquals(recordCount + 1, journal.records.size());
+
+        journal.allowedAppends = Integer.MAX_VALUE;
+        List<PostingResult> results = journaled.postBatch(batch, BatchAtomicity.ALL_OR_NOTHING);
+        assertEquals(recordCount + 2, journal.records.size());
+        assertEquals(results.stream().map(PostingResult::transactionId).toList(),
+                journaled.getTransactions().subList(2, 5).stream().map(Transaction::getId).toList());
+
+        CentralBank recovered = CentralBank.recover(journal, ManualClockImpl::new);
+        assertEquals(BigDecimal.valueOf(705), recovered.findBank(bank.getBankID()).findAccount(accountA).getBalance());
+        assertEquals(BigDecimal.valueOf(201), recovered.findBank(bank.getBankID()).findAccount(accountB).getBalance());
+        assertEquals(journaled.getTransactions().stream().map(Transaction::getId).toList(),
+                recovered.getTransactions().stream().map(Transaction::getId).toList());
+    }
+
+    @Test
+    public void asyncNotifications_DeliverSharedMessageInOrder()
+    {
+        TariffStats stats = bank1.getTariffStats().get(0);
+        Tariff tariff = new Tariff(clock, stats);
+        List<EmailImpl> emails = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            emails.add(new EmailImpl("client" + i + "@mail.ru"));
+            tariff.subscribe(emails.get(i));
+        }
+
+        try (AsyncNotificationDispatcher dispatcher = new AsyncNotificationDispatcher(3, 1, 50)) {
+            tariff.setNotificationDispatcher(dispatcher);
+            for (int i = 1; i <= 3; i++) {
+                tariff.setTariffStats(new TariffBuilder(stats).withBalanceInterest(BigDecimal.valueOf(i)).build());
+            }
+            dispatcher.awaitDelivered();
+
+            Message first = emails.get(0).getMessages().get(0);
+            for (EmailImpl email : emails) {
+                assertEquals(3, email.getMessages().size());
+                assertSame(first, email.getMessages().get(0));
+                assertTrue(email.getMessages().get(2).messageText().contains("Balance interest: 3\n"));
+            }
+            NotificationMetrics metrics = dispatcher.getMetrics();
+            assertEquals(3, metrics.messages());
+            assertEquals(3000, metrics.delivered());
+            assertEquals(0, metrics.failed());
+            assertEquals(0, metrics.pendingBatches());
+
+            centralBank.setNotificationDispatcher(dispatcher);
+            bank1.changeTariff(stats.id(), new TariffBuilder(stats).withBalanceInterest(BigDecimal.ONE).build());
+            dispatcher.awaitDelivered();
+            assertEquals(1, clientA.getClientInformation().emailImpl().getMessages().size());
+        }
+    }
+
+    @Test
+    public void mailbox_KeepsLatestMessagesWithinLimits()
+    {
+        EmailImpl email = new EmailImpl("limited@mail.ru", 3, Duration.ofDays(10));
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 12, 0);
+        for (int i = 0; i < 5; i++) {
+            email.receiveMessage(new Message(new String("message " + i), start.plusDays(i)));
+        }
+        assertEquals(List.of("message 2", "message 3", "message 4"), email.getMessages().stream().map(Message::messageText).toList());
+        assertEquals(new Message("message 4", start.plusDays(4)).toString(), email.toStringLast());
+
+        email.receiveMessage(new Message("message 5", start.plusDays(13)));
+        assertEquals(List.of("message 3", "message 4", "message 5"), email.getMessages().stream().map(Message::messageText).toList());
+        email.receiveMessage(new Message("message 6", start.plusDays(30)));
+        assertEquals(List.of("message 6"), email.getMessages().stream().map(Message::messageText).toList());
+
+        EmailImpl other = new EmailImpl("other@mail.ru");
+        other.receiveMessage(new Message(new String("message 6"), start));
+        assertSame(email.getMessages().get(0).messageText(), other.getMessages().get(0).messageText());
+        assertThrows(EmailException.class, () -> new EmailImpl("empty@mail.ru", 0, Duration.ZERO));
+    }
+
+    @Test
+    public void render_WritesTransactionBoxesAndMessages() throws IOException
+    {
+        centralBank.addMoney(debitAccountA.getAccountID(), BigDecimal.valueOf(1000));
+        centralBank.transferMoney(debitAccountA.getAccountID(), debitAccountB.getAccountID(), BigDecimal.valueOf(15));
+        Transaction transfer = centralBank.getTransactions().get(1);
+
+        StringWriter writer = new StringWriter();
+        transfer.render(writer);
+        List<String> lines = writer.toString().lines().toList();
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(0).matches("\\+ +\\+"));
+        assertEquals(lines.get(0), lines.get(3));
+        assertEquals(lines.get(0).length(), Math.max(lines.get(1).length(), lines.get(2).length()));
+        assertEquals("| " + transfer.getEntities().get(0) + " |", lines.get(1));
+        assertEquals("| " + transfer.getEntities().get(1) + " |", lines.get(2));
+        assertEquals(writer.toString(), transfer.toString());
+
+        StringBuilder buffer = new StringBuilder("stale");
+        StringWriter reused = new StringWriter();
+        transfer.render(reused, buffer);
+        transfer.render(reused, buffer);
+        assertEquals(writer.toString().repeat(2), reused.toString());
+
+        EmailImpl email = new EmailImpl("reader@mail.ru");
+        Message first = new Message("first", LocalDateTime.of(2023, 1, 1, 0, 0));
+        Message second = new Message("second", LocalDateTime.of(2023, 1, 2, 0, 0));
+        email.receiveMessage(first);
+        email.receiveMessage(second);
+        assertEquals(first + "\n" + second + "\n", email.toStringAll());
+        assertEquals(List.of(second), email.getMessages(1, 5));
+        assertEquals(List.of(), email.getMessages(2, 5));
+    }
+
+    @Test
+    public void depositRates_FoundByBalanceTier()
+    {
+        TariffBuilder builder = new TariffBuilder().withName("deposit").withAccountType("deposit")
+                .withDepositPercentage(new BalanceInterval(BigDecimal.valueOf(10000), BigDecimal.valueOf(100000), BigDecimal.valueOf(7.3)))
+                .withDepositPercentage(new BalanceInterval(BigDecimal.ZERO, BigDecimal.valueOf(10000), BigDecimal.valueOf(3.65)));
+        assertThrows(TariffException.class, () -> builder.withDepositPercentage(
+                new BalanceInterval(BigDecimal.valueOf(5000), BigDecimal.valueOf(20000), BigDecimal.ONE)));
+
+        TariffStats stats = builder.build();
+        assertEquals(List.of(BigDecimal.ZERO, BigDecimal.valueOf(10000)), stats.depositPercentages().stream().map(BalanceInterval::lowerBound).toList());
+        assertEquals(1, stats.depositRates().findInterval(Money.toMinorUnits(BigDecimal.valueOf(10000))));
+        assertEquals(-1, stats.depositRates().findInterval(Money.toMinorUnits(BigDecimal.valueOf(-1))));
+        InterestRate balanceInterest = InterestRate.of(stats.balanceInterest());
+        assertEquals(InterestRate.of(BigDecimal.valueOf(7.3)), stats.depositRates().findRate(Money.toMinorUnits(BigDecimal.valueOf(10000)), balanceInterest));
+        assertSame(balanceInterest, stats.depositRates().findRate(Money.toMinorUnits(BigDecimal.valueOf(-1)), balanceInterest));
+
+        AccountBalanceHandler handler = new AccountBalanceHandler(new Tariff(clock, stats));
+        assertEquals(5000L, handler.handleDailyUpdate(Money.toMinorUnits(BigDecimal.valueOf(5000)), 1, 365).accumulatedDiff());
+        assertEquals(40000L, handler.handleDailyUpdate(Money.toMinorUnits(BigDecimal.valueOf(20000)), 1, 365).accumulatedDiff());
+        assertEquals(0, handler.handleDailyUpdate(Money.toMinorUnits(BigDecimal.valueOf(200000)), 1, 365).accumulatedDiff());
+    }
+
+    @Test
+    public void tariffEvaluator_PublishedOnTariffChange()
+    {
+        TariffStats stats = bank1.getTariffStats().get(0);
+        Tariff tariff = debitAccountA.getAccountBalanceHandler().getTariff();
+        TariffEvaluator before = tariff.getEvaluator();
+        assertSame(stats, before.getTariffStats());
+        assertEquals(10000L, before.dailyInterest(Money.toMinorUnits(BigDecimal.valueOf(10000)), 365));
+        assertEquals(9973L, before.dailyInterest(Money.toMinorUnits(BigDecimal.valueOf(10000)), 366));
+
+        bank1.changeTariff(stats.id(), new TariffBuilder(stats).withBalanceInterest(BigDecimal.valueOf(7.3)).withMinimalBalance(BigDecimal.valueOf(-100)).build());
+        TariffEvaluator after = tariff.getEvaluator();
+        assertNotSame(before, after);
+        assertEquals(20000L, after.dailyInterest(Money.toMinorUnits(BigDecimal.valueOf(10000)), 365));
+        assertEquals(-10000, after.getMinimalBalance());
+        assertEquals(10000L, before.dailyInterest(Money.toMinorUnits(BigDecimal.valueOf(10000)), 365));
+        assertEquals(after.handleDailyUpdate(100000, 3, 365), debitAccountA.getAccountBalanceHandler().handleDailyUpdate(100000, 3, 365));
+    }
+
+    @Test
+    public void concurrentTransfers_TotalBalancePreserved() throws Exception
+    {
+        bank1.addTariff(new TariffBuilder().withName("savings").withAccountType("debit").build());
+        Account secondAccountA = bank1.createAccount(clientA, bank1.getTariffStats().get(1));
+        centralBank.addMoney(debitAccountA.getAccountID(), BigDecimal.valueOf(5000));
+        centralBank.addMoney(secondAccountA.getAccountID(), BigDecimal.valueOf(5000));
+
+        int threads = 8;
+        int transfersPerThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            boolean forward = i % 2 == 0;
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < transfersPerThread; j++) {
+                    if (forward) {
+                        centralBank.transferMoney(debitAccountA.getAccountID(), secondAccountA.getAccountID(), BigDecimal.ONE);
+                    }
+                    else {
+                        centralBank.transferMoney(secondAccountA.getAccountID(), debitAccountA.getAccountID(), BigDecimal.ONE);
+                    }
+                }
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(BigDecimal.valueOf(5000), debitAccountA.getBalance());
+        assertEquals(BigDecimal.valueOf(5000), secondAccountA.getBalance());
+        assertEquals(2 + threads * transfersPerThread, centralBank.getTransactions().size());
+    }
+
+    @Test
+    public void postBatch_AppliesAtomicityMode()
+    {
+        AccountId accountA = debitAccountA.getAccountID();
+        AccountId accountB = debitAccountB.getAccountID();
+        List<PostingResult> results = centralBank.postBatch(List.of(
+                PostingRequest.credit(accountA, 100000),
+                PostingRequest.debit(accountA, 500000),
+                PostingRequest.transfer(accountA, accountB, 30000),
+                PostingRequest.credit(new AccountId(UUID.randomUUID(), bank1.getBankID()), 100)), BatchAtomicity.PER_ITEM);
+
+        assertEquals(List.of(true, false, true, false), results.stream().map(PostingResult::isAccepted).toList());
+        assertEquals(BigDecimal.valueOf(700), debitAccountA.getBalance());
+        assertEquals(BigDecimal.valueOf(300), debitAccountB.getBalance());
+        assertEquals(List.of(results.get(0).transactionId(), results.get(2).transactionId()),
+                centralBank.getTransactions().stream().map(Transaction::getId).toList());
+
+        assertThrows(AccountException.class, () -> centralBank.postBatch(List.of(
+                PostingRequest.transfer(accountB, accountA, 10000),
+                PostingRequest.debit(accountB, 100000)), BatchAtomicity.ALL_OR_NOTHING));
+        assertEquals(BigDecimal.valueOf(700), debitAccountA.getBalance());
+        assertEquals(BigDecimal.valueOf(300), debitAccountB.getBalance());
+        assertEquals(2, centralBank.getTransactions().size());
+
+        TariffStats credit = new TariffBuilder().withName("credit").withAccountType("credit").withBalanceInterest(BigDecimal.ZERO)
+                .withMinimalBalance(BigDecimal.valueOf(-1000)).withNegativeOperationTax(BigDecimal.TEN).build();
+        bank1.addTariff(credit);
+        AccountId creditAccount = bank1.createAccount(clientA, credit).getAccountID();
+        centralBank.withdrawMoney(creditAccount, 10000);
+        assertThrows(AccountException.class, () -> centralBank.postBatch(List.of(
+                PostingRequest.debit(creditAccount, 5000),
+                PostingRequest.debit(creditAccount, 1000000)), BatchAtomicity.ALL_OR_NOTHING));
+        assertEquals(BigDecimal.valueOf(-100), bank1.findAccount(creditAccount).getBalance());
+        assertEquals(List.of(-10000L), centralBank.history(creditAccount, LocalDateTime.MIN, LocalDateTime.MAX).stream().map(AccountHistoryEntry::amount).toList());
+    }
+
+    @Test
+    public void timeOrderedIds_UniqueAndSortedInPostingOrder() throws Exception
+    {
+        IdGenerator generator = new TimeOrderedIdGenerator();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<List<UUID>>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(executor.submit(() -> {
+                List<UUID> ids = new ArrayList<>();
+                for (int j = 0; j < 10000; j++) {
+                    ids.add(generator.nextId());
+                }
+                return ids;
+            }));
+        }
+
+        Set<UUID> unique = new HashSet<>();
+        for (Future<List<UUID>> future : futures) {
+            List<UUID> ids = future.get();
+            assertEquals(ids.stream().sorted().toList(), ids);
+            assertTrue(ids.stream().allMatch(id -> id.version() == 7 && id.variant() == 2));
+            unique.addAll(ids);
+        }
+        executor.shutdown();
+        assertEquals(40000, unique.size());
+
+        for (int i = 0; i < 5; i++) {
+            centralBank.addMoney(debitAccountA.getAccountID(), BigDecimal.TEN);
+        }
+        List<UUID> transactionIds = centralBank.getTransactions().stream().map(Transaction::getId).toList();
+        assertEquals(transactionIds.stream().sorted().toList(), transactionIds);
+    }
+
+    @Test
+    public void accountHistory_ReturnsRangeAndPages(@TempDir Path directory)
+    {
+        AccountId accountA = debitAccountA.getAccountID();
+        AccountId accountB = debitAccountB.getAccountID();
+        LocalDateTime start = clock.getDateTime();
+        UUID deposit = centralBank.addMoney(accountA, BigDecimal.valueOf(1000));
+        clock.forward(Duration.ofHours(1));
+        UUID transfer = centralBank.transferMoney(accountA, accountB, BigDecimal.valueOf(300));
+        clock.forward(Duration.ofHours(1));
+        UUID withdrawal = centralBank.withdrawMoney(accountA, BigDecimal.valueOf(100));
+        clock.forward(Duration.ofHours(1));
+        centralBank.cancelTransaction(transfer);
+        assertThrows(AccountException.class, () -> centralBank.postBatch(List.of(
+                PostingRequest.credit(accountA, 5000),
+                PostingRequest.debit(accountA, Money.toMinorUnits(BigDecimal.valueOf(100000)))), BatchAtomicity.ALL_OR_NOTHING));
+
+        List<AccountHistoryEntry> history = centralBank.history(accountA, start, clock.getDateTime());
+        assertEquals(List.of(deposit, transfer, withdrawal, transfer), history.stream().map(AccountHistoryEntry::transactionId).toList());
+        assertEquals(List.of(100000L, -30000L, -10000L, 30000L), history.stream().map(AccountHistoryEntry::amount).toList());
+        assertEquals(List.of(100000L, 70000L, 60000L, 90000L), history.stream().map(AccountHistoryEntry::balance).toList());
+        assertEquals(List.of(transfer, transfer), centralBank.history(accountB, start, clock.getDateTime()).stream().map(AccountHistoryEntry::transactionId).toList());
+
+        assertEquals(history.subList(1, 3), centralBank.history(accountA, start.plusHours(1), start.plusHours(2)));
+        assertEquals(history.subList(1, 3), centralBank.history(accountA, start, clock.getDateTime(), 1, 2));
+        assertEquals(List.of(), centralBank.history(accountA, start, clock.getDateTime(), 4, 10));
+        assertThrows(AccountException.class, () -> centralBank.history(accountA, start, clock.getDateTime(), -1, 10));
+        assertEquals(centralBank.getTransactions().subList(1, 3), centralBank.getTransactions(1, 2));
+        assertEquals(List.of(), centralBank.getTransactions(3, 10));
+        assertThrows(CentralBankException.class, () -> centralBank.getTransactions(0, -1));
+
+        Path snapshotPath = directory.resolve("bank.snapshot");
+        centralBank.writeSnapshot(snapshotPath);
+        CentralBank recovered = CentralBank.recover(SnapshotFile.read(snapshotPath), NoJournal.INSTANCE, ManualClockImpl::new);
+        assertEquals(history, recovered.history(accountA, start, clock.getDateTime()));
+    }
+
+    @Test
+    public void calendarView_RecomputedOnlyWhenMonthChanges()
+    {
+        Clock calendarClock = new ManualClockImpl(LocalDateTime.of(2023, 12, 30, 10, 0));
+        CalendarView december = calendarClock.getCalendarView();
+        assertEquals(365, calendarClock.getDaysInYear());
+        assertEquals(LocalDate.of(2023, 12, 31), december.lastDayOfMonth());
+        assertEquals(364, december.dayOfYear(30));
+
+        calendarClock.forward(Duration.ofHours(20));
+        assertSame(december, calendarClock.getCalendarView());
+
+        calendarClock.forward(Duration.ofDays(1));
+        CalendarView january = calendarClock.getCalendarView();
+        assertEquals(2024, january.year());
+        assertEquals(366, calendarClock.getDaysInYear());
+        assertEquals(LocalDate.of(2024, 12, 31), january.lastDayOfYear());
+        assertTrue(january.isLastDayOfMonth(31));
+        assertSame(january, calendarClock.getCalendarView());
+    }
+
+    @Test
+    public void predict_MatchesDayByDayAccrual()
+    {
+        LocalDateTime start = LocalDateTime.of(2023, 12, 30, 15, 0);
+        Clock accrualClock = new ManualClockImpl(start);
+        TariffStats stats = new TariffBuilder().withName("debit").withAccountType("debit").withBalanceInterest(BigDecimal.valueOf(0.07)).build();
+        AccountBalanceHandler handler = new AccountBalanceHandler(new Tariff(accrualClock, stats));
+        Account account = new Account(new AccountId(UUID.randomUUID(), bank1.getBankID()), start, handler, 31);
+        account.addTransactionSum(1234567);
+
+        for (int days : new int[] {0, 1, 2, 31, 45, 61, 365, 400, 800}) {
+            assertEquals(predictDayByDay(handler, account.getBalanceMinorUnits(), start.toLocalDate(), days, 31), account.predict(Duration.ofDays(days)));
+        }
+    }
+
+    @Test
+    public void dailyInterest_MatchesBigDecimalHalfUpAndChecksOverflow()
+    {
+        Random random = new Random(42);
+        List<Long> balances = new ArrayList<>(List.of(0L, 1L, -1L, 5L, 50L, 99L, 12345L, -12345L, 1_000_000L, 999_999_999L));
+        for (int i = 0; i < 200; i++) {
+            balances.add(random.nextLong() % 100_000_000_000L);
+        }
+        for (String rate : new String[] {"0", "0.0365", "0.07", "0.123", "0.0001", "1", "3.65", "0.333333"}) {
+            TariffEvaluator evaluator = TariffEvaluator.compile(new TariffBuilder().withName("debit").withAccountType("debit")
+                    .withBalanceInterest(new BigDecimal(rate)).build());
+            for (long balance : balances) {
+                for (int daysInYear : new int[] {365, 366, 360}) {
+                    BigDecimal expected = BigDecimal.valueOf(balance, Money.SCALE).multiply(new BigDecimal(rate))
+                            .divide(BigDecimal.valueOf(daysInYear), Money.SCALE, RoundingMode.HALF_UP);
+                    assertEquals(Money.toMinorUnits(expected), evaluator.dailyInterest(balance, daysInYear), rate + " " + balance + " " + daysInYear);
+                    assertEquals(new AccountDifference(0, Money.toMinorUnits(expected) * 3), evaluator.handleDailyUpdate(balance, 3, daysInYear));
+                }
+            }
+        }
+
+        TariffStats generous = new TariffBuilder().withName("generous").withAccountType("debit").withBalanceInterest(BigDecimal.ONE).build();
+        TariffEvaluator evaluator = TariffEvaluator.compile(generous);
+        assertThrows(MoneyException.class, () -> evaluator.handleDailyUpdate(Long.MAX_VALUE / 2, Long.MAX_VALUE / 2, 365));
+
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
+        Account rich = new Account(new AccountId(UUID.randomUUID(), bank1.getBankID()), start, new AccountBalanceHandler(new Tariff(new ManualClockImpl(start), generous)), 1);
+        rich.addTransactionSum(Long.MAX_VALUE / 1000);
+        assertThrows(MoneyException.class, () -> rich.predict(Duration.ofDays(365 * 20)));
+        assertThrows(MoneyException.class, () -> rich.addTransactionSum(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void parallelClockForward_SameBalancesAsSequential()
+    {
+        LocalDateTime start = LocalDateTime.of(2023, 1, 15, 12, 0);
+        ParallelManualClockImpl parallelClock = new ParallelManualClockImpl(start, new ForkJoinPool(4), 7);
+        List<Account> parallelAccounts = openAccounts(parallelClock, 50);
+        ManualClockImpl sequentialClock = new ManualClockImpl(start);
+        List<Account> sequentialAccounts = openAccounts(sequentialClock, 50);
+
+        parallelClock.forward(Duration.ofDays(100));
+        sequentialClock.forward(Duration.ofDays(100));
+
+        for (int i = 0; i < parallelAccounts.size(); i++) {
+            assertEquals(sequentialAccounts.get(i).getBalance(), parallelAccounts.get(i).getBalance());
+        }
+        assertTrue(parallelAccounts.get(0).getBalance().compareTo(BigDecimal.valueOf(1000)) > 0);
+        assertEquals(50, parallelClock.getLastForwardReport().subscribers());
+        assertEquals(8, parallelClock.getLastForwardReport().batchDurations().size());
+    }
+
+    @Test
+    public void payoutWheel_UpdatesOnlyAccountsWithPayoutDay()
+    {
+        LocalDateTime start = LocalDateTime.of(2023, 1, 15, 12, 0);
+        ManualClockImpl wheelClock = new ManualClockImpl(start);
+        CentralBank wheelCentralBank = new CentralBank(wheelClock, UUID.randomUUID());
+        Bank bank = wheelCentralBank.createBank(BigDecimal.valueOf(100000));
+        bank.addTariff(new TariffBuilder().withName("debit").withAccountType("debit").withBalanceInterest(BigDecimal.valueOf(0.1)).build());
+        UUID clientId = bank.addClient(new ClientInformationBuilder().withName("Client").withSurname("Clientov").build());
+
+        Account accountA = bank.createAccount(bank.findClient(clientId), bank.getTariffStats().get(0));
+        wheelCentralBank.addMoney(accountA.getAccountID(), BigDecimal.valueOf(5000));
+        wheelClock.forward(Duration.ofDays(5));
+        Account accountB = bank.createAccount(bank.findClient(clientId), bank.getTariffStats().get(0));
+        wheelCentralBank.addMoney(accountB.getAccountID(), BigDecimal.valueOf(5000));
+
+        wheelClock.forward(Duration.ofDays(26));
+        List<CentralBankSnapshot.AccountState> states = wheelCentralBank.snapshot().banks().get(0).clients().get(0).accounts();
+        assertEquals(wheelClock.getDateTime(), states.get(0).previousUpdateTime());
+        assertEquals(start.plusDays(5), states.get(1).previousUpdateTime());
+        assertEquals(predictDayByDay(accountA.getAccountBalanceHandler(), 500000, start.toLocalDate(), 31, 15), accountA.getBalance());
+        assertEquals(BigDecimal.valueOf(5000), accountB.getBalance());
+
+        wheelClock.forward(Duration.ofDays(5));
+        assertEquals(predictDayByDay(accountB.getAccountBalanceHandler(), 500000, start.toLocalDate().plusDays(5), 31, 20), accountB.getBalance());
+    }
+
+    @Test
+    public void lazyAccrual_UpdatesOnlyAccountsInUse()
+    {
+        LocalDateTime start = LocalDateTime.of(2023, 1, 15, 12, 0);
+        ManualClockImpl lazyClock = new ManualClockImpl(start);
+        CentralBank lazyCentralBank = new CentralBank(lazyClock, UUID.randomUUID());
+        lazyCentralBank.setAccrualMode(AccrualMode.LAZY);
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Bank bank = lazyCentralBank.createBank(BigDecimal.valueOf(100000));
+            bank.addTariff(new TariffBuilder().withName("debit").withAccountType("debit").withBalanceInterest(BigDecimal.valueOf(0.1)).build());
+            UUID clientId = bank.addClient(new ClientInformationBuilder().withName("Client").withSurname("Clientov").build());
+            accounts.add(bank.createAccount(bank.findClient(clientId), bank.getTariffStats().get(0)));
+            lazyCentralBank.addMoney(accounts.get(i).getAccountID(), BigDecimal.valueOf(5000));
+        }
+
+        lazyClock.forward(Duration.ofDays(40));
+        assertEquals(start, lazyCentralBank.snapshot().banks().get(1).clients().get(0).accounts().get(0).previousUpdateTime());
+        assertEquals(predictDayByDay(accounts.get(0).getAccountBalanceHandler(), 500000, start.toLocalDate(), 40, 15), accounts.get(0).getBalance());
+        assertEquals(start, lazyCentralBank.snapshot().banks().get(1).clients().get(0).accounts().get(0).previousUpdateTime());
+
+        lazyCentralBank.settleAccounts();
+        assertEquals(lazyClock.getDateTime(), lazyCentralBank.snapshot().banks().get(1).clients().get(0).accounts().get(0).previousUpdateTime());
+        assertEquals(accounts.get(0).getBalance(), accounts.get(1).getBalance());
+    }
+
+    @Test
+    public void journalReplay_RestoresStateAfterRestart(@TempDir Path directory) throws IOException
+    {
+        Path path = directory.resolve("bank.journal");
+        LocalDateTime start = LocalDateTime.of(2023, 3, 10, 9, 0);
+        BankId bankId;
+        AccountId accountIdA;
+        AccountId accountIdB;
+        BigDecimal balanceA;
+        BigDecimal balanceB;
+        LocalDateTime finalTime;
+
+        try (FileChannelJournal journal = new FileChannelJournal(path)) {
+            CentralBank journaled = new CentralBank(new ManualClockImpl(start), UUID.randomUUID(), journal);
+            Bank bank = journaled.createBank(BigDecimal.valueOf(100));
+            bank.addTariff(new TariffBuilder().withName("debit").withAccountType("debit").withBalanceInterest(BigDecimal.valueOf(0.05)).build());
+            TariffStats stats = bank.getTariffStats().get(0);
+            UUID clientIdA = bank.addClient(new ClientInformationBuilder().withName("Aboba").withSurname("Abobov")
+                    .withEmail(new EmailImpl("abobus@mail.ru")).withAddress(new Address("aaaaaaa", 10))
+                    .withPassport(new Passport("0234", "067890")).build());
+            UUID clientIdB = bank.addClient(new ClientInformationBuilder().withName("Amogus").withSurname("Amogusov").build());
+            Account accountA = bank.createAccount(bank.findClient(clientIdA), stats);
+            Account accountB = bank.createAccount(bank.findClient(clientIdB), stats);
+
+            journaled.addMoney(accountA.getAccountID(), BigDecimal.valueOf(5000));
+            journaled.addMoney(accountB.getAccountID(), BigDecimal.valueOf(50));
+            UUID transfer = journaled.transferMoney(accountA.getAccountID(), accountB.getAccountID(), BigDecimal.valueOf(99));
+            journaled.getClock().forward(Duration.ofDays(40));
+            journaled.withdrawMoney(accountA.getAccountID(), new BigDecimal("1000.55"));
+            journaled.cancelTransaction(transfer);
+            bank.changeTariff(stats.id(), new TariffBuilder(stats).withBalanceInterest(BigDecimal.valueOf(0.1)).build());
+            journaled.getClock().forward(Duration.ofDays(10));
+
+            bankId = bank.getBankID();
+            accountIdA = accountA.getAccountID();
+            accountIdB = accountB.getAccountID();
+            balanceA = accountA.getBalance();
+            balanceB = accountB.getBalance();
+            finalTime = journaled.getClock().getDateTime();
+        }
+
+        Files.write(path, new byte[] {0, 0, 1, 0, 42}, StandardOpenOption.APPEND);
+
+        try (FileChannelJournal journal = new FileChannelJournal(path)) {
+            CentralBank recovered = CentralBank.recover(journal, ManualClockImpl::new);
+            Bank bank = recovered.findBank(bankId);
+
+            assertEquals(balanceA, bank.findAccount(accountIdA).getBalance());
+            assertEquals(balanceB, bank.findAccount(accountIdB).getBalance());
+            assertEquals(4, recovered.getTransactions().size());
+            assertEquals(finalTime, recovered.getClock().getDateTime());
+            assertEquals(BigDecimal.valueOf(0.1), bank.getTariffStats().get(0).balanceInterest());
+            assertEquals(1, bank.getClients().get(0).getClientInformation().emailImpl().getMessages().size());
+
+            recovered.addMoney(accountIdA, BigDecimal.ONE);
+        }
+
+        try (FileChannelJournal journal = new FileChannelJournal(path)) {
+            CentralBank recovered = CentralBank.recover(journal, ManualClockImpl::new);
+            assertEquals(balanceA.add(BigDecimal.ONE), recovered.findBank(bankId).findAccount(accountIdA).getBalance());
+        }
+    }
+
+    @Test
+    public void snapshotRecovery_ReplaysOnlyJournalSuffix(@TempDir Path directory)
+    {
+        Path journalPath = directory.resolve("bank.journal");
+        Path snapshotPath = directory.resolve("bank.snapshot");
+        BankId bankId;
+        List<AccountId> accountIds = new ArrayList<>();
+        List<BigDecimal> balances = new ArrayList<>();
+        List<UUID> transactionIds;
+
+        try (FileChannelJournal journal = new FileChannelJournal(journalPath)) {
+            CentralBank journaled = new CentralBank(new ManualClockImpl(LocalDateTime.of(2023, 5, 20, 12, 0)), UUID.randomUUID(), journal);
+            Bank bank = journaled.createBank(BigDecimal.valueOf(100000));
+            bank.addTariff(new TariffBuilder().withName("debit").withAccountType("debit").withBalanceInterest(BigDecimal.valueOf(0.07)).build());
+            List<Account> accounts = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                UUID clientId = bank.addClient(new ClientInformationBuilder().withName("Client").withSurname("Clientov").build());
+                accounts.add(bank.createAccount(bank.findClient(clientId), bank.getTariffStats().get(0)));
+                journaled.addMoney(accounts.get(i).getAccountID(), BigDecimal.valueOf(1000 * (i + 1)));
+            }
+            UUID canceledAfterSnapshot = journaled.transferMoney(accounts.get(2).getAccountID(), accounts.get(0).getAccountID(), BigDecimal.valueOf(500));
+            journaled.getClock().forward(Duration.ofDays(20));
+
+            journaled.writeSnapshot(snapshotPath);
+
+            journaled.withdrawMoney(accounts.get(1).getAccountID(), BigDecimal.valueOf(300));
+            journaled.postBatch(List.of(
+                    PostingRequest.transfer(accounts.get(0).getAccountID(), accounts.get(1).getAccountID(), 10000),
+                    PostingRequest.credit(accounts.get(2).getAccountID(), 700)), BatchAtomicity.ALL_OR_NOTHING);
+            journaled.cancelTransaction(canceledAfterSnapshot);
+            journaled.getClock().forward(Duration.ofDays(15));
+
+            bankId = bank.getBankID();
+            for (Account account : accounts) {
+                accountIds.add(account.getAccountID());
+                balances.add(account.getBalance());
+            }
+            transactionIds = journaled.getTransactions().stream().map(Transaction::getId).toList();
+        }
+
+        CentralBankSnapshot snapshot = SnapshotFile.read(snapshotPath);
+        try (FileChannelJournal journal = new FileChannelJournal(journalPath)) {
+            List<Object> suffix = new ArrayList<>();
+            journal.replay(snapshot.journalPosition(), suffix::add);
+            assertEquals(4, suffix.size());
+
+            CentralBank recovered = CentralBank.recover(snapshot, journal, ManualClockImpl::new);
+            for (int i = 0; i < accountIds.size(); i++) {
+                assertEquals(balances.get(i), recovered.findBank(bankId).findAccount(accountIds.get(i)).getBalance());
+            }
+            assertEquals(transactionIds, recovered.getTransactions().stream().map(Transaction::getId).toList());
+        }
+    }
+
+    @Test
+    public void snapshotRecovery_SkipsRecordsReflectedByLaterCopies(@TempDir Path directory)
+    {
+        Path journalPath = directory.resolve("bank.journal");
+        CentralBankSnapshot early;
+        CentralBankSnapshot late;
+        BankId bankId;
+        List<AccountId> accountIds = new ArrayList<>();
+        List<BigDecimal> balances = new ArrayList<>();
+        List<UUID> transactionIds;
+
+        try (FileChannelJournal journal = new FileChannelJournal(journalPath)) {
+            CentralBank journaled = new CentralBank(new ManualClockImpl(LocalDateTime.of(2023, 5, 20, 12, 0)), UUID.randomUUID(), journal);
+            Bank bank = journaled.createBank(BigDecimal.valueOf(100000));
+            bank.addTariff(new TariffBuilder().withName("debit").withAccountType("debit").withBalanceInterest(BigDecimal.valueOf(0.07)).build());
+            UUID clientId = bank.addClient(new ClientInformationBuilder().withName("Client").withSurname("Clientov").build());
+            for (int i = 0; i < 2; i++) {
+                accountIds.add(bank.createAccount(bank.findClient(clientId), bank.getTariffStats().get(0)).getAccountID());
+            }
+            journaled.addMoney(accountIds.get(0), BigDecimal.valueOf(1000));
+
+            early = journaled.snapshot();
+            UUID transfer = journaled.transferMoney(accountIds.get(0), accountIds.get(1), BigDecimal.valueOf(300));
+            late = journaled.snapshot();
+            journaled.cancelTransaction(transfer);
+            journaled.addMoney(accountIds.get(1), BigDecimal.valueOf(50));
+
+            bankId = bank.getBankID();
+            for (AccountId accountId : accountIds) {
+                balances.add(bank.findAccount(accountId).getBalance());
+            }
+            transactionIds = journaled.getTransactions().stream().map(Transaction::getId).toList();
+        }
+
+        // first account is copied after the transfer, second one before it
+        CentralBankSnapshot.BankState earlyBank = early.banks().get(0);
+        CentralBankSnapshot.ClientState earlyClient = earlyBank.clients().get(0);
+        CentralBankSnapshot.ClientState mixedClient = new CentralBankSnapshot.ClientState(earlyClient.clientId(), earlyClient.clientInformation(),
+                List.of(late.banks().get(0).clients().get(0).accounts().get(0), earlyClient.accounts().get(1)));
+        CentralBankSnapshot mixed = new CentralBankSnapshot(early.centralBankId(), early.dateTime(), early.journalPosition(),
+                List.of(new CentralBankSnapshot.BankState(bankId, earlyBank.transactionLimitForDoubtfulClients(), earlyBank.tariffs(), List.of(mixedClient), earlyBank.journalSequence())),
+                early.activeTransactions());
+        assertTrue(mixedClient.accounts().get(0).journalSequence() > early.journalPosition().sequence());
+
+        try (FileChannelJournal journal = new FileChannelJournal(journalPath)) {
+            CentralBank recovered = CentralBank.recover(mixed, journal, ManualClockImpl::new);
+            for (int i = 0; i < accountIds.size(); i++) {
+                assertEquals(balances.get(i), recovered.findBank(bankId).findAccount(accountIds.get(i)).getBalance());
+            }
+            assertEquals(transactionIds, recovered.getTransactions().stream().map(Transaction::getId).toList());
+        }
+    }
+
+    @Test
+    public void snapshotRecovery_KeepsActiveTransactionsWithoutReadingJournalPrefix()
+    {
+        FailingJournal journal = new FailingJournal();
+        CentralBank journaled = new CentralBank(new ManualClockImpl(LocalDateTime.of(2023, 5, 20, 12, 0)), UUID.randomUUID(), journal);
+        Bank bank = journaled.createBank(BigDecimal.valueOf(100000));
+        bank.addTariff(new TariffBuilder().withName("debit").withAccountType("debit").withBalanceInterest(BigDecimal.ZERO).build());
+        UUID clientId = bank.addClient(new ClientInformationBuilder().withName("Client").withSurname("Clientov").build());
+        AccountId accountId = bank.createAccount(bank.findClient(clientId), bank.getTariffStats().get(0)).getAccountID();
+        UUID kept = journaled.addMoney(accountId, BigDecimal.valueOf(1000));
+        UUID canceledBeforeSnapshot = journaled.addMoney(accountId, BigDecimal.valueOf(200));
+        journaled.cancelTransaction(canceledBeforeSnapshot);
+        UUID canceledAfterSnapshot = journaled.addMoney(accountId, BigDecimal.valueOf(30));
+
+        CentralBankSnapshot snapshot = journaled.snapshot();
+        assertEquals(List.of(kept, canceledAfterSnapshot), snapshot.activeTransactions().stream().map(CentralBankSnapshot.TransactionState::transactionId).toList());
+        journaled.cancelTransaction(canceledAfterSnapshot);
+        UUID committedAfterSnapshot = journaled.addMoney(accountId, BigDecimal.valueOf(4));
+
+        // records before snapshot can't be applied, so recovery fails if it reads them
+        Collections.fill(journal.records.subList(0, (int) snapshot.journalPosition().offset()), new JournalRecord.TransactionCancelled(UUID.randomUUID()));
+        CentralBank recovered = CentralBank.recover(snapshot, journal, ManualClockImpl::new);
+        assertEquals(BigDecimal.valueOf(1004), recovered.findBank(bank.getBankID()).findAccount(accountId).getBalance());
+        assertEquals(List.of(kept, canceledAfterSnapshot, committedAfterSnapshot), recovered.getTransactions().stream().map(Transaction::getId).toList());
+        recovered.cancelTransaction(kept);
+        assertEquals(BigDecimal.valueOf(4), recovered.findBank(bank.getBankID()).findAccount(accountId).getBalance());
+        assertThrows(TransactionException.class, () -> recovered.cancelTransaction(canceledAfterSnapshot));
+        assertThrows(CentralBankException.class, () -> recovered.cancelTransaction(canceledBeforeSnapshot));
+    }
+
+    @Test
+    public void commandTree_DispatchesListsAndCompletes()
+    {
+        List<String> executed = new ArrayList<>();
+        NotChangingHandlerBuilder showBuilder = new NotChangingHandlerBuilder().withTriggerWord("show");
+        for (String word : List.of("transactions", "tariff", "balance")) {
+            showBuilder.addConcreteHandler(new NotChangingHandlerBuilder().withTriggerWord(word).withTask(service -> {
+                executed.add("show " + word);
+                return null;
+            }).build());
+        }
+        HandlerBase showHandler = showBuilder.build();
+        showHandler.setSuccessor(new ChangingHandlerBuilder().withTriggerWord("skip").withTask(service -> {
+            executed.add("skip");
+            return service;
+        }).build());
+
+        CommandTree tree = CommandTree.compile(showHandler);
+        SingleWorkstationService service = new SingleWorkstationServiceImpl(centralBank);
+
+        assertTrue(tree.dispatch(service, List.of("show", "tariff")).isEmpty());
+        assertEquals(service, tree.dispatch(service, List.of("skip")).orElseThrow());
+        assertEquals(List.of("show tariff", "skip"), executed);
+
+        assertEquals(List.of("show balance", "show tariff", "show transactions", "skip"), tree.commands());
+        assertEquals(List.of("show", "skip"), tree.complete(List.of("s")));
+        assertEquals(List.of("tariff", "transactions"), tree.complete(List.of("show", "t")));
+        assertEquals(List.of(), tree.complete(List.of("cancel", "")));
+
+        assertThrows(GeneralCLIException.class, () -> tree.dispatch(service, List.of("show")));
+        assertThrows(GeneralCLIException.class, () -> tree.dispatch(service, List.of("show", "bank")));
+        assertThrows(GeneralCLIException.class, () -> tree.dispatch(service, List.of("show", "tariff", "extra")));
+    }
+
+    @Test
+    public void scriptRunner_ExecutesInlineArgumentsAndReportsFailures()
+    {
+        RecordingIOHandler output = new RecordingIOHandler();
+        ScriptIOHandler scriptIOHandler = new ScriptIOHandler(output);
+        CentralBank scriptCentralBank = new CentralBank(new ManualClockImpl(LocalDateTime.of(2023, 5, 20, 12, 0)), UUID.randomUUID());
+        SingleWorkstationService service = new SingleWorkstationServiceImpl(scriptCentralBank);
+        ScriptRunner runner = new ScriptRunner(service, CommandTree.compile(new AddHandlerFactoryImpl(scriptIOHandler).getHandler()), scriptIOHandler);
+
+        String script = """
+                # bank with client
+                add bank 1000 yes
+
+                  # note
+                \t# tabbed note
+                add client "Ivan" Ivanov no no no yes
+                add client Ivan1 Ivanov no no no yes
+                add bank 1000 yes extra
+                add bank many yes
+                show bank
+                add bank 2000 no
+                add account
+                """;
+        ScriptRunner.Report report = runner.run(new StringReader(script));
+
+        assertEquals(8, report.commands());
+        assertEquals(5, report.failed());
+        assertEquals(3, scriptCentralBank.getBanks().size());
+        assertEquals(List.of("Ivan"), scriptCentralBank.getBanks().get(0).getClients().stream().map(client -> client.getClientInformation().name()).toList());
+        assertTrue(output.lines.stream().anyMatch(line -> line.startsWith("Line 7: ")));
+        assertTrue(output.lines.stream().anyMatch(line -> line.startsWith("Line 10: ")));
+        assertTrue(output.lines.stream().anyMatch(line -> line.startsWith("Line 12: ")));
+        assertTrue(output.lines.stream().noneMatch(line -> line.startsWith("Set transaction limit")));
+    }
+
+    @Test
+    public void bufferedIOHandler_FlushesAtPromptsAndPagesLists()
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BufferedIOHandler ioHandler = new BufferedIOHandler(new ByteArrayInputStream("\n31\n".getBytes()), output, 1024, 20);
+
+        ioHandler.println("before prompt");
+        assertEquals(0, output.size());
+
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 45; i++) {
+            items.add(i * 10);
+        }
+        assertEquals(310, ioHandler.chooseFromList(items));
+        String shown = output.toString();
+        assertTrue(shown.startsWith("before prompt"));
+        assertTrue(shown.contains("39:\n390"));
+        assertFalse(shown.contains("40:\n400"));
+
+        ioHandler.println("after command");
+        assertFalse(output.toString().contains("after command"));
+        ioHandler.flush();
+        assertTrue(output.toString().contains("after command"));
+        assertThrows(GeneralCLIException.class, ioHandler::readInput);
+    }
+
+    @Test
+    public void multiSessionService_SessionsKeepOwnCursors() throws Exception
+    {
+        MultiSessionService sessions = new MultiSessionServiceImpl(centralBank);
+        UUID tellerA = sessions.openSession();
+        UUID tellerB = sessions.openSession();
+        SingleWorkstationService sessionA = sessions.getSession(tellerA);
+        SingleWorkstationService sessionB = sessions.getSession(tellerB);
+
+        sessionA.enterBank(bank1.getBankID());
+        sessionA.enterClient(clientA.getId());
+        sessionA.chooseAccount(debitAccountA.getAccountID());
+        sessionB.enterBank(bank2.getBankID());
+        sessionB.enterClient(clientB.getId());
+        sessionB.chooseAccount(debitAccountB.getAccountID());
+        assertThrows(ServiceException.class, () -> sessionB.chooseSecondaryAccount(debitAccountA.getAccountID()));
+        assertEquals(bank1, sessionA.getBank());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<UUID>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                SingleWorkstationService session = i % 2 == 0 ? sessionA : sessionB;
+                futures.add(executor.submit(() -> session.putMoney(BigDecimal.TEN)));
+            }
+            for (Future<UUID> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+        assertEquals(0, BigDecimal.valueOf(500).compareTo(debitAccountA.getBalance()));
+        assertEquals(0, BigDecimal.valueOf(500).compareTo(debitAccountB.getBalance()));
+
+        sessionA.chooseTariff(bank1.getTariffStats().get(0).id());
+        TariffBuilder changer = sessionA.getTariffChanger();
+        changer.withMinimalBalance(BigDecimal.valueOf(-100));
+        sessionA.changeTariff(changer);
+        sessionA.chooseTariff(bank1.getTariffStats().get(0).id());
+        assertEquals(0, BigDecimal.valueOf(-100).compareTo(sessionA.getTariffStats().minimalBalance()));
+
+        sessions.closeSession(tellerB);
+        assertThrows(ServiceException.class, () -> sessions.getSession(tellerB));
+        assertEquals(1, sessions.getSessionCount());
+    }
+
+    @Test
+    public void httpFrontend_ServesStatelessRequestsAndReportsLatency() throws Exception
+    {
+        CentralBank httpCentralBank = new CentralBank(new ManualClockImpl(LocalDateTime.of(2023, 5, 20, 12, 0)), UUID.randomUUID());
+        try (HttpFrontend frontend = new HttpFrontend(httpCentralBank, 0, 2)) {
+            frontend.start();
+            assertTrue(frontend.getAddress().getAddress().isLoopbackAddress());
+            HttpClient client = HttpClient.newHttpClient();
+            String base = "http://127.0.0.1:" + frontend.getPort();
+
+            String bankId = postJson(client, base + "/banks", "{\"transactionLimit\": 100000}").get("bankId");
+            String tariffId = postJson(client, base + "/tariffs", "{\"bankId\": \"" + bankId + "\", \"name\": \"debit\", \"accountType\": \"debit\", \"balanceInterest\": 0.1}").get("tariffId");
+            String clientId = postJson(client, base + "/clients", "{\"bankId\": \"" + bankId + "\", \"name\": \"Ivan\", \"surname\": \"Ivanov\", \"street\": \"Nevsky\", \"building\": 10, \"passportSeries\": \"1234\", \"passportNumber\": \"567890\"}").get("clientId");
+            String accountId = postJson(client, base + "/accounts", "{\"bankId\": \"" + bankId + "\", \"clientId\": \"" + clientId + "\", \"tariffId\": \"" + tariffId + "\"}").get("accountId");
+            String account = "\"bankId\": \"" + bankId + "\", \"clientId\": \"" + clientId + "\", \"accountId\": \"" + accountId + "\"";
+
+            postJson(client, base + "/put", "{" + account + ", \"sum\": 1000}");
+            String withdrawal = postJson(client, base + "/withdraw", "{" + account + ", \"sum\": 300}").get("transactionId");
+            postJson(client, base + "/cancel", "{\"transactionId\": \"" + withdrawal + "\"}");
+            Account created = httpCentralBank.findBank(new BankId(UUID.fromString(bankId))).findAccount(new AccountId(UUID.fromString(accountId), new BankId(UUID.fromString(bankId))));
+            assertEquals(0, BigDecimal.valueOf(1000).compareTo(created.getBalance()));
+            assertTrue(new BigDecimal(postJson(client, base + "/predict", "{" + account + ", \"days\": 40}").get("balance")).compareTo(BigDecimal.valueOf(1000)) > 0);
+
+            assertEquals(400, send(client, HttpRequest.newBuilder(URI.create(base + "/put")).POST(HttpRequest.BodyPublishers.ofString("{" + account + "}")).build()).statusCode());
+            assertEquals(405, send(client, HttpRequest.newBuilder(URI.create(base + "/put")).GET().build()).statusCode());
+            assertEquals(404, send(client, HttpRequest.newBuilder(URI.create(base + "/unknown")).POST(HttpRequest.BodyPublishers.ofString("{}")).build()).statusCode());
+
+            assertEquals(3, frontend.getLatencies().get("/put").count());
+            assertTrue(frontend.getLatencies().get("/put").percentile(0.99) >= frontend.getLatencies().get("/put").percentile(0.5));
+            String stats = send(client, HttpRequest.newBuilder(URI.create(base + "/stats")).GET().build()).body();
+            assertTrue(stats.contains("\"/put\":{\"count\":3,\"p50Micros\":"));
+        }
+    }
+
+    @Test
+    public void httpFrontend_SerializesSkipsWithPostings(@TempDir Path directory) throws Exception
+    {
+        LocalDateTime start = LocalDateTime.of(2023, 5, 20, 12, 0);
+        Path journalPath = directory.resolve("bank.journal");
+        int clients = 4;
+        int requestsPerClient = 10;
+        String bankId;
+        String accountId;
+
+        try (FileChannelJournal journal = new FileChannelJournal(journalPath)) {
+            CentralBank httpCentralBank = new CentralBank(new ManualClockImpl(start), UUID.randomUUID(), journal);
+            try (HttpFrontend frontend = new HttpFrontend(httpCentralBank, 0, clients)) {
+                frontend.start();
+                HttpClient client = HttpClient.newHttpClient();
+                String base = "http://127.0.0.1:" + frontend.getPort();
+
+                bankId = postJson(client, base + "/banks", "{\"transactionLimit\": 100000}").get("bankId");
+                String tariffId = postJson(client, base + "/tariffs", "{\"bankId\": \"" + bankId + "\", \"name\": \"debit\", \"accountType\": \"debit\", \"balanceInterest\": 0}").get("tariffId");
+                String clientId = postJson(client, base + "/clients", "{\"bankId\": \"" + bankId + "\", \"name\": \"Ivan\", \"surname\": \"Ivanov\"}").get("clientId");
+                accountId = postJson(client, base + "/accounts", "{\"bankId\": \"" + bankId + "\", \"clientId\": \"" + clientId + "\", \"tariffId\": \"" + tariffId + "\"}").get("accountId");
+                String put = "{\"bankId\": \"" + bankId + "\", \"clientId\": \"" + clientId + "\", \"accountId\": \"" + accountId + "\", \"sum\": 1}";
+
+                ExecutorService requests = Executors.newFixedThreadPool(clients * 2);
+                try {
+                    List<Future<?>> futures = new ArrayList<>();
+                    for (int i = 0; i < clients; i++) {
+                        futures.add(requests.submit(() -> {
+                            for (int j = 0; j < requestsPerClient; j++) {
+                                postJson(client, base + "/skip", "{\"days\": 1}");
+                            }
+                            return null;
+                        }));
+                        futures.add(requests.submit(() -> {
+                            for (int j = 0; j < requestsPerClient; j++) {
+                                postJson(client, base + "/put", put);
+                            }
+                            return null;
+                        }));
+                    }
+                    for (Future<?> future : futures) {
+                        future.get();
+                    }
+                }
+                finally {
+                    requests.shutdown();
+                }
+            }
+            assertEquals(start.plusDays(clients * requestsPerClient), httpCentralBank.getClock().getDateTime());
+        }
+
+        try (FileChannelJournal journal = new FileChannelJournal(journalPath)) {
+            CentralBank recovered = CentralBank.recover(journal, ManualClockImpl::new);
+            assertEquals(start.plusDays(clients * requestsPerClient), recovered.getClock().getDateTime());
+            BankId recoveredBankId = new BankId(UUID.fromString(bankId));
+            assertEquals(BigDecimal.valueOf(clients * requestsPerClient), recovered.findBank(recoveredBankId).findAccount(new AccountId(UUID.fromString(accountId), recoveredBankId)).getBalance());
+        }
+    }
+
+    private Map<String, String> postJson(HttpClient client, String uri, String body) throws IOException, InterruptedException
+    {
+        HttpResponse<String> response = send(client, HttpRequest.newBuilder(URI.create(uri)).POST(HttpRequest.BodyPublishers.ofString(body)).build());
+        assertEquals(200, response.statusCode(), response.body());
+        return new JsonObjectReader(new StringReader(response.body())).readObject();
+    }
+
+    private HttpResponse<String> send(HttpClient client, HttpRequest request) throws IOException, InterruptedException
+    {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private List<Account> openAccounts(Clock accountsClock, int count)
+    {
+        CentralBank accountsCentralBank = new CentralBank(accountsClock, UUID.randomUUID());
+        Bank bank = accountsCentralBank.createBank(BigDecimal.valueOf(100000));
+        bank.addTariff(new TariffBuilder().withName("debit").withAccountType("debit").withBalanceInterest(BigDecimal.valueOf(0.1)).build());
+
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UUID clientId = bank.addClient(new ClientInformationBuilder().withName("Client").withSurname("Clientov").build());
+            Account account = bank.createAccount(bank.findClient(clientId), bank.getTariffStats().get(0));
+            accountsCentralBank.addMoney(account.getAccountID(), BigDecimal.valueOf(1000 + i));
+            accounts.add(account);
+        }
+
+        return accounts;
+    }
+
+    private BigDecimal predictDayByDay(AccountBalanceHandler handler, long balance, LocalDate from, int days, int payoutDay)
+    {
+        long accumulator = 0;
+        for (int i = 1; i <= days; i++) {
+            LocalDate day = from.plusDays(i);
+            if (day.getDayOfMonth() == Math.min(payoutDay, day.lengthOfMonth())) {
+                AccountDifference difference = handler.handleMonthlyUpdate(balance, accumulator);
+                balance += difference.balanceDiff();
+                accumulator += difference.accumulatedDiff();
+            }
+
+            accumulator += handler.handleDailyUpdate(balance, 1, day.lengthOfYear()).accumulatedDiff();
+        }
+
+        return Money.toBigDecimal(balance);
+    }
+
+    private static class FailingJournal implements Journal
+    {
+        private final List<JournalRecord> records = new ArrayList<>();
+        private int allowedAppends = Integer.MAX_VALUE;
+
+        @Override
+        public long append(JournalRecord record) {
+            if (allowedAppends == 0) {
+                throw JournalException.ioFailure(new IOException("disk is full"));
+            }
+            allowedAppends--;
+
+            records.add(record);
+            return records.size();
+        }
+
+        @Override
+        public void awaitDurable(long sequence) {
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return records.isEmpty();
+        }
+
+        @Override
+        public JournalPosition position() {
+            return new JournalPosition(records.size(), records.size());
+        }
+
+        @Override
+        public void replay(Consumer<JournalRecord> consumer) {
+            records.forEach(consumer);
+        }
+
+        @Override
+        public void replay(JournalPosition after, Consumer<JournalRecord> consumer) {
+            records.subList((int) after.offset(), records.size()).forEach(consumer);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class RecordingIOHandler implements ConsoleIOHandler
+    {
+        private final List<String> lines = new ArrayList<>();
+
+        @Override
+        public String readInput() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String readOptions(List<String> options) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int readInt() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BigDecimal readBigDecimal() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean readBooleanAnswer() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean readBooleanAnswer(String question) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void println(String output) {
+            lines.add(output);
+        }
+
+        @Override
+        public void print(CharSequence output) {
+            lines.add(output.toString());
+        }
+
+        @Override
+        public <T> T chooseFromList(List<T> list) {
+            throw new UnsupportedOperationException();
+        }
+    }
 }